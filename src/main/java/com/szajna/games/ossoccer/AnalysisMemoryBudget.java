@@ -0,0 +1,203 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2019 Marek Szajna
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.szajna.games.ossoccer;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import com.szajna.games.ossoccer.ai.SearchContext;
+
+/**
+ * Memory budget shared by the analyses of all running {@link SoccerEngine} instances.<br>
+ * Every analysis reserves its memory before it starts and releases it when done. The analysis gets less than
+ * it asked for when the global limit is used up by the other analyses or, in adaptive mode, when the heap is
+ * running low - the AI plays weaker then, instead of running out of memory.<br>
+ * The memory the search contexts keep for the next analyses of their threads is counted too, see
+ * {@link #keep(SearchContext, long)}.
+ */
+public class AnalysisMemoryBudget
+{
+    /** Part of the free heap the analyses can take in adaptive mode. */
+    private static final int HEAP_HEADROOM_PERCENT = 50;
+
+    private static final AnalysisMemoryBudget instance = new AnalysisMemoryBudget();
+
+    private long globalLimit;
+    private boolean adaptive;
+    private long reservedByteSize;
+    /** Memory kept by the search contexts, the context of a finished thread is dropped with it. */
+    private final Map<SearchContext, Long> keptByteSizes = new WeakHashMap<SearchContext, Long>();
+
+    private AnalysisMemoryBudget()
+    {
+        globalLimit = Long.MAX_VALUE;
+        adaptive = false;
+        reservedByteSize = 0;
+    }
+
+    public static AnalysisMemoryBudget getInstance()
+    {
+        return instance;
+    }
+
+    /**
+     * Sets memory limit of all running analyses.
+     * 
+     * @param globalLimit - memory limit in bytes, Long.MAX_VALUE for no limit.
+     */
+    public synchronized void setGlobalLimit(long globalLimit)
+    {
+        this.globalLimit = globalLimit;
+    }
+
+    public synchronized long getGlobalLimit()
+    {
+        return globalLimit;
+    }
+
+    /**
+     * Enables / disables scaling the analysis memory down to the live heap headroom, disabled by default. NOTE:
+     * the headroom depends on the garbage not collected yet, so the same level can search trees of different
+     * sizes from run to run - enable it only where running out of memory is worse, e.g. a server.
+     * 
+     * @param adaptive
+     */
+    public synchronized void setAdaptive(boolean adaptive)
+    {
+        this.adaptive = adaptive;
+    }
+
+    public synchronized boolean isAdaptive()
+    {
+        return adaptive;
+    }
+
+    /**
+     * Gets memory reserved by the running analyses.
+     * 
+     * @return memory size in bytes.
+     */
+    public synchronized long getReservedByteSize()
+    {
+        return reservedByteSize;
+    }
+
+    /**
+     * Gets memory kept by the search contexts between the analyses.
+     * 
+     * @return memory size in bytes.
+     */
+    public synchronized long getKeptByteSize()
+    {
+        long keptByteSize = 0;
+        for (Long byteSize : keptByteSizes.values())
+        {
+            keptByteSize += byteSize;
+        }
+        return keptByteSize;
+    }
+
+    /**
+     * Gets memory kept by the search context between the analyses.
+     * 
+     * @param context
+     * @return memory size in bytes.
+     */
+    public synchronized long getKeptByteSize(SearchContext context)
+    {
+        Long keptByteSize = keptByteSizes.get(context);
+        return keptByteSize != null ? keptByteSize : 0;
+    }
+
+    /**
+     * Reserves memory for an analysis. Each reservation has to be released by {@link #release(long)}.
+     * 
+     * @param requestedByteSize
+     * @return reserved memory size in bytes; less than requested if the budget is limited.
+     */
+    public long acquire(long requestedByteSize)
+    {
+        return acquire(requestedByteSize, null);
+    }
+
+    /**
+     * Reserves memory for an analysis done with the search context. The memory kept by the context is not
+     * counted as kept anymore - it is reused by the analysis, see {@link #keep(SearchContext, long)}.
+     * 
+     * @param requestedByteSize
+     * @param context           - search context of the analysis, null if none.
+     * @return reserved memory size in bytes; less than requested if the budget is limited.
+     */
+    public synchronized long acquire(long requestedByteSize, SearchContext context)
+    {
+        Long reusedByteSize = context != null ? keptByteSizes.remove(context) : null;
+        long available = globalLimit - reservedByteSize - getKeptByteSize();
+
+        if (adaptive)
+        {
+            // the memory reused by the analysis is already taken from the heap, it is not counted twice
+            Runtime runtime = Runtime.getRuntime();
+            long heapHeadroom = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory())
+                    + (reusedByteSize != null ? reusedByteSize : 0);
+            available = Math.min(available, heapHeadroom / 100 * HEAP_HEADROOM_PERCENT);
+        }
+
+        long granted = Math.max(0, Math.min(requestedByteSize, available));
+        reservedByteSize += granted;
+        return granted;
+    }
+
+    /**
+     * Releases memory reserved by {@link #acquire(long)}.
+     * 
+     * @param grantedByteSize
+     */
+    public synchronized void release(long grantedByteSize)
+    {
+        reservedByteSize -= grantedByteSize;
+        assert (reservedByteSize >= 0);
+    }
+
+    /**
+     * Counts memory kept by a search context after its analysis. The memory is already allocated, so only the
+     * global limit is checked. The previous size kept by the context is replaced.
+     * 
+     * @param context
+     * @param keptByteSize - memory kept by the context in bytes, 0 when released.
+     * @return true if the memory fits the budget; false if not - the context has to be released then.
+     */
+    public synchronized boolean keep(SearchContext context, long keptByteSize)
+    {
+        keptByteSizes.remove(context);
+        if (keptByteSize == 0)
+            return true;
+
+        if (keptByteSize > globalLimit - reservedByteSize - getKeptByteSize())
+            return false;
+
+        keptByteSizes.put(context, keptByteSize);
+        return true;
+    }
+}
@@ -36,9 +36,14 @@ public class AppConfig
     public static final String PROP_KEY_DIFFICULTY_LEVEL = "difficultyLevel";
     public static final String PROP_KEY_FIRST_GOAL_WINS = "firstGoalWins";
     public static final String PROP_KEY_UI_ANIM_SPEED = "uiAnimSpeed";
+    public static final String PROP_KEY_CLOCK_BASE_SECONDS = "clockBaseSeconds";
+    public static final String PROP_KEY_CLOCK_INCREMENT_SECONDS = "clockIncrementSeconds";
 
     public static final int DEFAULT_FIRST_GOAL_WINS = 0;
     public static final int DEFAULT_UI_ANIM_SPEED = 1;
+    /** 0 - no clock */
+    public static final int DEFAULT_CLOCK_BASE_SECONDS = 0;
+    public static final int DEFAULT_CLOCK_INCREMENT_SECONDS = 0;
 
     private static final AppConfig instance = new AppConfig();
     private String configPath;
@@ -51,6 +56,9 @@ public class AppConfig
         defaultProperties.setProperty(PROP_KEY_DIFFICULTY_LEVEL, "1");
         defaultProperties.setProperty(PROP_KEY_FIRST_GOAL_WINS, String.valueOf(DEFAULT_FIRST_GOAL_WINS));
         defaultProperties.setProperty(PROP_KEY_UI_ANIM_SPEED, String.valueOf(DEFAULT_UI_ANIM_SPEED));
+        defaultProperties.setProperty(PROP_KEY_CLOCK_BASE_SECONDS, String.valueOf(DEFAULT_CLOCK_BASE_SECONDS));
+        defaultProperties.setProperty(PROP_KEY_CLOCK_INCREMENT_SECONDS,
+                String.valueOf(DEFAULT_CLOCK_INCREMENT_SECONDS));
 
         String fs = System.getProperty("file.separator");
         configPath = System.getProperty("user.home") + fs + ".ossoccer" + fs + "config.txt";
@@ -0,0 +1,510 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2019 Marek Szajna
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.szajna.games.ossoccer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+
+import com.szajna.games.ossoccer.ai.AnalysisStats;
+import com.szajna.games.ossoccer.field.Path;
+import com.szajna.games.ossoccer.field.PlayerId;
+import com.szajna.util.Log;
+
+/**
+ * Analyses batches of positions (e.g. of the recorded games) in parallel. Each worker thread has its own
+ * engines (AI players), the results are streamed to the observer as the analyses complete - in the completion
+ * order, or in the input order if requested.<br>
+ * The positions are read from the input as the workers take them, so the batch can be of any size: at most
+ * a few positions per worker are held in memory.
+ * 
+ * <pre>
+ * usage: BatchAnalyzer [threads] [level] [nodes] [ordered]
+ * 
+ * input lines:  id [size width height] [turn ...]
+ * output lines: id best-turn estimation elements time-ms | id error message
+ * </pre>
+ */
+public class BatchAnalyzer
+{
+    private static final String LOG_TAG = BatchAnalyzer.class.getSimpleName();
+
+    /** Positions queued or analysed per worker. */
+    private static final int POSITIONS_PER_WORKER = 4;
+
+    /** Marks the end of the input queue. */
+    private static final Result END_OF_INPUT = new Result(null, -1, null, null, null);
+
+    /**
+     * Position to analyse, given by the turns played from the start position.
+     */
+    public static class Position
+    {
+        private final String id;
+        private final int width;
+        private final int height;
+        private final String[] turns;
+
+        /**
+         * Creates position.
+         * 
+         * @param id     - id of the position, reported with the result.
+         * @param width
+         * @param height
+         * @param turns  - turns as the digits of their move directions, see SoccerMatch.
+         */
+        public Position(final String id, final int width, final int height, final String[] turns)
+        {
+            this.id = id;
+            this.width = width;
+            this.height = height;
+            this.turns = turns;
+        }
+
+        /**
+         * Parses position line: id [size width height] [turn ...]. An invalid position is reported by its
+         * analysis result.
+         * 
+         * @param line
+         * @return position.
+         */
+        public static Position parse(final String line)
+        {
+            final String[] tokens = line.trim().split("\\s+");
+            int width = 9;
+            int height = 13;
+            int i = 1;
+
+            if (tokens.length > 3 && "size".equals(tokens[1]))
+            {
+                try
+                {
+                    width = Integer.parseInt(tokens[2]);
+                    height = Integer.parseInt(tokens[3]);
+                }
+                catch (NumberFormatException e)
+                {
+                    width = 0;
+                    height = 0;
+                }
+                i = 4;
+            }
+
+            final String[] turns = new String[tokens.length - i];
+            System.arraycopy(tokens, i, turns, 0, turns.length);
+            return new Position(tokens[0], width, height, turns);
+        }
+
+        public String getId()
+        {
+            return id;
+        }
+
+        public int getWidth()
+        {
+            return width;
+        }
+
+        public int getHeight()
+        {
+            return height;
+        }
+
+        public String[] getTurns()
+        {
+            return turns;
+        }
+    }
+
+    /**
+     * Result of the position analysis.
+     */
+    public static class Result
+    {
+        private final Position position;
+        private final long index;
+        private final Path bestPath;
+        private final AnalysisStats stats;
+        private final String error;
+
+        Result(final Position position, final long index, final Path bestPath, final AnalysisStats stats,
+                final String error)
+        {
+            this.position = position;
+            this.index = index;
+            this.bestPath = bestPath;
+            this.stats = stats;
+            this.error = error;
+        }
+
+        public Position getPosition()
+        {
+            return position;
+        }
+
+        /**
+         * Gets index of the position in the input.
+         * 
+         * @return index.
+         */
+        public long getIndex()
+        {
+            return index;
+        }
+
+        /**
+         * Gets the best turn found.
+         * 
+         * @return the best path or null if the position is invalid or the game is over.
+         */
+        public Path getBestPath()
+        {
+            return bestPath;
+        }
+
+        /**
+         * Gets estimation of the best path, of the point of view of the player to move.
+         * 
+         * @return estimation, see AnalysisStats.getBestPathEstimation().
+         */
+        public short getEstimation()
+        {
+            return null != stats ? stats.getBestPathEstimation() : 0;
+        }
+
+        public AnalysisStats getStats()
+        {
+            return stats;
+        }
+
+        /**
+         * Gets error of the position.
+         * 
+         * @return error message or null if analysed.
+         */
+        public String getError()
+        {
+            return error;
+        }
+    }
+
+    private final int threadsCount;
+    private final int difficultyLevel;
+    private final boolean preserveOrder;
+    private int searchMaxElements = Integer.MAX_VALUE;
+    private long searchMaxTimeMillis = Long.MAX_VALUE;
+
+    /**
+     * Creates analyzer.
+     * 
+     * @param threadsCount    - number of the worker threads.
+     * @param difficultyLevel - 0 - easy, 1 - medium, 2 - hard.
+     * @param preserveOrder   - true to report the results in the input order, otherwise in the completion order.
+     */
+    public BatchAnalyzer(final int threadsCount, final int difficultyLevel, final boolean preserveOrder)
+    {
+        this.threadsCount = threadsCount;
+        this.difficultyLevel = difficultyLevel;
+        this.preserveOrder = preserveOrder;
+    }
+
+    /**
+     * Sets search limits of each position analysis, see AIPlayer.setSearchLimits().
+     * 
+     * @param maxElements   - max. number of the analysis tree elements, Integer.MAX_VALUE for no limit.
+     * @param maxTimeMillis - max. analysis time, Long.MAX_VALUE for no limit.
+     */
+    public void setSearchLimits(final int maxElements, final long maxTimeMillis)
+    {
+        this.searchMaxElements = maxElements;
+        this.searchMaxTimeMillis = maxTimeMillis;
+    }
+
+    /**
+     * Analyses the positions. Returns when all the results are reported.
+     * 
+     * @param positions - positions, read by the calling thread as the workers need them.
+     * @param observer  - observer of the results.
+     * @throws InterruptedException
+     */
+    public void analyse(final Iterator<Position> positions, final IBatchAnalysisObserver observer)
+            throws InterruptedException
+    {
+        new Batch(observer).run(positions);
+    }
+
+    /**
+     * Single analyse() call: the input queue, the workers and the results waiting for their turn.
+     */
+    private class Batch
+    {
+        private final IBatchAnalysisObserver observer;
+        private final BlockingQueue<Result> queue;
+        /** Limits the positions in progress, including the results waiting for the preceding ones. */
+        private final Semaphore window;
+        private final Map<Long, Result> pendingResults = new HashMap<Long, Result>();
+        private long nextResultIndex;
+
+        Batch(final IBatchAnalysisObserver observer)
+        {
+            final int capacity = threadsCount * POSITIONS_PER_WORKER;
+            this.observer = observer;
+            this.queue = new ArrayBlockingQueue<Result>(capacity);
+            this.window = new Semaphore(capacity);
+        }
+
+        void run(final Iterator<Position> positions) throws InterruptedException
+        {
+            final List<Worker> workers = new ArrayList<Worker>(threadsCount);
+            for (int i = 0; i < threadsCount; ++i)
+            {
+                final Worker worker = new Worker(this, i);
+                workers.add(worker);
+                worker.start();
+            }
+
+            try
+            {
+                long index = 0;
+                while (positions.hasNext())
+                {
+                    final Position position = positions.next();
+                    window.acquire();
+                    // NOTE: the queued tasks are results without the analysis
+                    queue.put(new Result(position, index++, null, null, null));
+                }
+                for (int i = 0; i < threadsCount; ++i)
+                {
+                    queue.put(END_OF_INPUT);
+                }
+                for (Worker worker : workers)
+                {
+                    worker.join();
+                }
+            }
+            finally
+            {
+                for (Worker worker : workers)
+                {
+                    worker.interrupt();
+                }
+            }
+        }
+
+        Result take() throws InterruptedException
+        {
+            return queue.take();
+        }
+
+        /**
+         * Reports the result, in the input order if requested.
+         * 
+         * @param result
+         */
+        synchronized void report(final Result result)
+        {
+            if (!preserveOrder)
+            {
+                observer.onPositionAnalysed(result);
+                window.release();
+                return;
+            }
+
+            pendingResults.put(result.getIndex(), result);
+            Result next;
+            while (null != (next = pendingResults.remove(nextResultIndex)))
+            {
+                observer.onPositionAnalysed(next);
+                nextResultIndex++;
+                window.release();
+            }
+        }
+    }
+
+    /**
+     * Worker thread, it has its own match and the engines playing for both players.
+     */
+    private class Worker extends Thread
+    {
+        private final Batch batch;
+        private SoccerMatch match;
+        private final SoccerEngine[] engines = new SoccerEngine[2];
+
+        Worker(final Batch batch, final int index)
+        {
+            super("batch-" + index);
+            this.batch = batch;
+        }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                Result task;
+                while (END_OF_INPUT != (task = batch.take()))
+                {
+                    Result result = null;
+                    try
+                    {
+                        result = analyse(task.getPosition(), task.getIndex());
+                    }
+                    finally
+                    {
+                        // the result is reported even if the analysis fails, it releases the window permit
+                        batch.report(null != result ? result
+                                : new Result(task.getPosition(), task.getIndex(), null, null, "Analysis failed."));
+                    }
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Log.d(LOG_TAG, getName() + " interrupted.");
+            }
+        }
+
+        private Result analyse(final Position position, final long index)
+        {
+            try
+            {
+                setUpMatch(position);
+                if (match.isGameOver())
+                    return new Result(position, index, null, null, "Game is over.");
+
+                final SoccerEngine engine = engines[match.getPlayerToMove() == PlayerId.Player1 ? 0 : 1];
+                final Path bestPath = engine.analyse();
+                return new Result(position, index, bestPath, engine.getLastAnalysisStats(), null);
+            }
+            catch (RuntimeException e)
+            {
+                // e.g. an illegal turn or a turn played after the end of the game
+                return new Result(position, index, null, null, e.getMessage());
+            }
+        }
+
+        private void setUpMatch(final Position position)
+        {
+            if (null == match || match.getField().getWidth() != position.getWidth()
+                    || match.getField().getHeight() != position.getHeight())
+            {
+                match = new SoccerMatch(position.getWidth(), position.getHeight());
+                engines[0] = createEngine(PlayerId.Player1);
+                engines[1] = createEngine(PlayerId.Player2);
+            }
+
+            match.reset();
+            for (String turn : position.getTurns())
+            {
+                match.playTurn(turn);
+            }
+        }
+
+        private SoccerEngine createEngine(final int playerId)
+        {
+            final SoccerEngine engine = new SoccerEngine(match.getField(), difficultyLevel, playerId);
+            engine.setSearchLimits(searchMaxElements, searchMaxTimeMillis);
+            return engine;
+        }
+    }
+
+    public static void main(String args[]) throws InterruptedException
+    {
+        Log.setPrintStream(System.err);
+        Log.setLogLevel(Log.LOG_LEVEL_ERROR);
+
+        final int threadsCount = args.length > 0 ? Integer.parseInt(args[0])
+                : Runtime.getRuntime().availableProcessors();
+        final int level = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        final int maxElements = args.length > 2 ? Integer.parseInt(args[2]) : Integer.MAX_VALUE;
+        final boolean ordered = args.length > 3 && "ordered".equals(args[3]);
+
+        final BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+        final Iterator<Position> positions = new Iterator<Position>() {
+            private String line = readLine();
+
+            @Override
+            public boolean hasNext()
+            {
+                return null != line;
+            }
+
+            @Override
+            public Position next()
+            {
+                final Position position = Position.parse(line);
+                line = readLine();
+                return position;
+            }
+
+            @Override
+            public void remove()
+            {
+                throw new UnsupportedOperationException();
+            }
+
+            private String readLine()
+            {
+                try
+                {
+                    String l;
+                    while (null != (l = in.readLine()) && 0 == l.trim().length())
+                        ;
+                    return l;
+                }
+                catch (IOException e)
+                {
+                    Log.e(LOG_TAG, "Input read failed: " + e.getMessage());
+                    return null;
+                }
+            }
+        };
+
+        final BatchAnalyzer analyzer = new BatchAnalyzer(threadsCount, level, ordered);
+        analyzer.setSearchLimits(maxElements, Long.MAX_VALUE);
+        analyzer.analyse(positions, new IBatchAnalysisObserver() {
+            @Override
+            public void onPositionAnalysed(Result result)
+            {
+                if (null != result.getError())
+                {
+                    System.out.println(result.getPosition().getId() + " error " + result.getError());
+                    return;
+                }
+                System.out.println(result.getPosition().getId() + " " + SoccerMatch.toString(result.getBestPath())
+                        + " " + result.getEstimation() + " " + result.getStats().getElementsCount() + " "
+                        + result.getStats().getTimeMillis());
+            }
+        });
+    }
+}
@@ -0,0 +1,186 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2019 Marek Szajna
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.szajna.games.ossoccer;
+
+import com.szajna.games.ossoccer.field.PlayerId;
+
+/**
+ * Game clock of two players - base time plus increment. The clock of the player to move runs, the increment
+ * is added to the clock of the player when the turn is complete. The clock is thread safe, e.g. it is read by
+ * the UI while the engine thinks.
+ */
+public class GameClock
+{
+    private final long baseMillis;
+    private final long incrementMillis;
+
+    /** Remaining time by PlayerId, the running turn excluded. */
+    private final long[] remainingMillis = new long[3];
+    private int runningPlayerId;
+    private long turnStartTime;
+
+    /**
+     * Creates clock.
+     * 
+     * @param baseMillis      - time of each player at the start of the game, 0 for no clock.
+     * @param incrementMillis - time added to the clock of the player after each turn.
+     * @throws IllegalArgumentException if a time is negative.
+     */
+    public GameClock(final long baseMillis, final long incrementMillis)
+    {
+        if (baseMillis < 0 || incrementMillis < 0)
+            throw new IllegalArgumentException("Invalid clock: " + baseMillis + " + " + incrementMillis);
+
+        this.baseMillis = baseMillis;
+        this.incrementMillis = incrementMillis;
+        reset();
+    }
+
+    /**
+     * Checks if the game is played with the clock.
+     * 
+     * @return true if the base time is set, otherwise false (no clock, the time is not limited).
+     */
+    public boolean isEnabled()
+    {
+        return baseMillis > 0;
+    }
+
+    public long getBaseMillis()
+    {
+        return baseMillis;
+    }
+
+    public long getIncrementMillis()
+    {
+        return incrementMillis;
+    }
+
+    /**
+     * Stops the clock and sets the base time of both players.
+     */
+    public synchronized void reset()
+    {
+        remainingMillis[PlayerId.Player1] = baseMillis;
+        remainingMillis[PlayerId.Player2] = baseMillis;
+        runningPlayerId = PlayerId.None;
+    }
+
+    /**
+     * Starts clock of the player, the running clock is stopped first (no increment).
+     * 
+     * @param playerId
+     */
+    public synchronized void start(final int playerId)
+    {
+        stop();
+        runningPlayerId = playerId;
+        turnStartTime = currentTimeMillis();
+    }
+
+    /**
+     * Stops the running clock, if any.
+     */
+    public synchronized void stop()
+    {
+        if (runningPlayerId != PlayerId.None)
+        {
+            remainingMillis[runningPlayerId] -= currentTimeMillis() - turnStartTime;
+            runningPlayerId = PlayerId.None;
+        }
+    }
+
+    /**
+     * Completes turn of the running player - the increment is added to the clock unless the time is over - and
+     * starts clock of the player to move.
+     * 
+     * @param playerId - player to move, it can be the same player (e.g. the turn after an own goal).
+     */
+    public synchronized void switchTurn(final int playerId)
+    {
+        final int moverId = runningPlayerId;
+        stop();
+        if (moverId != PlayerId.None && remainingMillis[moverId] > 0)
+            remainingMillis[moverId] += incrementMillis;
+        start(playerId);
+    }
+
+    /**
+     * Gets player whose clock runs.
+     * 
+     * @return PlayerId value, PlayerId.None if the clock is stopped.
+     */
+    public synchronized int getRunningPlayerId()
+    {
+        return runningPlayerId;
+    }
+
+    /**
+     * Gets remaining time of the player, the running turn included.
+     * 
+     * @param playerId
+     * @return remaining time in milliseconds, negative if the time is over.
+     */
+    public synchronized long getRemainingMillis(final int playerId)
+    {
+        long remaining = remainingMillis[playerId];
+        if (playerId == runningPlayerId)
+            remaining -= currentTimeMillis() - turnStartTime;
+        return remaining;
+    }
+
+    /**
+     * Checks if the time of the player is over.
+     * 
+     * @param playerId
+     * @return true if the clock is enabled and the remaining time is not positive, otherwise false.
+     */
+    public boolean isTimeOver(final int playerId)
+    {
+        return isEnabled() && getRemainingMillis(playerId) <= 0;
+    }
+
+    /**
+     * Formats time as minutes and seconds, e.g. "4:05".
+     * 
+     * @param millis
+     * @return formatted time, "0:00" if the time is over.
+     */
+    public static String format(final long millis)
+    {
+        final long seconds = Math.max(0, (millis + 999) / 1000);
+        return String.format("%d:%02d", seconds / 60, seconds % 60);
+    }
+
+    /**
+     * Gets time of the clock, overridden by the tests.
+     * 
+     * @return time in milliseconds.
+     */
+    protected long currentTimeMillis()
+    {
+        return System.currentTimeMillis();
+    }
+}
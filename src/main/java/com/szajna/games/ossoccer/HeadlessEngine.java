@@ -0,0 +1,341 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2019 Marek Szajna
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.szajna.games.ossoccer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+
+import com.szajna.games.ossoccer.ai.AnalysisProgress;
+import com.szajna.games.ossoccer.ai.AnalysisStats;
+import com.szajna.games.ossoccer.field.Path;
+import com.szajna.games.ossoccer.field.PlayerId;
+import com.szajna.util.Log;
+
+/**
+ * Headless engine - SoccerEngine over stdin / stdout with a line based protocol, for tournament managers and
+ * servers without a display. No Swing class is loaded.<br>
+ * A turn is written as the digits of its move directions (0 - north, clockwise), see SoccerMatch. The log is
+ * printed to stderr, stdout is reserved for the protocol.
+ * 
+ * <pre>
+ * ossoccer                                  replies: id name ..., ossoccerok
+ * isready                                   replies: readyok
+ * newgame [width height]                    new game, the standard field by default
+ * position [size width height] [moves t1 t2 ...]
+ *                                           turns played from the start position
+ * go [level 0-2] [nodes n] [movetime ms] [p1time ms p2time ms] [p1inc ms p2inc ms]
+ *                                           replies: info ..., bestmove turn | bestmove none
+ * stop                                      stops the analysis, the best move found so far is reported
+ * quit
+ * </pre>
+ * 
+ * During the analysis the best move so far is reported a few times per second as
+ * "info depth d nodes n time ms pv turn". With the clock of the player to move (p1time / p2time) the thinking
+ * time is allocated by the TimeManager.
+ * The commands changing the position wait for the analysis in progress to complete. Errors are reported as
+ * "info string ..." lines.
+ */
+public class HeadlessEngine implements IAnalysisObserver
+{
+    private static final int DEFAULT_WIDTH = 9;
+    private static final int DEFAULT_HEIGHT = 13;
+    private static final int DEFAULT_LEVEL = 1;
+
+    private final PrintStream out;
+    private final Object lock = new Object();
+    private SoccerMatch match;
+    private SoccerEngine engine;
+    private boolean searching;
+    private long searchStartTime;
+
+    public HeadlessEngine(final PrintStream out)
+    {
+        this.out = out;
+        newGame(DEFAULT_WIDTH, DEFAULT_HEIGHT);
+    }
+
+    private void newGame(final int width, final int height)
+    {
+        match = new SoccerMatch(width, height);
+        engine = new SoccerEngine(match.getField(), DEFAULT_LEVEL, PlayerId.Player1);
+        engine.setAnalysisObserver(this);
+    }
+
+    /**
+     * Processes commands until quit or the end of the input.
+     * 
+     * @param in
+     * @throws IOException
+     */
+    public void run(final BufferedReader in) throws IOException
+    {
+        String line;
+        while (null != (line = in.readLine()))
+        {
+            final String[] tokens = line.trim().split("\\s+");
+            if (tokens[0].length() == 0)
+                continue;
+            if ("quit".equals(tokens[0]))
+                break;
+
+            try
+            {
+                execute(tokens);
+            }
+            catch (IllegalArgumentException e)
+            {
+                print("info string " + e.getMessage());
+            }
+            catch (IllegalStateException e)
+            {
+                print("info string " + e.getMessage());
+            }
+        }
+        waitForAnalysis(true);
+    }
+
+    private void execute(final String[] tokens)
+    {
+        final String command = tokens[0];
+
+        if ("ossoccer".equals(command))
+        {
+            print("id name Paper Soccer");
+            print("ossoccerok");
+        }
+        else if ("isready".equals(command))
+        {
+            print("readyok");
+        }
+        else if ("newgame".equals(command))
+        {
+            waitForAnalysis(false);
+            if (tokens.length >= 3)
+                newGame(parseInt(tokens[1]), parseInt(tokens[2]));
+            else
+                newGame(DEFAULT_WIDTH, DEFAULT_HEIGHT);
+        }
+        else if ("position".equals(command))
+        {
+            waitForAnalysis(false);
+            setPosition(tokens);
+        }
+        else if ("go".equals(command))
+        {
+            waitForAnalysis(false);
+            go(tokens);
+        }
+        else if ("stop".equals(command))
+        {
+            // NOTE: ignored without the analysis in progress
+            synchronized (lock)
+            {
+                if (searching)
+                    engine.stopAnalysis();
+            }
+        }
+        else
+        {
+            throw new IllegalArgumentException("Unknown command: " + command);
+        }
+    }
+
+    private void setPosition(final String[] tokens)
+    {
+        int i = 1;
+        if (i < tokens.length && "size".equals(tokens[i]))
+        {
+            if (tokens.length < i + 3)
+                throw new IllegalArgumentException("Field size expected.");
+            final int width = parseInt(tokens[i + 1]);
+            final int height = parseInt(tokens[i + 2]);
+            if (width != match.getField().getWidth() || height != match.getField().getHeight())
+                newGame(width, height);
+            i += 3;
+        }
+        match.reset();
+
+        if (i < tokens.length && "moves".equals(tokens[i]))
+        {
+            for (i++; i < tokens.length; ++i)
+            {
+                match.playTurn(tokens[i]);
+            }
+        }
+        else if (i < tokens.length)
+        {
+            throw new IllegalArgumentException("Unexpected token: " + tokens[i]);
+        }
+    }
+
+    private void go(final String[] tokens)
+    {
+        int level = DEFAULT_LEVEL;
+        int maxElements = Integer.MAX_VALUE;
+        long maxTimeMillis = Long.MAX_VALUE;
+        final long[] clockMillis = { -1, -1, -1 };
+        final long[] incrementMillis = { 0, 0, 0 };
+
+        for (int i = 1; i < tokens.length; i += 2)
+        {
+            if (i + 1 >= tokens.length)
+                throw new IllegalArgumentException("Value of " + tokens[i] + " expected.");
+
+            if ("level".equals(tokens[i]))
+                level = Math.max(0, Math.min(2, parseInt(tokens[i + 1])));
+            else if ("nodes".equals(tokens[i]))
+                maxElements = parseInt(tokens[i + 1]);
+            else if ("movetime".equals(tokens[i]))
+                maxTimeMillis = parseInt(tokens[i + 1]);
+            else if ("p1time".equals(tokens[i]))
+                clockMillis[PlayerId.Player1] = parseInt(tokens[i + 1]);
+            else if ("p2time".equals(tokens[i]))
+                clockMillis[PlayerId.Player2] = parseInt(tokens[i + 1]);
+            else if ("p1inc".equals(tokens[i]))
+                incrementMillis[PlayerId.Player1] = parseInt(tokens[i + 1]);
+            else if ("p2inc".equals(tokens[i]))
+                incrementMillis[PlayerId.Player2] = parseInt(tokens[i + 1]);
+            else
+                throw new IllegalArgumentException("Unknown go parameter: " + tokens[i]);
+        }
+
+        if (match.isGameOver())
+        {
+            print("bestmove none");
+            return;
+        }
+
+        engine.setPlayerId(match.getPlayerToMove());
+        engine.setAnalysisObserver(this);
+        engine.setDifficultyLevel(level);
+        engine.setSearchLimits(maxElements, maxTimeMillis);
+        engine.setClock(clockMillis[match.getPlayerToMove()], incrementMillis[match.getPlayerToMove()]);
+
+        // the analysis is started under the lock, so a stop of it is recorded by the engine even if the
+        // analysing thread did not start yet
+        synchronized (lock)
+        {
+            searching = true;
+            searchStartTime = System.currentTimeMillis();
+            engine.startAnalysis();
+        }
+    }
+
+    @Override
+    public void onAnalysisProgress(final AnalysisProgress progress)
+    {
+        final long timeMillis = System.currentTimeMillis() - searchStartTime;
+        print("info depth " + progress.getDepth() + " nodes " + progress.getElementsCount() + " time " + timeMillis
+                + " pv " + SoccerMatch.toString(progress.getBestPath()));
+    }
+
+    @Override
+    public void onAnalysisComplete()
+    {
+        try
+        {
+            final long timeMillis = System.currentTimeMillis() - searchStartTime;
+            final AnalysisStats stats = engine.getLastAnalysisStats();
+            final Path bestPath = engine.getBestPath();
+
+            if (null != stats && null != bestPath)
+            {
+                final long nodes = stats.getElementsCount();
+                print("info nodes " + nodes + " time " + timeMillis + " nps "
+                        + nodes * 1000 / Math.max(1, timeMillis));
+            }
+            print(null != bestPath && bestPath.size() > 0 ? "bestmove " + SoccerMatch.toString(bestPath)
+                    : "bestmove none");
+        }
+        finally
+        {
+            // the command loop waits for it
+            synchronized (lock)
+            {
+                searching = false;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Waits until the best move of the analysis in progress, if any, is reported.
+     * 
+     * @param stop - true to stop the analysis first.
+     */
+    private void waitForAnalysis(final boolean stop)
+    {
+        synchronized (lock)
+        {
+            if (searching && stop)
+                engine.stopAnalysis();
+
+            while (searching)
+            {
+                try
+                {
+                    lock.wait();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void print(final String line)
+    {
+        synchronized (out)
+        {
+            out.println(line);
+            out.flush();
+        }
+    }
+
+    private static int parseInt(final String value)
+    {
+        try
+        {
+            return Integer.parseInt(value);
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IllegalArgumentException("Invalid number: " + value);
+        }
+    }
+
+    public static void main(String args[]) throws IOException
+    {
+        Log.setPrintStream(System.err);
+        Log.setLogLevel(Log.LOG_LEVEL_WARN);
+
+        new HeadlessEngine(System.out).run(new BufferedReader(new InputStreamReader(System.in)));
+    }
+}
@@ -24,10 +24,26 @@
 
 package com.szajna.games.ossoccer;
 
+import com.szajna.games.ossoccer.ai.AnalysisProgress;
+
+/**
+ * Observer of the SoccerEngine analysis. The notifications are delivered by the executor given to
+ * SoccerEngine.setAnalysisObserver(), e.g. to the UI thread, so the analysing thread never waits for the
+ * observer. Without the executor the observer is called by the analysing thread.
+ */
 public interface IAnalysisObserver
 {
     /**
-     * Called on AI analysis complete.
+     * Called periodically during the AI analysis with the best move found so far, see
+     * SoccerEngine.setProgressInterval().
+     * 
+     * @param progress
+     */
+    void onAnalysisProgress(AnalysisProgress progress);
+
+    /**
+     * Called on AI analysis complete. The result is read by SoccerEngine.getBestPath(), it is kept until the next
+     * analysis is started.
      */
     void onAnalysisComplete();
 }
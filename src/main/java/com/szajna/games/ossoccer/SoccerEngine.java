@@ -25,26 +25,93 @@
 package com.szajna.games.ossoccer;
 
 import java.util.Properties;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 import com.szajna.games.ossoccer.ai.AIFactory;
 import com.szajna.games.ossoccer.ai.AIPlayer;
+import com.szajna.games.ossoccer.ai.AnalysisProgress;
+import com.szajna.games.ossoccer.ai.AnalysisStats;
+import com.szajna.games.ossoccer.ai.ExpansionPolicy;
+import com.szajna.games.ossoccer.ai.IAnalysisProgressObserver;
+import com.szajna.games.ossoccer.ai.SearchContext;
 import com.szajna.games.ossoccer.field.Field;
 import com.szajna.games.ossoccer.field.FieldFactory;
 import com.szajna.games.ossoccer.field.Path;
 import com.szajna.games.ossoccer.field.Path.PathElement;
 import com.szajna.games.ossoccer.field.PlayerId;
+import com.szajna.util.Log;
 
 public class SoccerEngine implements Runnable
 {
+    private static final String LOG_TAG = SoccerEngine.class.getSimpleName();
+
     private IAnalysisObserver analysisObserver;
+    private Executor observerExecutor;
+    private long progressIntervalMillis = DEFAULT_PROGRESS_INTERVAL_MILLIS;
+
+    /** The latest progress of the analysis in progress, published by the analysing thread without a lock. */
+    private volatile AnalysisProgress analysisProgress;
+    /** Observer and executor of the analysis started by startAnalysis(), used by the analysing thread only. */
+    private IAnalysisObserver progressObserver;
+    private Executor progressExecutor;
+
+    private final IAnalysisProgressObserver progressPublisher = new IAnalysisProgressObserver() {
+        @Override
+        public void onAnalysisProgress(AnalysisProgress progress)
+        {
+            publishProgress(progress);
+        }
+    };
     private AIPlayer aiPlayer;
     private Field field;
     private Path bestPath;
+    private long memoryLimit = Long.MAX_VALUE;
+    private ExpansionPolicy expansionPolicy = ExpansionPolicy.BREADTH_FIRST;
+    private int searchMaxElements = Integer.MAX_VALUE;
+    private long searchMaxTimeMillis = Long.MAX_VALUE;
+    private final TimeManager timeManager = new TimeManager();
+    private long clockRemainingMillis = -1;
+    private long clockIncrementMillis;
+    /** true from the start of the analysis (startAnalysis() or analyse()) to its end, guarded by stopLock. */
+    private boolean analysing;
+    /** Stop of the analysis in progress, it is also applied to the searches not started yet. */
+    private volatile boolean stopRequested;
+    private final Object stopLock = new Object();
+    /** Thread of the analyses started by startAnalysis(), created with the first one. */
+    private ExecutorService analysisExecutor;
+
+    /** Default interval of the analysis progress notifications. */
+    public static final long DEFAULT_PROGRESS_INTERVAL_MILLIS = 250;
+
+    /** Tree elements limit of the first search of a timed analysis, doubled by each next search. */
+    private static final int TIMED_SEARCH_START_ELEMENTS = 16 * 1024;
 
     /*
-     * ! SoccerEngine constructor.
+     * ! SoccerEngine constructor, the difficulty level is read from the application configuration.
      */
     public SoccerEngine()
+    {
+        this(FieldFactory.createStandard(), getConfiguredDifficultyLevel(), PlayerId.Player2);
+    }
+
+    /**
+     * Creates engine playing on the field, independent of the application configuration (e.g. headless).
+     * 
+     * @param field           - field of the game, the engine doesn't modify it during the analysis.
+     * @param difficultyLevel - 0 - easy, 1 - medium, 2 - hard.
+     * @param playerId        - player the engine plays for.
+     */
+    public SoccerEngine(final Field field, final int difficultyLevel, final int playerId)
+    {
+        this.field = field;
+        this.aiPlayer = AIFactory.createPlayer("simple", difficultyLevel, playerId, field);
+        this.bestPath = null;
+    }
+
+    private static int getConfiguredDifficultyLevel()
     {
         Properties appProperties = AppConfig.getInstance().getAppProperties();
         String propDifficultyLevel = appProperties.getProperty(AppConfig.PROP_KEY_DIFFICULTY_LEVEL);
@@ -63,15 +130,40 @@ public class SoccerEngine implements Runnable
         {
             difficultyLevel = 1;
         }
-
-        field = FieldFactory.createStandard();
-        aiPlayer = AIFactory.createPlayer("simple", difficultyLevel, PlayerId.Player2, field);
-        bestPath = null;
+        return difficultyLevel;
     }
 
+    /**
+     * Sets observer of the analyses started by startAnalysis(), it is notified by the analysing thread.
+     * 
+     * @param observer
+     */
     public void setAnalysisObserver(IAnalysisObserver observer)
+    {
+        setAnalysisObserver(observer, null);
+    }
+
+    /**
+     * Sets observer of the analyses started by startAnalysis().
+     * 
+     * @param observer
+     * @param executor - executor delivering the notifications (e.g. to the UI thread), it must not block the
+     *                 analysing thread; null to notify the observer by the analysing thread.
+     */
+    public void setAnalysisObserver(IAnalysisObserver observer, Executor executor)
     {
         this.analysisObserver = observer;
+        this.observerExecutor = executor;
+    }
+
+    /**
+     * Sets min. interval of the analysis progress notifications and of the updates of getAnalysisProgress().
+     * 
+     * @param intervalMillis - interval in milliseconds, Long.MAX_VALUE to disable the notifications.
+     */
+    public void setProgressInterval(long intervalMillis)
+    {
+        this.progressIntervalMillis = intervalMillis;
     }
 
     public Field getField()
@@ -89,6 +181,90 @@ public class SoccerEngine implements Runnable
         aiPlayer.setDifficultyLevel(level);
     }
 
+    /**
+     * Sets player the engine plays for. NOTE: it must not be called during the analysis.
+     * 
+     * @param playerId
+     */
+    public void setPlayerId(int playerId)
+    {
+        if (playerId != aiPlayer.getPlayerId())
+        {
+            aiPlayer = AIFactory.createPlayer("simple", aiPlayer.getDifficultyLevel(), playerId, field);
+        }
+    }
+
+    /**
+     * Sets search limits of the next analyses, see AIPlayer.setSearchLimits().
+     * 
+     * @param maxElements   - max. number of the analysis tree elements, Integer.MAX_VALUE for no limit.
+     * @param maxTimeMillis - max. analysis time, Long.MAX_VALUE for no limit.
+     */
+    public void setSearchLimits(int maxElements, long maxTimeMillis)
+    {
+        this.searchMaxElements = maxElements;
+        this.searchMaxTimeMillis = maxTimeMillis;
+    }
+
+    /**
+     * Sets clock of the engine player for the next analyses, the thinking time is then allocated by the
+     * {@link TimeManager}. The search limits set by setSearchLimits() apply as well.
+     * 
+     * @param remainingMillis - remaining time of the engine player, a negative value for no clock.
+     * @param incrementMillis - time added to the clock after the turn.
+     */
+    public void setClock(long remainingMillis, long incrementMillis)
+    {
+        this.clockRemainingMillis = remainingMillis;
+        this.clockIncrementMillis = incrementMillis;
+    }
+
+    /**
+     * Stops the analysis in progress (or the one started by startAnalysis() and not running yet) as soon as a move
+     * is found, the observer is notified as usual. There is no effect without an analysis.
+     */
+    public void stopAnalysis()
+    {
+        synchronized (stopLock)
+        {
+            if (!analysing)
+                return;
+            stopRequested = true;
+        }
+        aiPlayer.stop();
+    }
+
+    /**
+     * Sets expansion policy of the analysis tree of the next analyses, see AIPlayer.setExpansionPolicy().
+     * 
+     * @param expansionPolicy
+     */
+    public void setExpansionPolicy(ExpansionPolicy expansionPolicy)
+    {
+        this.expansionPolicy = expansionPolicy;
+    }
+
+    /**
+     * Sets memory limit of a single analysis of this engine. All engines share also the global
+     * {@link AnalysisMemoryBudget}.
+     * 
+     * @param maxByteSize - memory limit in bytes, Long.MAX_VALUE for no limit.
+     */
+    public void setMemoryLimit(long maxByteSize)
+    {
+        this.memoryLimit = maxByteSize;
+    }
+
+    /**
+     * Gets statistics of the last analysis.
+     * 
+     * @return statistics or null if no analysis has been done yet.
+     */
+    public AnalysisStats getLastAnalysisStats()
+    {
+        return aiPlayer.getLastAnalysisStats();
+    }
+
     public void resetGame()
     {
         // reset field
@@ -104,19 +280,225 @@ public class SoccerEngine implements Runnable
     public void run()
     {
         assert (analysisObserver != null);
+        final IAnalysisObserver observer = analysisObserver;
+        final Executor executor = observerExecutor;
+
+        progressObserver = observer;
+        progressExecutor = executor;
+        try
+        {
+            analyse();
+        }
+        catch (RuntimeException e)
+        {
+            // the observer is notified anyway, without the best path
+            Log.e(LOG_TAG, "Analysis failed: " + e);
+        }
+        finally
+        {
+            progressObserver = null;
+            progressExecutor = null;
+        }
+
+        deliver(executor, new Runnable() {
+            @Override
+            public void run()
+            {
+                observer.onAnalysisComplete();
+            }
+        });
+    }
+
+    /**
+     * Publishes the progress reported by the analysing thread and delivers it to the observer of the analysis
+     * started by startAnalysis().
+     * 
+     * @param progress
+     */
+    private void publishProgress(final AnalysisProgress progress)
+    {
+        analysisProgress = progress;
+
+        final IAnalysisObserver observer = progressObserver;
+        if (observer != null)
+        {
+            deliver(progressExecutor, new Runnable() {
+                @Override
+                public void run()
+                {
+                    observer.onAnalysisProgress(progress);
+                }
+            });
+        }
+    }
+
+    private static void deliver(final Executor executor, final Runnable notification)
+    {
+        if (executor != null)
+            executor.execute(notification);
+        else
+            notification.run();
+    }
+
+    /**
+     * Does the analysis in the calling thread, e.g. a thread of a shared search pool. The observer is not
+     * notified, the progress is published by getAnalysisProgress() only.
+     * 
+     * @return the best path, see getBestPath().
+     */
+    public Path analyse()
+    {
+        synchronized (stopLock)
+        {
+            analysing = true;
+        }
         bestPath = null;
-        bestPath = aiPlayer.makeMove();
-        analysisObserver.onAnalysisComplete();
+        analysisProgress = null;
+        if (progressIntervalMillis != Long.MAX_VALUE)
+            aiPlayer.setProgressObserver(progressPublisher, progressIntervalMillis);
+        try
+        {
+            if (clockRemainingMillis < 0)
+                bestPath = search(searchMaxElements, searchMaxTimeMillis);
+            else
+                bestPath = searchTimed();
+        }
+        finally
+        {
+            aiPlayer.setProgressObserver(null, 0);
+            analysisProgress = null;
+            synchronized (stopLock)
+            {
+                analysing = false;
+                stopRequested = false;
+            }
+        }
+
+        AnalysisStats stats = aiPlayer.getLastAnalysisStats();
+        if (stats != null && stats.isBudgetLimited())
+        {
+            Log.w(LOG_TAG, "Analysis limited by the memory budget: " + stats);
+        }
+        return bestPath;
+    }
+
+    private Path search(int maxElements, long maxTimeMillis)
+    {
+        AnalysisMemoryBudget budget = AnalysisMemoryBudget.getInstance();
+        SearchContext context = SearchContext.forCurrentThread();
+        // the search stopped before its start still has to find a move
+        aiPlayer.setSearchLimits(stopRequested ? 0 : maxElements, maxTimeMillis);
+        aiPlayer.setMemoryLimit(memoryLimit);
+        aiPlayer.setExpansionPolicy(expansionPolicy);
+        aiPlayer.setSearchContext(context);
+        // the memory kept by the context is reserved again by the analysis
+        long grantedByteSize = budget.acquire(aiPlayer.getMaxByteSize(), context);
+        try
+        {
+            aiPlayer.setMemoryLimit(grantedByteSize);
+            return aiPlayer.makeMove();
+        }
+        finally
+        {
+            // the player must not keep the context (and its tree) beyond the thread and the budget
+            aiPlayer.setSearchContext(null);
+            budget.release(grantedByteSize);
+            if (!budget.keep(context, context.getReservedByteSize()))
+                context.release();
+        }
+    }
+
+    /**
+     * Searches with the doubled tree elements limit until the analysis is complete at the difficulty level or
+     * the time manager stops it. The best move of the last search is taken - a search stopped by the maximum
+     * time still analyses more than the previous one.
+     * 
+     * @return the best path.
+     */
+    private Path searchTimed()
+    {
+        final long startTime = System.currentTimeMillis();
+        timeManager.startTurn(field, clockRemainingMillis, clockIncrementMillis);
+
+        Path path = null;
+        String lastTurn = null;
+        int maxElements = Math.min(TIMED_SEARCH_START_ELEMENTS, searchMaxElements);
+
+        while (true)
+        {
+            final long searchStartTime = System.currentTimeMillis();
+            final long timeLeft = Math.max(1, timeManager.getMaximumMillis() - (searchStartTime - startTime));
+            final Path searchPath = search(maxElements, Math.min(timeLeft, searchMaxTimeMillis));
+            if (searchPath == null)
+                break;
+
+            final long now = System.currentTimeMillis();
+            final String turn = SoccerMatch.toString(searchPath);
+            final boolean bestMoveStable = turn.equals(lastTurn);
+            path = searchPath;
+            lastTurn = turn;
+
+            // the search not stopped by its limits is the complete analysis at the difficulty level
+            AnalysisStats stats = aiPlayer.getLastAnalysisStats();
+            if (stopRequested || stats == null || !stats.isSearchLimitReached() || maxElements >= searchMaxElements)
+                break;
+            if (!timeManager.isNextSearchAllowed(now - startTime, now - searchStartTime, bestMoveStable))
+                break;
+
+            maxElements = (int) Math.min(2L * maxElements, searchMaxElements);
+        }
+
+        Log.i(LOG_TAG, "Timed analysis: " + (System.currentTimeMillis() - startTime) + " ms, optimum "
+                + timeManager.getOptimumMillis() + " ms, maximum " + timeManager.getMaximumMillis() + " ms");
+        return path;
     }
 
     public void startAnalysis()
     {
-        Thread worker = new Thread(this);
-        worker.start();
+        synchronized (stopLock)
+        {
+            analysing = true;
+            stopRequested = false;
+        }
+        getAnalysisExecutor().execute(this);
+    }
+
+    /**
+     * Gets the thread of the analyses started by startAnalysis(). A single long-lived thread keeps the search
+     * context, so the analyses of the game reuse its memory. It is a daemon thread, it does not keep the
+     * application running.
+     */
+    private synchronized ExecutorService getAnalysisExecutor()
+    {
+        if (analysisExecutor == null)
+        {
+            analysisExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r)
+                {
+                    Thread thread = new Thread(r, "analysis");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return analysisExecutor;
     }
 
     public Path getBestPath()
     {
         return bestPath;
     }
+
+    /**
+     * Gets the latest progress of the analysis in progress: the best line found so far, the depth and the tree
+     * elements count. The progress is an immutable snapshot published by the analysing thread, it can be read by
+     * any thread (e.g. painted or monitored) without blocking the analysis.
+     * 
+     * @return progress or null if there is no analysis in progress or no progress reported yet.
+     */
+    public AnalysisProgress getAnalysisProgress()
+    {
+        return analysisProgress;
+    }
 }
@@ -0,0 +1,232 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2019 Marek Szajna
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.szajna.games.ossoccer;
+
+import com.szajna.games.ossoccer.field.Field;
+import com.szajna.games.ossoccer.field.FieldFactory;
+import com.szajna.games.ossoccer.field.Move;
+import com.szajna.games.ossoccer.field.Path;
+import com.szajna.games.ossoccer.field.Path.PathElement;
+import com.szajna.games.ossoccer.field.PlayerId;
+
+/**
+ * Game model without the UI: the field, the player to move and the result. Player1 starts and attacks the top
+ * goal, the game ends with the first goal or with a block (the blocked player loses).<br>
+ * A turn is written as the digits of its move directions, e.g. "107" - a move in direction 1 with two
+ * re-bounces.
+ */
+public class SoccerMatch
+{
+    /** Min. width and height of the field. */
+    public static final int MIN_SIZE = 5;
+
+    private final Field field;
+    private int playerToMove;
+    private int winner;
+    private int turnsCount;
+
+    /**
+     * Creates match.
+     * 
+     * @param width
+     * @param height
+     * @throws IllegalArgumentException if the size is invalid (even or less than MIN_SIZE).
+     */
+    public SoccerMatch(final int width, final int height)
+    {
+        if (width < MIN_SIZE || height < MIN_SIZE || 0 == width % 2 || 0 == height % 2)
+            throw new IllegalArgumentException("Invalid field size: " + width + "x" + height);
+
+        this.field = FieldFactory.create(width, height);
+        reset();
+    }
+
+    /**
+     * Resets the match to the start position.
+     */
+    public void reset()
+    {
+        field.reset();
+        playerToMove = PlayerId.Player1;
+        winner = PlayerId.None;
+        turnsCount = 0;
+    }
+
+    public Field getField()
+    {
+        return field;
+    }
+
+    public int getPlayerToMove()
+    {
+        return playerToMove;
+    }
+
+    public int getTurnsCount()
+    {
+        return turnsCount;
+    }
+
+    public boolean isGameOver()
+    {
+        return PlayerId.None != winner;
+    }
+
+    /**
+     * Gets winner of the match.
+     * 
+     * @return PlayerId value, PlayerId.None if the game is not over.
+     */
+    public int getWinner()
+    {
+        return winner;
+    }
+
+    /**
+     * Plays a turn of the player to move. The turn must be complete: every move but the last one ends at a
+     * marked node (re-bounce), the last one ends at a not marked node, in a goal or in a block.
+     * 
+     * @param turn - moves of the turn, the player ids of the moves are ignored.
+     * @throws IllegalArgumentException if the turn is not legal, the match is not changed then.
+     * @throws IllegalStateException    if the game is over.
+     */
+    public void playTurn(final Path turn)
+    {
+        if (isGameOver())
+            throw new IllegalStateException("Game is over.");
+
+        final int movesCount = turn.size();
+        if (0 == movesCount)
+            throw new IllegalArgumentException("Empty turn.");
+
+        final Path moves = new Path();
+        int result = PlayerId.None;
+
+        for (int i = 0; i < movesCount; ++i)
+        {
+            final int dir = turn.get(i).getMoveDirection();
+            if (!SoccerRules.isMoveAllowed(field.getCurrent(), dir) || PlayerId.None != result)
+            {
+                field.undoMoves(moves.size());
+                throw new IllegalArgumentException("Illegal move " + (i + 1) + " of turn " + toString(turn));
+            }
+
+            final boolean hasToRebounce = SoccerRules.hasToRebounce(field.getCurrent(), dir);
+            field.makeMove(dir, playerToMove);
+            moves.addMove(PathElement.valueOf((byte) dir, (byte) playerToMove));
+
+            result = getResult();
+            if (PlayerId.None == result && !hasToRebounce && i < movesCount - 1)
+            {
+                field.undoMoves(moves.size());
+                throw new IllegalArgumentException("Turn " + toString(turn) + " continues after its end.");
+            }
+            if (PlayerId.None == result && hasToRebounce && i == movesCount - 1)
+            {
+                field.undoMoves(moves.size());
+                throw new IllegalArgumentException("Turn " + toString(turn) + " is not complete.");
+            }
+        }
+
+        // record the turn in the field path
+        field.undoMoves(moves.size());
+        field.applyPath(moves);
+
+        winner = result;
+        turnsCount++;
+        playerToMove = getOpponent(playerToMove);
+    }
+
+    /**
+     * Plays a turn written as the digits of its move directions.
+     * 
+     * @param turn
+     * @throws IllegalArgumentException if the turn is not legal or not well formed.
+     */
+    public void playTurn(final String turn)
+    {
+        playTurn(parseTurn(turn));
+    }
+
+    /**
+     * Gets result of the last move.
+     * 
+     * @return the winner or PlayerId.None if the game goes on.
+     */
+    private int getResult()
+    {
+        if (SoccerRules.isGoalScored(field))
+            return 0 == field.getCurrent().getY() ? PlayerId.Player2 : PlayerId.Player1;
+        if (!SoccerRules.isAnyMoveAllowed(field.getCurrent()))
+            return getOpponent(playerToMove); // blocked player loses
+        return PlayerId.None;
+    }
+
+    public static int getOpponent(final int playerId)
+    {
+        return PlayerId.Player1 == playerId ? PlayerId.Player2 : PlayerId.Player1;
+    }
+
+    /**
+     * Parses turn written as the digits of its move directions.
+     * 
+     * @param turn
+     * @return path of the moves, attributed to Player1.
+     * @throws IllegalArgumentException if the turn is not well formed.
+     */
+    public static Path parseTurn(final String turn)
+    {
+        final Path path = new Path();
+
+        for (int i = 0; i < turn.length(); ++i)
+        {
+            final int dir = turn.charAt(i) - '0';
+            if (dir < Move.DIRECTION_0 || Move.DIRECTION_7 < dir)
+                throw new IllegalArgumentException("Invalid turn: " + turn);
+            path.addMove(PathElement.valueOf((byte) dir, (byte) PlayerId.Player1));
+        }
+        return path;
+    }
+
+    /**
+     * Writes turn as the digits of its move directions, the separators are skipped.
+     * 
+     * @param turn
+     * @return turn string.
+     */
+    public static String toString(final Path turn)
+    {
+        final StringBuilder sb = new StringBuilder(turn.size());
+
+        for (int i = 0; i < turn.size(); ++i)
+        {
+            final PathElement move = turn.get(i);
+            if (!move.isSeparator())
+                sb.append((char) ('0' + move.getMoveDirection()));
+        }
+        return sb.toString();
+    }
+}
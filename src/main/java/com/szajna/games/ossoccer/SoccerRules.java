@@ -31,6 +31,46 @@ import com.szajna.games.ossoccer.field.Node;
 
 public class SoccerRules
 {
+    /** Directions (ascending) by the direction bit mask */
+    private static final byte[][] DIRECTIONS_BY_MASK = new byte[1 << Move.DIRECTION_MODULO][];
+
+    static
+    {
+        for (int mask = 0; mask < DIRECTIONS_BY_MASK.length; ++mask)
+        {
+            final byte[] directions = new byte[Integer.bitCount(mask)];
+            int i = 0;
+            for (byte dir = Move.DIRECTION_0; dir <= Move.DIRECTION_7; ++dir)
+            {
+                if (0 != (mask & (1 << dir)))
+                    directions[i++] = dir;
+            }
+            DIRECTIONS_BY_MASK[mask] = directions;
+        }
+    }
+
+    /**
+     * Gets directions of the allowed moves at node.
+     * 
+     * @param node
+     * @return bit mask, bit n set if the move in direction n is allowed.
+     */
+    public static int getAllowedDirections(Node node)
+    {
+        return node.getAllowedDirections();
+    }
+
+    /**
+     * Gets directions set in the direction bit mask.
+     * 
+     * @param mask - direction bit mask, e.g. from getAllowedDirections().
+     * @return directions in ascending order. NOTE: the array is shared, it must not be modified.
+     */
+    public static byte[] getDirections(int mask)
+    {
+        return DIRECTIONS_BY_MASK[mask];
+    }
+
     /**
      * Checks if the move in the direction is allowed at node.
      * 
@@ -40,15 +80,7 @@ public class SoccerRules
      */
     public static boolean isMoveAllowed(Node node, int direction)
     {
-        final Edge edge = node.getEdge(direction);
-        if (edge == null || edge.isBlocked())
-        {
-            return false;
-        }
-        else
-        {
-            return true;
-        }
+        return 0 != (node.getAllowedDirections() & (1 << direction));
     }
 
     /**
@@ -59,14 +91,7 @@ public class SoccerRules
      */
     public static boolean isAnyMoveAllowed(Node node)
     {
-        for (int dir = Move.DIRECTION_0; dir <= Move.DIRECTION_7; ++dir)
-        {
-            if (isMoveAllowed(node, dir))
-            {
-                return true;
-            }
-        }
-        return false;
+        return 0 != node.getAllowedDirections();
     }
 
     /**
@@ -78,14 +103,7 @@ public class SoccerRules
      */
     public static boolean isAnyMoveAllowed(Node node, int exceptDirection)
     {
-        for (int dir = Move.DIRECTION_0; dir <= Move.DIRECTION_7; ++dir)
-        {
-            if (dir != exceptDirection && isMoveAllowed(node, dir))
-            {
-                return true;
-            }
-        }
-        return false;
+        return 0 != (node.getAllowedDirections() & ~(1 << exceptDirection));
     }
 
     /**
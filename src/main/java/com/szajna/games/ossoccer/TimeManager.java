@@ -0,0 +1,121 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2019 Marek Szajna
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.szajna.games.ossoccer;
+
+import com.szajna.games.ossoccer.field.Field;
+import com.szajna.games.ossoccer.field.Node;
+
+/**
+ * Time manager - allocates thinking time of the engine turn from the clock of the engine player.<br>
+ * The optimum time is the share of the remaining time per the expected number of the turns plus most of the
+ * increment, scaled by the complexity of the position: the number of allowed moves and the distance of the
+ * ball to the goals. The maximum time is the hard limit of the turn.<br>
+ * The engine searches with growing limits: the next search is started within the optimum time if the best
+ * move did not change in the last search, otherwise it can use up to the maximum time.
+ */
+public class TimeManager
+{
+    /** Expected number of the remaining turns of the player. */
+    static final int MOVES_TO_GO = 25;
+    /** Time reserved for the turn overhead: thread start, UI update, protocol. */
+    static final long OVERHEAD_MILLIS = 50;
+    /** Min. thinking time, the engine has to make a move even if the time is over. */
+    static final long MIN_TIME_MILLIS = 10;
+
+    /** The maximum time is limited to this part of the remaining time... */
+    private static final int MAX_TIME_DIVISOR = 4;
+    /** ...and to the optimum time multiplied by this ratio. */
+    private static final int MAX_TIME_OPTIMUM_RATIO = 4;
+    /** Rows in front of the goal line, where the position is critical. */
+    private static final int GOAL_AREA_ROWS = 3;
+
+    private long optimumMillis = MIN_TIME_MILLIS;
+    private long maximumMillis = MIN_TIME_MILLIS;
+
+    /**
+     * Allocates thinking time of the turn.
+     * 
+     * @param field           - field of the game at the start of the turn.
+     * @param remainingMillis - remaining time of the player.
+     * @param incrementMillis - time added to the clock after the turn.
+     */
+    public void startTurn(final Field field, final long remainingMillis, final long incrementMillis)
+    {
+        final long available = Math.max(0, remainingMillis - OVERHEAD_MILLIS);
+
+        long optimum = available / MOVES_TO_GO + incrementMillis * 3 / 4;
+        optimum = optimum * getComplexityPercent(field) / 100;
+
+        long maximum = Math.min(optimum * MAX_TIME_OPTIMUM_RATIO, available / MAX_TIME_DIVISOR + incrementMillis / 2);
+        maximum = Math.min(maximum, available);
+
+        maximumMillis = Math.max(MIN_TIME_MILLIS, maximum);
+        optimumMillis = Math.max(MIN_TIME_MILLIS, Math.min(optimum, maximum));
+    }
+
+    public long getOptimumMillis()
+    {
+        return optimumMillis;
+    }
+
+    public long getMaximumMillis()
+    {
+        return maximumMillis;
+    }
+
+    /**
+     * Checks if the next search can be started. The next search is expected to take about twice as long as the
+     * last one (the limits are doubled).
+     * 
+     * @param elapsedMillis       - thinking time of the turn so far.
+     * @param lastSearchMillis    - time of the last search.
+     * @param bestMoveStable      - true if the last search found the same best move as the previous one.
+     * @return true if the next search fits in the time, otherwise false.
+     */
+    public boolean isNextSearchAllowed(final long elapsedMillis, final long lastSearchMillis,
+            final boolean bestMoveStable)
+    {
+        final long limit = bestMoveStable ? optimumMillis : maximumMillis;
+        return elapsedMillis + 2 * lastSearchMillis <= limit;
+    }
+
+    /**
+     * Estimates complexity of the position: 100 for the average position, less for the forced moves and more
+     * for the many choices and the positions close to the goals.
+     * 
+     * @param field
+     * @return complexity in percent.
+     */
+    static int getComplexityPercent(final Field field)
+    {
+        final Node current = field.getCurrent();
+        final int movesCount = Integer.bitCount(SoccerRules.getAllowedDirections(current));
+
+        int percent = movesCount <= 1 ? 25 : 50 + movesCount * 100 / 8;
+        if (current.getY() <= GOAL_AREA_ROWS || current.getY() >= field.getHeight() - 1 - GOAL_AREA_ROWS)
+            percent = percent * 3 / 2;
+        return percent;
+    }
+}
@@ -35,6 +35,13 @@ public interface AIPlayer
      */
     Path makeMove();
 
+    /**
+     * Get player the AI plays for.
+     * 
+     * @return PlayerId value
+     */
+    int getPlayerId();
+
     /**
      * Get AI player difficulty level.
      * 
@@ -48,4 +55,68 @@ public interface AIPlayer
      * @param difficulty 0 - easy, 1 - medium, 2 - hard
      */
     void setDifficultyLevel(int difficulty);
+
+    /**
+     * Set memory limit of a single analysis. The analysis is limited by the difficulty level configuration
+     * and by this limit, whichever is lower.
+     * 
+     * @param maxByteSize memory limit in bytes, Long.MAX_VALUE for no limit
+     */
+    void setMemoryLimit(long maxByteSize);
+
+    /**
+     * Set expansion policy of the analysis tree, ExpansionPolicy.BREADTH_FIRST by default. The memory limit
+     * of the analysis stays the same, so a best-first tree gets fewer elements.
+     * 
+     * @param expansionPolicy
+     */
+    void setExpansionPolicy(ExpansionPolicy expansionPolicy);
+
+    ExpansionPolicy getExpansionPolicy();
+
+    /**
+     * Get memory a single analysis can take at the current difficulty level and memory limit.
+     * 
+     * @return memory size in bytes
+     */
+    long getMaxByteSize();
+
+    /**
+     * Set search limits of the next analyses. The analysis stops at the first limit reached (the difficulty
+     * level and the memory limit apply as well), but not before a complete move is found.
+     * 
+     * @param maxElements    max. number of the analysis tree elements, Integer.MAX_VALUE for no limit
+     * @param maxTimeMillis  max. analysis time in milliseconds, Long.MAX_VALUE for no limit
+     */
+    void setSearchLimits(int maxElements, long maxTimeMillis);
+
+    /**
+     * Stop the analysis in progress as soon as a complete move is found. Can be called from any thread. The
+     * stop is cleared when an analysis starts, so a stop without an analysis in progress has no effect.
+     */
+    void stop();
+
+    /**
+     * Set search context (scratch memory) of the analyses. By default the analysis uses the context of the
+     * analysing thread, see SearchContext.forCurrentThread().
+     * 
+     * @param context search context, null for the context of the analysing thread
+     */
+    void setSearchContext(SearchContext context);
+
+    /**
+     * Set observer of the analysis progress. The observer is called by the analysing thread with the best move
+     * found so far, at most once per the interval. The progress is not reported until a complete move is found.
+     * 
+     * @param observer       progress observer, null to disable the progress reports
+     * @param intervalMillis min. interval of the progress reports in milliseconds
+     */
+    void setProgressObserver(IAnalysisProgressObserver observer, long intervalMillis);
+
+    /**
+     * Get statistics of the last analysis.
+     * 
+     * @return statistics or null if no analysis has been done yet
+     */
+    AnalysisStats getLastAnalysisStats();
 }
@@ -0,0 +1,110 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2019 Marek Szajna
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.szajna.games.ossoccer.ai;
+
+import com.szajna.games.ossoccer.field.Path;
+
+/**
+ * Progress of the AI analysis in progress - an immutable snapshot reported periodically by the analysing
+ * thread, see AIPlayer.setProgressObserver().
+ */
+public final class AnalysisProgress
+{
+    private final int depth;
+    private final int elementsCount;
+    private final long timeMillis;
+    private final Path bestPath;
+    private final short bestPathEstimation;
+
+    public AnalysisProgress(final int depth, final int elementsCount, final long timeMillis, final Path bestPath,
+            final short bestPathEstimation)
+    {
+        this.depth = depth;
+        this.elementsCount = elementsCount;
+        this.timeMillis = timeMillis;
+        this.bestPath = bestPath;
+        this.bestPathEstimation = bestPathEstimation;
+    }
+
+    /**
+     * Gets depth reached: the max. number of the single moves (the AI and the opponent ones) of the analysed
+     * paths.
+     * 
+     * @return depth.
+     */
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    /**
+     * Gets analysis tree elements count.
+     * 
+     * @return elements count.
+     */
+    public int getElementsCount()
+    {
+        return elementsCount;
+    }
+
+    /**
+     * Gets time of the analysis so far.
+     * 
+     * @return time in milliseconds.
+     */
+    public long getTimeMillis()
+    {
+        return timeMillis;
+    }
+
+    /**
+     * Gets the best path found so far. NOTE: the path must not be modified, it is shared by all the observers.
+     * The best path selected at the end of the analysis can differ.
+     * 
+     * @return path of the move.
+     */
+    public Path getBestPath()
+    {
+        return bestPath;
+    }
+
+    /**
+     * Gets estimation of the best path so far, of the AI point of view, see
+     * EstimationTree.getBestPathEstimation().
+     * 
+     * @return estimation.
+     */
+    public short getBestPathEstimation()
+    {
+        return bestPathEstimation;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "depth: " + depth + ", elements: " + elementsCount + ", time: " + timeMillis + " ms, estimation: "
+                + bestPathEstimation + ", best path: " + bestPath;
+    }
+}
@@ -0,0 +1,250 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2019 Marek Szajna
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.szajna.games.ossoccer.ai;
+
+/**
+ * Statistics of a single AI analysis.
+ */
+public class AnalysisStats
+{
+    private int elementsCount;
+    private int elementsMaxCount;
+    private long maxByteSize;
+    private long treeByteSize;
+    private long selectionByteSize;
+    private long peakByteSize;
+    private boolean memoryLimited;
+    private boolean treeLimitReached;
+    private boolean searchLimitReached;
+    private long timeMillis;
+    private short bestPathEstimation;
+
+    /**
+     * Gets analysis tree elements count.
+     * 
+     * @return elements count.
+     */
+    public int getElementsCount()
+    {
+        return elementsCount;
+    }
+
+    /**
+     * Gets analysis tree elements limit.
+     * 
+     * @return elements limit.
+     */
+    public int getElementsMaxCount()
+    {
+        return elementsMaxCount;
+    }
+
+    /**
+     * Gets memory budget of the analysis.
+     * 
+     * @return memory budget in bytes.
+     */
+    public long getMaxByteSize()
+    {
+        return maxByteSize;
+    }
+
+    /**
+     * Gets memory reserved by the analysis tree.
+     * 
+     * @return memory size in bytes.
+     */
+    public long getTreeByteSize()
+    {
+        return treeByteSize;
+    }
+
+    /**
+     * Gets memory allocated for the best path selection.
+     * 
+     * @return memory size in bytes.
+     */
+    public long getSelectionByteSize()
+    {
+        return selectionByteSize;
+    }
+
+    /**
+     * Gets the highest memory taken by the analysis (tree, selection and analysis buffers).
+     * 
+     * @return memory size in bytes.
+     */
+    public long getPeakByteSize()
+    {
+        return peakByteSize;
+    }
+
+    /**
+     * Checks if the memory budget was lowered below the difficulty level configuration by the memory limit.
+     * 
+     * @return true if memory limited, otherwise false.
+     */
+    public boolean isMemoryLimited()
+    {
+        return memoryLimited;
+    }
+
+    /**
+     * Checks if the analysis was stopped by the tree elements limit.
+     * 
+     * @return true if the limit was reached, otherwise false.
+     */
+    public boolean isTreeLimitReached()
+    {
+        return treeLimitReached;
+    }
+
+    /**
+     * Checks if the analysis was stopped by the search limits (elements, time) or on request.
+     * 
+     * @return true if stopped, otherwise false.
+     */
+    public boolean isSearchLimitReached()
+    {
+        return searchLimitReached;
+    }
+
+    /**
+     * Gets estimation of the best path of the AI point of view, see EstimationTree.getBestPathEstimation().
+     * 
+     * @return estimation.
+     */
+    public short getBestPathEstimation()
+    {
+        return bestPathEstimation;
+    }
+
+    /**
+     * Gets time of the analysis.
+     * 
+     * @return time in milliseconds.
+     */
+    public long getTimeMillis()
+    {
+        return timeMillis;
+    }
+
+    /**
+     * Checks if the analysis was cut short by the memory limit, i.e. it would have gone further with the
+     * difficulty level configuration.
+     * 
+     * @return true if budget limited, otherwise false.
+     */
+    public boolean isBudgetLimited()
+    {
+        return memoryLimited && treeLimitReached;
+    }
+
+    void setElementsCount(int elementsCount)
+    {
+        this.elementsCount = elementsCount;
+    }
+
+    void setElementsMaxCount(int elementsMaxCount)
+    {
+        this.elementsMaxCount = elementsMaxCount;
+    }
+
+    void setMaxByteSize(long maxByteSize)
+    {
+        this.maxByteSize = maxByteSize;
+    }
+
+    void setTreeByteSize(long treeByteSize)
+    {
+        this.treeByteSize = treeByteSize;
+    }
+
+    void setSelectionByteSize(long selectionByteSize)
+    {
+        this.selectionByteSize = selectionByteSize;
+    }
+
+    void setPeakByteSize(long peakByteSize)
+    {
+        this.peakByteSize = peakByteSize;
+    }
+
+    void setMemoryLimited(boolean memoryLimited)
+    {
+        this.memoryLimited = memoryLimited;
+    }
+
+    void setTreeLimitReached(boolean treeLimitReached)
+    {
+        this.treeLimitReached = treeLimitReached;
+    }
+
+    void setSearchLimitReached(boolean searchLimitReached)
+    {
+        this.searchLimitReached = searchLimitReached;
+    }
+
+    void setTimeMillis(long timeMillis)
+    {
+        this.timeMillis = timeMillis;
+    }
+
+    void setBestPathEstimation(short bestPathEstimation)
+    {
+        this.bestPathEstimation = bestPathEstimation;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append("elements: ");
+        sb.append(elementsCount);
+        sb.append("/");
+        sb.append(elementsMaxCount);
+        sb.append(", tree: ");
+        sb.append(treeByteSize);
+        sb.append(" bytes, selection: ");
+        sb.append(selectionByteSize);
+        sb.append(" bytes, peak: ");
+        sb.append(peakByteSize);
+        sb.append("/");
+        sb.append(maxByteSize);
+        sb.append(" bytes, time: ");
+        sb.append(timeMillis);
+        sb.append(" ms, estimation: ");
+        sb.append(bestPathEstimation);
+
+        if (treeLimitReached)
+            sb.append(", tree limit reached");
+        if (memoryLimited)
+            sb.append(", memory limited");
+        if (searchLimitReached)
+            sb.append(", search limit reached");
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,212 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2019 Marek Szajna
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.szajna.games.ossoccer.ai;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Binary max-heap of primitive long values.<br>
+ * <b>Rationale: speed / memory optimization</b> - no boxing; elements are kept in fixed size chunks, so the heap
+ * growth never copies the elements and never needs a big continuous block of memory.
+ */
+public class BinaryHeapLong
+{
+    /** 8192 * 8 = 64kB */
+    private static final int CHUNK_ELEMENTS_COUNT = 8192;
+    private static final int CHUNK_SHIFT = 13;
+    private static final int CHUNK_MASK = CHUNK_ELEMENTS_COUNT - 1;
+
+    private long chunks[][];
+    private int chunksCount;
+    private int size;
+
+    public BinaryHeapLong()
+    {
+        chunks = new long[8][];
+        chunksCount = 0;
+        size = 0;
+    }
+
+    /**
+     * Get heap size.
+     * 
+     * @return heap size.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Checks if the heap is empty.
+     * 
+     * @return true if heap is empty, otherwise false.
+     */
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    /**
+     * Clears the heap. NOTE: reserved memory is kept for further use.
+     */
+    public void clear()
+    {
+        size = 0;
+    }
+
+    /**
+     * Gets memory reserved by the heap.
+     * 
+     * @return reserved memory size in bytes.
+     */
+    public long getReservedByteSize()
+    {
+        return getReservedByteSize(chunksCount, chunks.length);
+    }
+
+    /**
+     * Gets memory reserved by the heap holding elementsCount elements.
+     * 
+     * @param elementsCount
+     * @return reserved memory size in bytes.
+     */
+    public static long getReservedByteSize(final int elementsCount)
+    {
+        int chunksCount = (elementsCount + CHUNK_ELEMENTS_COUNT - 1) / CHUNK_ELEMENTS_COUNT;
+        int chunksCapacity = 8;
+        while (chunksCapacity < chunksCount)
+        {
+            chunksCapacity *= 2;
+        }
+        return getReservedByteSize(chunksCount, chunksCapacity);
+    }
+
+    private static long getReservedByteSize(final int chunksCount, final int chunksCapacity)
+    {
+        // BinaryHeapLong: chunks reference, chunksCount, size
+        return MemoryFootprint.ofObject(MemoryFootprint.REFERENCE_SIZE + 4 + 4)
+                + MemoryFootprint.ofReferenceArray(chunksCapacity)
+                + chunksCount * MemoryFootprint.ofLongArray(CHUNK_ELEMENTS_COUNT);
+    }
+
+    /**
+     * Adds element to the heap.
+     * 
+     * @param element
+     */
+    public void add(final long element)
+    {
+        if (size == chunksCount * CHUNK_ELEMENTS_COUNT)
+        {
+            // another chunk required
+            if (chunksCount == chunks.length)
+            {
+                long newChunks[][] = new long[chunks.length * 2][];
+                System.arraycopy(chunks, 0, newChunks, 0, chunksCount);
+                chunks = newChunks;
+            }
+            chunks[chunksCount++] = new long[CHUNK_ELEMENTS_COUNT];
+        }
+
+        // sift up
+        int index = size++;
+        while (index > 0)
+        {
+            int parentIndex = (index - 1) >>> 1;
+            long parent = get(parentIndex);
+            if (parent >= element)
+                break;
+
+            set(index, parent);
+            index = parentIndex;
+        }
+        set(index, element);
+    }
+
+    /**
+     * Gets the greatest element without removing it.
+     * 
+     * @return the greatest element.
+     */
+    public long peek()
+    {
+        if (size == 0)
+            throw new NoSuchElementException("Heap is empty.");
+
+        return chunks[0][0];
+    }
+
+    /**
+     * Removes and returns the greatest element.
+     * 
+     * @return the greatest element.
+     */
+    public long poll()
+    {
+        if (size == 0)
+            throw new NoSuchElementException("Heap is empty.");
+
+        long result = chunks[0][0];
+        long element = get(--size);
+
+        // sift down
+        int index = 0;
+        int half = size >>> 1;
+        while (index < half)
+        {
+            int childIndex = 2 * index + 1;
+            long child = get(childIndex);
+            int rightIndex = childIndex + 1;
+
+            if (rightIndex < size)
+            {
+                long right = get(rightIndex);
+                if (right > child)
+                {
+                    childIndex = rightIndex;
+                    child = right;
+                }
+            }
+            if (element >= child)
+                break;
+
+            set(index, child);
+            index = childIndex;
+        }
+        set(index, element);
+        return result;
+    }
+
+    private long get(final int index)
+    {
+        return chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    private void set(final int index, final long element)
+    {
+        chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK] = element;
+    }
+}
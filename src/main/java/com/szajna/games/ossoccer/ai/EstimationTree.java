@@ -24,14 +24,7 @@
 
 package com.szajna.games.ossoccer.ai;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Arrays;
 
 import com.szajna.games.ossoccer.field.Move;
 import com.szajna.games.ossoccer.field.Path;
@@ -39,7 +32,6 @@ import com.szajna.games.ossoccer.field.Path.PathElement;
 import com.szajna.util.Log;
 
 import java.util.Random;
-import java.util.Set;
 
 /**
  * EstimationTree Used to find the best path by AI.
@@ -56,20 +48,25 @@ public class EstimationTree
      * <b>TreeElement (long) structure - starting from the lowest bit:</b><br>
      * 32 bits: parent index<br>
      * 16 bits: estimation<br>
-     * 8 bits: move depth, values: 1 - max move depth - see {@link SimpleAIPlayer.Config}<br>
+     * 10 bits: move depth, values: 1 - {@link #MAX_MOVE_DEPTH}, see {@link SimpleAIPlayer.Config}<br>
      * 3 bits: move direction<br>
      * 1 bit : analysisComplete<br>
      * 1 bit : pathEnd<br>
-     * 3 bits: free - not used<br>
+     * 1 bit : refuted - AI path end for which the opponent can score, see {@link SimpleAIPlayer}<br>
+     * NOTE: all 64 bits are used.<br>
      */
     public static class TreeElementHelper
     {
         private static final long MASK_PARENT_INDEX = 0x00000000FFFFFFFFL;
         private static final long MASK_ESTIMATION = 0x0000FFFF00000000L;
-        private static final long MASK_MOVE_DEPTH = 0x00FF000000000000L;
-        private static final long MASK_MOVE_DIRECTION = 0x0700000000000000L;
-        private static final long MASK_ANALYSIS_COMPLETE = 0x0800000000000000L;
-        private static final long MASK_PATH_END = 0x1000000000000000L;
+        private static final long MASK_MOVE_DEPTH = 0x03FF000000000000L;
+        private static final long MASK_MOVE_DIRECTION = 0x1C00000000000000L;
+        private static final long MASK_ANALYSIS_COMPLETE = 0x2000000000000000L;
+        private static final long MASK_PATH_END = 0x4000000000000000L;
+        private static final long MASK_REFUTED = 0x8000000000000000L;
+
+        /** Max. move depth (unsigned, 10 bits) */
+        public static final int MAX_MOVE_DEPTH = 0x3FF;
 
         /**
          * Use valueOf method to create TreeElement.
@@ -78,15 +75,16 @@ public class EstimationTree
         {
         };
 
-        public static long valueOf(int parentIndex, short estimation, byte moveDepth, byte moveDirection,
+        public static long valueOf(int parentIndex, short estimation, int moveDepth, byte moveDirection,
                 boolean analysisComplete, boolean pathEnd)
         {
             assert (moveDirection >= Move.DIRECTION_0 && moveDirection <= Move.DIRECTION_7);
+            assert (moveDepth >= 0 && moveDepth <= MAX_MOVE_DEPTH);
 
             long packedData = ((long) parentIndex & MASK_PARENT_INDEX);
             packedData |= ((long) estimation << 32) & MASK_ESTIMATION;
             packedData |= ((long) moveDepth << 48) & MASK_MOVE_DEPTH;
-            packedData |= ((long) moveDirection << 56) & MASK_MOVE_DIRECTION;
+            packedData |= ((long) moveDirection << 58) & MASK_MOVE_DIRECTION;
 
             if (analysisComplete)
                 packedData |= MASK_ANALYSIS_COMPLETE;
@@ -107,14 +105,14 @@ public class EstimationTree
             return (short) (treeElement >>> 32);
         }
 
-        public static byte getMoveDepth(long treeElement)
+        public static int getMoveDepth(long treeElement)
         {
-            return (byte) (treeElement >>> 48);
+            return (int) ((treeElement & MASK_MOVE_DEPTH) >>> 48);
         }
 
         public static byte getMoveDirection(long treeElement)
         {
-            return (byte) ((treeElement & MASK_MOVE_DIRECTION) >>> 56);
+            return (byte) ((treeElement & MASK_MOVE_DIRECTION) >>> 58);
         }
 
         public static boolean isAnalysisComplete(long treeElement)
@@ -127,6 +125,11 @@ public class EstimationTree
             return (treeElement & MASK_PATH_END) != 0;
         }
 
+        public static boolean isRefuted(long treeElement)
+        {
+            return (treeElement & MASK_REFUTED) != 0;
+        }
+
         public static boolean isOpponentAnalysisPossible(long treeElement)
         {
             short estimation = getEstimation(treeElement);
@@ -143,40 +146,20 @@ public class EstimationTree
 
             return treeElement;
         }
-    }
 
-    /** TreeElementComparator. */
-    private static final Comparator<Long> TreeElementComparator = new Comparator<Long>() {
-        @Override
-        public int compare(Long o1, Long o2)
+        public static long setRefuted(long treeElement, boolean refuted)
         {
-            short est1 = TreeElementHelper.getEstimation(o1);
-            short est2 = TreeElementHelper.getEstimation(o2);
-
-            if (est1 > est2)
-            {
-                return -1;
-            }
-            else if (est1 < est2)
-            {
-                return 1;
-            }
+            if (refuted)
+                treeElement |= MASK_REFUTED;
             else
-            {
-                int parentIndex1 = TreeElementHelper.getParentIndex(o1);
-                int parentIndex2 = TreeElementHelper.getParentIndex(o2);
-
-                if (parentIndex1 < parentIndex2)
-                    return -1;
-                else if (parentIndex1 > parentIndex2)
-                    return 1;
-                else
-                    return 0;
-            }
+                treeElement &= (~MASK_REFUTED);
+
+            return treeElement;
         }
-    };
+    }
 
-    // private static final short EST_WORST = Short.MIN_VALUE;
+    /** Worse than any estimation, used as 'no estimation' marker. */
+    private static final short EST_WORST = Short.MIN_VALUE;
     private static final short EST_BEST = Short.MAX_VALUE;
 
     public static final short EST_GAME_LOST = Short.MIN_VALUE + 1;
@@ -185,8 +168,13 @@ public class EstimationTree
 
     private final Random randomizer;
     private final PoolArrayLong tree;
-    private final int playerId;
+    private int playerId;
     private boolean atLeastOnePathEndInTree;
+    /** Estimation of the last best path, see getBestPathEstimation(). */
+    private short bestPathEstimation;
+
+    /** Best-first expansion queue, created on the first use. */
+    private BinaryHeapLong expansionQueue;
 
     /**
      * Constructs EstimationTree.
@@ -201,6 +189,46 @@ public class EstimationTree
         atLeastOnePathEndInTree = false;
     }
 
+    /**
+     * Constructs EstimationTree on top of the elements container, e.g. the one loaded by
+     * {@link EstimationTreeFile}.
+     * 
+     * @param playerId
+     * @param elements
+     */
+    EstimationTree(final int playerId, final PoolArrayLong elements)
+    {
+        randomizer = new Random();
+        tree = elements;
+        this.playerId = playerId;
+        atLeastOnePathEndInTree = false;
+
+        for (int i = 0; i < tree.size() && !atLeastOnePathEndInTree; ++i)
+        {
+            atLeastOnePathEndInTree = TreeElementHelper.isPathEnd(tree.get(i));
+        }
+    }
+
+    /**
+     * Gets the elements container.
+     * 
+     * @return elements.
+     */
+    PoolArrayLong getElements()
+    {
+        return tree;
+    }
+
+    /**
+     * Gets id of the player the tree is built for.
+     * 
+     * @return player id.
+     */
+    public int getPlayerId()
+    {
+        return playerId;
+    }
+
     /**
      * Clears the tree.
      */
@@ -208,6 +236,26 @@ public class EstimationTree
     {
         tree.clear();
         atLeastOnePathEndInTree = false;
+
+        if (expansionQueue != null)
+            expansionQueue.clear();
+    }
+
+    /**
+     * Clears the tree for another analysis, possibly of the other player. The memory of the elements is kept for
+     * reuse, up to maxElementsCount elements.
+     * 
+     * @param playerId
+     * @param maxElementsCount
+     */
+    public void reset(final int playerId, final int maxElementsCount)
+    {
+        tree.reset(maxElementsCount);
+        this.playerId = playerId;
+        atLeastOnePathEndInTree = false;
+
+        if (expansionQueue != null)
+            expansionQueue.clear();
     }
 
     /**
@@ -281,7 +329,7 @@ public class EstimationTree
             parentIndex = TreeElementHelper.getParentIndex(treeElement);
         }
         // reverse the path
-        Collections.reverse(path.getMoves());
+        path.reverse();
         return path;
     }
 
@@ -315,6 +363,45 @@ public class EstimationTree
         return pathMovesSize;
     }
 
+    /**
+     * Gets index of the AI move (AI path end element) the opponent move element at index replies to.
+     * 
+     * @param index                  - opponent move element index.
+     * @param opponentMoveStartIndex
+     * @return AI move element index.
+     */
+    public int getAIMoveIndex(final int index, final int opponentMoveStartIndex)
+    {
+        int parentIndex = TreeElementHelper.getParentIndex(tree.get(index));
+        while (parentIndex >= opponentMoveStartIndex)
+        {
+            parentIndex = TreeElementHelper.getParentIndex(tree.get(parentIndex));
+        }
+        return parentIndex;
+    }
+
+    /**
+     * Marks AI move (AI path end element) at index as refuted by the opponent - the opponent can score after
+     * it, so its remaining replies are not analyzed.
+     * 
+     * @param index
+     */
+    public void setRefuted(final int index)
+    {
+        tree.set(TreeElementHelper.setRefuted(tree.get(index), true), index);
+    }
+
+    /**
+     * Checks if AI move (AI path end element) at index is refuted by the opponent.
+     * 
+     * @param index
+     * @return true if refuted, otherwise false.
+     */
+    public boolean isRefuted(final int index)
+    {
+        return TreeElementHelper.isRefuted(tree.get(index));
+    }
+
     /**
      * Gets tree elements count.
      * 
@@ -341,6 +428,77 @@ public class EstimationTree
         return false;
     }
 
+    /**
+     * Adds element at index to the best-first expansion queue.<br>
+     * Elements are ordered by estimation (the highest first) and then by index (the lowest first).
+     * 
+     * @param index
+     */
+    public void offerForExpansion(final int index)
+    {
+        if (expansionQueue == null)
+            expansionQueue = new BinaryHeapLong();
+
+        short estimation = TreeElementHelper.getEstimation(tree.get(index));
+        expansionQueue.add(((long) estimation << 32) | (Integer.MAX_VALUE - index));
+    }
+
+    /**
+     * Removes the most promising element from the best-first expansion queue.
+     * 
+     * @return element index or -1 if the queue is empty.
+     */
+    public int pollForExpansion()
+    {
+        if (expansionQueue == null || expansionQueue.isEmpty())
+            return -1;
+
+        return Integer.MAX_VALUE - (int) expansionQueue.poll();
+    }
+
+    /**
+     * Clears the best-first expansion queue.
+     */
+    public void clearExpansionQueue()
+    {
+        if (expansionQueue != null)
+            expansionQueue.clear();
+    }
+
+    /**
+     * Gets the leading AI move of the analysis in progress: the AI path end with the best estimation, not
+     * refuted by the opponent move analysis if possible (the lowest index if there are more than one). Unlike
+     * {@link #getBestPath(int)} it neither allocates memory nor takes a random move, so the analysis is not
+     * affected - the best path selected at the end of the analysis can differ.
+     * 
+     * @param aiMovesEndIndex - opponent move start index, the elements count during the AI move analysis.
+     * @return element index or -1 if there is no AI path end yet.
+     */
+    public int getLeadingPathEnd(final int aiMovesEndIndex)
+    {
+        int bestIndex = -1;
+        boolean bestRefuted = true;
+        short bestEstimation = EST_WORST;
+
+        for (int i = 0; i < aiMovesEndIndex; ++i)
+        {
+            long treeElement = tree.get(i);
+            if (!TreeElementHelper.isPathEnd(treeElement))
+                continue;
+
+            boolean refuted = TreeElementHelper.isRefuted(treeElement);
+            short estimation = TreeElementHelper.getEstimation(treeElement);
+            if (bestIndex == -1 || (bestRefuted && !refuted)
+                    || (bestRefuted == refuted && estimation > bestEstimation))
+            {
+                bestIndex = i;
+                bestRefuted = refuted;
+                bestEstimation = estimation;
+            }
+        }
+        return bestIndex;
+    }
+
     /**
      * Gets the best path based on opponent move analysis.
      * 
@@ -358,52 +516,52 @@ public class EstimationTree
             if (TreeElementHelper.isPathEnd(treeElement)
                     && TreeElementHelper.getEstimation(treeElement) == EST_GOAL_SCORED)
             {
+                bestPathEstimation = EST_GOAL_SCORED;
                 return getPathToElement(i);
             }
         }
 
-        // AI move indexes with opponent best estimation
-        Map<Integer, Integer> aiMoveIndexes = new HashMap<Integer, Integer>();
+        // opponent best estimation for AI moves (path end elements), EST_WORST if no opponent reply
+        short opponentBestEstimations[] = new short[opponentMoveStartIndex];
+        Arrays.fill(opponentBestEstimations, EST_WORST);
+        int aiMovesCount = 0;
+
         for (int i = opponentMoveStartIndex; i < tree.size(); ++i)
         {
-
             long treeElement = tree.get(i);
             if (TreeElementHelper.isPathEnd(treeElement))
             {
-                int opponentMoveEstimation = TreeElementHelper.getEstimation(treeElement);
-                while (TreeElementHelper.getParentIndex(treeElement) >= opponentMoveStartIndex)
-                {
-                    treeElement = tree.get(TreeElementHelper.getParentIndex(treeElement));
-                }
+                short opponentMoveEstimation = TreeElementHelper.getEstimation(treeElement);
+                int aiMoveIndex = getAIMoveIndex(i, opponentMoveStartIndex);
 
-                int parentIndex = TreeElementHelper.getParentIndex(treeElement);
-                Integer opponentBestEstimation = aiMoveIndexes.get(parentIndex);
+                if (opponentBestEstimations[aiMoveIndex] == EST_WORST)
+                    ++aiMovesCount;
 
-                if (opponentBestEstimation == null || opponentMoveEstimation > opponentBestEstimation)
-                {
-                    aiMoveIndexes.put(parentIndex, opponentMoveEstimation);
-                }
+                if (opponentMoveEstimation > opponentBestEstimations[aiMoveIndex])
+                    opponentBestEstimations[aiMoveIndex] = opponentMoveEstimation;
             }
         }
 
-        if (aiMoveIndexes.size() > 0)
+        if (aiMovesCount > 0)
         {
             // get the worst from opponents best replies
             int bestAiMoveIndex = -1;
             int bestAiMoveCount = 0;
-            int worstOpponentBestReply = EST_BEST;
+            short worstOpponentBestReply = EST_BEST;
 
-            Iterator<Entry<Integer, Integer>> it = aiMoveIndexes.entrySet().iterator();
-            while (it.hasNext())
+            for (int i = 0; i < opponentMoveStartIndex; ++i)
             {
-                Entry<Integer, Integer> pair = it.next();
-                if (bestAiMoveIndex == -1 || pair.getValue() < worstOpponentBestReply)
+                short opponentBestEstimation = opponentBestEstimations[i];
+                if (opponentBestEstimation == EST_WORST)
+                    continue;
+
+                if (bestAiMoveIndex == -1 || opponentBestEstimation < worstOpponentBestReply)
                 {
                     bestAiMoveCount = 1;
-                    bestAiMoveIndex = pair.getKey();
-                    worstOpponentBestReply = pair.getValue();
+                    bestAiMoveIndex = i;
+                    worstOpponentBestReply = opponentBestEstimation;
                 }
-                else if (pair.getValue() == worstOpponentBestReply)
+                else if (opponentBestEstimation == worstOpponentBestReply)
                 {
                     ++bestAiMoveCount;
                 }
@@ -415,25 +573,26 @@ public class EstimationTree
                 int whichMove = randomizer.nextInt(bestAiMoveCount);
                 int currentMove = 0;
 
-                it = aiMoveIndexes.entrySet().iterator();
-                while (it.hasNext())
+                for (int i = 0; i < opponentMoveStartIndex; ++i)
                 {
-                    Entry<Integer, Integer> pair = it.next();
-                    if (pair.getValue() == worstOpponentBestReply)
+                    if (opponentBestEstimations[i] == worstOpponentBestReply)
                     {
                         if (currentMove == whichMove)
                         {
-                            bestAiMoveIndex = pair.getKey();
+                            bestAiMoveIndex = i;
+                            break;
                         }
                         ++currentMove;
                     }
                 }
             }
+            // NOTE: the opponent estimations are of the opponent point of view
+            bestPathEstimation = (short) -worstOpponentBestReply;
             return getPathToElement(bestAiMoveIndex);
         }
         else
         {
-            Log.w(LOG_TAG, "aiMoveIndexes.size(): " + aiMoveIndexes.size()
+            Log.w(LOG_TAG, "aiMovesCount: " + aiMovesCount
                     + " This should not have happend! Please check the tree build limits!");
             return getBestPathAIAnalysis(opponentMoveStartIndex);
         }
@@ -447,7 +606,7 @@ public class EstimationTree
     public Path getBestPathAIAnalysis(final int opponentMoveStartIndex)
     {
         // finding opponent moves which are no good for us :)
-        Set<Integer> noGoodMoveIndexSet = new HashSet<Integer>();
+        boolean noGoodMoves[] = new boolean[opponentMoveStartIndex];
 
         for (int i = opponentMoveStartIndex; i < tree.size(); ++i)
         {
@@ -455,73 +614,160 @@ public class EstimationTree
             if (TreeElementHelper.isPathEnd(treeElement)
                     && TreeElementHelper.getEstimation(treeElement) == EST_GOAL_SCORED)
             {
-                while (TreeElementHelper.getParentIndex(treeElement) >= opponentMoveStartIndex)
-                {
-                    treeElement = tree.get(TreeElementHelper.getParentIndex(treeElement));
-                }
-                noGoodMoveIndexSet.add(TreeElementHelper.getParentIndex(treeElement));
+                noGoodMoves[getAIMoveIndex(i, opponentMoveStartIndex)] = true;
             }
         }
         // end of finding opponent moves which are no good for us
 
-        ArrayList<Long> bestTreeElements = new ArrayList<Long>();
+        boolean skipNoGoodMoves = false;
         for (int i = 0; i < opponentMoveStartIndex; ++i)
         {
-            long treeElement = tree.get(i);
-            if (TreeElementHelper.isPathEnd(treeElement) && !noGoodMoveIndexSet.contains(i))
+            if (TreeElementHelper.isPathEnd(tree.get(i)) && !noGoodMoves[i])
             {
-                bestTreeElements.add(treeElement);
+                skipNoGoodMoves = true;
+                break;
             }
         }
-        if (bestTreeElements.size() < 1)
+
+        // get best move: the best estimation, then the lowest parent index (random if there are more than one)
+        short bestElementEstimation = EST_WORST;
+        int minParentIndex = Integer.MAX_VALUE;
+        int bestElementCount = 0;
+
+        for (int i = 0; i < opponentMoveStartIndex; ++i)
         {
-            for (int i = 0; i < opponentMoveStartIndex; ++i)
+            long treeElement = tree.get(i);
+            if (!TreeElementHelper.isPathEnd(treeElement) || (skipNoGoodMoves && noGoodMoves[i]))
+                continue;
+
+            short estimation = TreeElementHelper.getEstimation(treeElement);
+            int parentIndex = TreeElementHelper.getParentIndex(treeElement);
+
+            if (estimation > bestElementEstimation
+                    || (estimation == bestElementEstimation && parentIndex < minParentIndex))
             {
-                long treeElement = tree.get(i);
-                if (TreeElementHelper.isPathEnd(treeElement))
-                {
-                    bestTreeElements.add(treeElement);
-                }
+                bestElementEstimation = estimation;
+                minParentIndex = parentIndex;
+                bestElementCount = 1;
+            }
+            else if (estimation == bestElementEstimation && parentIndex == minParentIndex)
+            {
+                ++bestElementCount;
             }
         }
-        Collections.sort(bestTreeElements, TreeElementComparator);
 
-        // get best move (random if there are more than one best moves)
-        long bestTreeElement = bestTreeElements.get(0);
+        int whichElement = bestElementCount > 1 ? randomizer.nextInt(bestElementCount) : 0;
+        int bestIndex = -1;
+        int currentElement = 0;
 
-        short bestElementEstimation = TreeElementHelper.getEstimation(bestTreeElement);
-        int maxParentIndex = TreeElementHelper.getParentIndex(bestTreeElement);
-        int bestElementCount = bestTreeElements.size();
-
-        for (int i = 1; i < bestTreeElements.size(); ++i)
+        for (int i = 0; i < opponentMoveStartIndex; ++i)
         {
-            long treeElement = bestTreeElements.get(i);
-            if (TreeElementHelper.getEstimation(treeElement) < bestElementEstimation
-                    || TreeElementHelper.getParentIndex(treeElement) > maxParentIndex)
+            long treeElement = tree.get(i);
+            if (!TreeElementHelper.isPathEnd(treeElement) || (skipNoGoodMoves && noGoodMoves[i]))
+                continue;
+
+            if (TreeElementHelper.getEstimation(treeElement) == bestElementEstimation
+                    && TreeElementHelper.getParentIndex(treeElement) == minParentIndex)
             {
-                bestElementCount = i;
-                break;
+                if (currentElement == whichElement)
+                {
+                    bestIndex = i;
+                    break;
+                }
+                ++currentElement;
             }
         }
 
-        int bestIndex = bestElementCount > 1 ? randomizer.nextInt(bestElementCount) : 0;
-        bestTreeElement = bestTreeElements.get(bestIndex);
+        bestPathEstimation = bestElementEstimation;
+        return getPathToElement(bestIndex);
+    }
+
+    /**
+     * Gets estimation of the path returned by the last {@link #getBestPath(int)} or
+     * {@link #getBestPathAIAnalysis(int)} call, of the AI point of view: the bigger the better, EST_GOAL_SCORED
+     * if the path scores. The opponent move analysis gives the estimation of the opponent best reply negated,
+     * e.g. EST_GOAL_LOST if the opponent can score.
+     * 
+     * @return estimation.
+     */
+    public short getBestPathEstimation()
+    {
+        return bestPathEstimation;
+    }
+
+    /**
+     * Gets memory reserved by the tree (elements and best-first expansion queue).
+     * 
+     * @return reserved memory size in bytes.
+     */
+    public long getReservedByteSize()
+    {
+        return getObjectByteSize() + tree.getReservedByteSize()
+                + (expansionQueue != null ? expansionQueue.getReservedByteSize() : 0);
+    }
+
+    /**
+     * Gets memory temporarily allocated by {@link #getBestPath(int)} or {@link #getBestPathAIAnalysis(int)}.
+     * 
+     * @param opponentMoveStartIndex
+     * @return memory size in bytes.
+     */
+    public static long getSelectionByteSize(final int opponentMoveStartIndex)
+    {
+        return Math.max(MemoryFootprint.ofShortArray(opponentMoveStartIndex),
+                MemoryFootprint.ofBooleanArray(opponentMoveStartIndex));
+    }
 
-        Path bestPath = getPathToElement(TreeElementHelper.getParentIndex(bestTreeElement));
-        bestPath.addMove(PathElement.valueOf(TreeElementHelper.getMoveDirection(bestTreeElement), (byte) playerId));
+    /**
+     * Gets the highest memory the tree limited to elementsCount elements can take, including the best path
+     * selection.
+     * 
+     * @param elementsCount
+     * @param bestFirst     - true if best-first expansion queue is used.
+     * @return memory size in bytes.
+     */
+    public static long getMaxByteSize(final int elementsCount, final boolean bestFirst)
+    {
+        // NOTE: the limit is checked before the element is expanded, so up to 8 elements more can be added
+        final int maxElementsCount = elementsCount + Move.DIRECTION_MODULO;
 
-        return bestPath;
+        return getObjectByteSize() + PoolArrayLong.getReservedByteSize(maxElementsCount)
+                + (bestFirst ? BinaryHeapLong.getReservedByteSize(maxElementsCount) : 0)
+                + getSelectionByteSize(maxElementsCount);
     }
 
     /**
-     * Gets estimated tree size. NOTE: use only for debug purposes.
+     * Gets the highest elements count of the tree fitting in maxByteSize, see {@link #getMaxByteSize(int, boolean)}.
      * 
-     * @param withObjectHeader
-     * @return estimated tree size in bytes.
+     * @param maxByteSize
+     * @param bestFirst   - true if best-first expansion queue is used.
+     * @return elements count (0 if even an empty tree doesn't fit).
      */
-    public int getEstimatedByteSize(final boolean withObjectHeader)
+    public static int getMaxElementsCount(final long maxByteSize, final boolean bestFirst)
+    {
+        int low = 0;
+        int high = Integer.MAX_VALUE - Move.DIRECTION_MODULO;
+
+        if (getMaxByteSize(low, bestFirst) > maxByteSize)
+            return 0;
+
+        while (low < high)
+        {
+            int mid = (int) (((long) low + high + 1) / 2);
+            if (getMaxByteSize(mid, bestFirst) <= maxByteSize)
+                low = mid;
+            else
+                high = mid - 1;
+        }
+        return low;
+    }
+
+    private static long getObjectByteSize()
     {
-        return tree.size() * (withObjectHeader ? 8 : 8);
+        // EstimationTree: randomizer, tree, expansionQueue references, playerId, atLeastOnePathEndInTree,
+        // bestPathEstimation; Random: seed reference, nextNextGaussian, haveNextNextGaussian; AtomicLong: value
+        return MemoryFootprint.ofObject(3 * MemoryFootprint.REFERENCE_SIZE + 4 + 1 + 2)
+                + MemoryFootprint.ofObject(MemoryFootprint.REFERENCE_SIZE + 8 + 1) + MemoryFootprint.ofObject(8);
     }
 
     /**
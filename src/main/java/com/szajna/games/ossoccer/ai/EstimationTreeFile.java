@@ -0,0 +1,188 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2019 Marek Szajna
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.szajna.games.ossoccer.ai;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Binary file of the {@link EstimationTree}, used to checkpoint and resume long analyses and to inspect the
+ * trees offline.<br>
+ * The file holds a header followed by the raw tree elements (8 bytes each, big-endian). The elements are
+ * loaded with memory mapping - they are not copied to the heap.
+ * 
+ * <pre>
+ * int  magic
+ * int  version
+ * long position key
+ * int  player id
+ * int  opponent move start index (-1 if the opponent analysis is not started yet)
+ * int  elements count
+ * int  reserved
+ * long elements[elements count]
+ * </pre>
+ */
+public final class EstimationTreeFile
+{
+    private static final int MAGIC = 0x50535452; // "PSTR"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 32;
+
+    private final EstimationTree tree;
+    private final long positionKey;
+    private final int opponentMoveStartIndex;
+
+    private EstimationTreeFile(final EstimationTree tree, final long positionKey, final int opponentMoveStartIndex)
+    {
+        this.tree = tree;
+        this.positionKey = positionKey;
+        this.opponentMoveStartIndex = opponentMoveStartIndex;
+    }
+
+    public EstimationTree getTree()
+    {
+        return tree;
+    }
+
+    public long getPositionKey()
+    {
+        return positionKey;
+    }
+
+    public int getOpponentMoveStartIndex()
+    {
+        return opponentMoveStartIndex;
+    }
+
+    /**
+     * Writes the tree to the file. The tree is written to a temporary file first, which then replaces the
+     * file - the file is never left half written, even if it is mapped by a resumed tree.
+     * 
+     * @param file
+     * @param tree
+     * @param positionKey            - key of the position the tree is built for, see Field.getPositionKey().
+     * @param opponentMoveStartIndex - -1 if the opponent analysis is not started yet.
+     * @throws IOException
+     */
+    public static void save(final File file, final EstimationTree tree, final long positionKey,
+            final int opponentMoveStartIndex) throws IOException
+    {
+        final File tmpFile = new File(file.getPath() + ".tmp");
+        final PoolArrayLong elements = tree.getElements();
+
+        RandomAccessFile raf = new RandomAccessFile(tmpFile, "rw");
+        try
+        {
+            raf.setLength(0);
+            FileChannel channel = raf.getChannel();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC);
+            header.putInt(VERSION);
+            header.putLong(positionKey);
+            header.putInt(tree.getPlayerId());
+            header.putInt(opponentMoveStartIndex);
+            header.putInt(elements.size());
+            header.putInt(0);
+            header.flip();
+            while (header.hasRemaining())
+            {
+                channel.write(header);
+            }
+
+            elements.writeTo(channel);
+        }
+        finally
+        {
+            raf.close();
+        }
+
+        if (!tmpFile.renameTo(file))
+        {
+            // some platforms do not replace the existing file
+            if (!file.delete() || !tmpFile.renameTo(file))
+                throw new IOException("Can not replace " + file);
+        }
+    }
+
+    /**
+     * Loads the tree from the file with memory mapping.
+     * 
+     * @param file
+     * @param resumable - true if the tree is going to be modified (copy-on-write mapping, the file is not
+     *                  modified), false for read-only inspection.
+     * @return loaded tree file.
+     * @throws IOException if the file can not be read or it is not a valid tree file.
+     */
+    public static EstimationTreeFile load(final File file, final boolean resumable) throws IOException
+    {
+        // NOTE: copy-on-write mapping requires a channel opened for writing
+        RandomAccessFile raf = new RandomAccessFile(file, resumable ? "rw" : "r");
+        try
+        {
+            FileChannel channel = raf.getChannel();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining())
+            {
+                if (channel.read(header) < 0)
+                    throw new IOException("Unexpected end of file: " + file);
+            }
+            header.flip();
+
+            if (header.getInt() != MAGIC)
+                throw new IOException("Not a tree file: " + file);
+            int version = header.getInt();
+            if (version != VERSION)
+                throw new IOException("Unsupported tree file version: " + version);
+
+            long positionKey = header.getLong();
+            int playerId = header.getInt();
+            int opponentMoveStartIndex = header.getInt();
+            int elementsCount = header.getInt();
+
+            long elementsByteSize = (long) elementsCount * 8;
+            if (elementsCount < 0 || channel.size() < HEADER_SIZE + elementsByteSize
+                    || opponentMoveStartIndex > elementsCount)
+                throw new IOException("Corrupted tree file: " + file);
+
+            // NOTE: the mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(
+                    resumable ? FileChannel.MapMode.PRIVATE : FileChannel.MapMode.READ_ONLY, HEADER_SIZE,
+                    elementsByteSize);
+
+            EstimationTree tree = new EstimationTree(playerId, new PoolArrayLong(buffer.asLongBuffer()));
+            return new EstimationTreeFile(tree, positionKey, opponentMoveStartIndex);
+        }
+        finally
+        {
+            raf.close();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2019 Marek Szajna
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.szajna.games.ossoccer.ai;
+
+/**
+ * Memory footprint helpers used for the AI memory budgeting.<br>
+ * Sizes are given for the 64-bit JVM with compressed ordinary object pointers (the default for heaps smaller
+ * than 32 GiB). For the other layouts the values are slightly underestimated.
+ */
+public final class MemoryFootprint
+{
+    public static final int OBJECT_HEADER_SIZE = 12;
+    public static final int ARRAY_HEADER_SIZE = 16;
+    public static final int REFERENCE_SIZE = 4;
+    public static final int OBJECT_ALIGNMENT = 8;
+
+    /**
+     * Aligns size to the object alignment.
+     * 
+     * @param byteSize
+     * @return aligned size in bytes.
+     */
+    public static long align(final long byteSize)
+    {
+        return (byteSize + OBJECT_ALIGNMENT - 1) & ~((long) OBJECT_ALIGNMENT - 1);
+    }
+
+    /**
+     * Gets size of an object with fields of the given size.
+     * 
+     * @param fieldsByteSize
+     * @return object size in bytes.
+     */
+    public static long ofObject(final int fieldsByteSize)
+    {
+        return align(OBJECT_HEADER_SIZE + fieldsByteSize);
+    }
+
+    public static long ofByteArray(final int length)
+    {
+        return align(ARRAY_HEADER_SIZE + (long) length);
+    }
+
+    public static long ofBooleanArray(final int length)
+    {
+        return align(ARRAY_HEADER_SIZE + (long) length);
+    }
+
+    public static long ofShortArray(final int length)
+    {
+        return align(ARRAY_HEADER_SIZE + 2L * length);
+    }
+
+    public static long ofIntArray(final int length)
+    {
+        return align(ARRAY_HEADER_SIZE + 4L * length);
+    }
+
+    public static long ofLongArray(final int length)
+    {
+        return align(ARRAY_HEADER_SIZE + 8L * length);
+    }
+
+    public static long ofReferenceArray(final int length)
+    {
+        return align(ARRAY_HEADER_SIZE + (long) REFERENCE_SIZE * length);
+    }
+
+    /**
+     * No instance allowed.
+     */
+    private MemoryFootprint()
+    {
+    }
+}
@@ -24,6 +24,10 @@
 
 package com.szajna.games.ossoccer.ai;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 
 public class PoolArrayLong
@@ -43,14 +47,36 @@ public class PoolArrayLong
     }
 
     private ArrayList<Pool> pools;
+    /** Number of the pools in use, the pools past it are kept for reuse, see reset(). */
+    private int poolsCount;
     private int size;
     private int reservedSize;
 
+    /** Optional base segment holding the first baseSize elements (e.g. a memory mapped file). */
+    private LongBuffer base;
+    private int baseSize;
+
     public PoolArrayLong()
     {
         clear();
     }
 
+    /**
+     * Creates the container on top of a base segment - the elements of the base are the first elements of the
+     * container and they are not copied. Elements added later are kept in pools. Setting elements of the base
+     * requires a writable buffer.
+     * 
+     * @param base - buffer holding the elements from its position to its limit.
+     */
+    public PoolArrayLong(final LongBuffer base)
+    {
+        clear();
+        this.base = base.slice();
+        this.baseSize = this.base.capacity();
+        this.size = baseSize;
+        this.reservedSize = baseSize;
+    }
+
     /**
      * Get container size.
      * 
@@ -67,6 +93,33 @@ public class PoolArrayLong
     public void clear()
     {
         pools = new ArrayList<PoolArrayLong.Pool>();
+        poolsCount = 0;
+        size = 0;
+        reservedSize = 0;
+        base = null;
+        baseSize = 0;
+    }
+
+    /**
+     * Clears the container, but keeps the pools for reuse - adding the elements again does not allocate memory.
+     * 
+     * @param maxElementsCount - the pools over this number of elements are released.
+     */
+    public void reset(final int maxElementsCount)
+    {
+        if (base != null)
+        {
+            clear();
+            return;
+        }
+
+        final int keptPoolsCount = (int) Math.min(pools.size(),
+                ((long) maxElementsCount + Pool.POOL_ELEMENTS_COUNT - 1) / Pool.POOL_ELEMENTS_COUNT);
+        while (pools.size() > keptPoolsCount)
+        {
+            pools.remove(pools.size() - 1);
+        }
+        poolsCount = 0;
         size = 0;
         reservedSize = 0;
     }
@@ -81,11 +134,13 @@ public class PoolArrayLong
         if (size == reservedSize)
         {
             // another pool required
-            pools.add(new Pool());
+            if (poolsCount == pools.size())
+                pools.add(new Pool());
+            pools.get(poolsCount++).size = 0;
             reservedSize += Pool.POOL_ELEMENTS_COUNT;
         }
 
-        Pool lastPool = pools.get(pools.size() - 1);
+        Pool lastPool = pools.get(poolsCount - 1);
         lastPool.data[lastPool.size++] = element;
         size++;
     }
@@ -102,12 +157,61 @@ public class PoolArrayLong
         {
             throw new IndexOutOfBoundsException("Index " + index + " is out of bounds: [0, " + (size - 1) + "]");
         }
-        int poolIndex = index / Pool.POOL_ELEMENTS_COUNT;
-        int elementIndex = index % Pool.POOL_ELEMENTS_COUNT;
+        if (index < baseSize)
+        {
+            base.put(index, element);
+            return;
+        }
+        int poolIndex = (index - baseSize) / Pool.POOL_ELEMENTS_COUNT;
+        int elementIndex = (index - baseSize) % Pool.POOL_ELEMENTS_COUNT;
 
         pools.get(poolIndex).data[elementIndex] = element;
     }
 
+    /**
+     * Gets memory reserved by the container.
+     * 
+     * @return reserved memory size in bytes.
+     */
+    public long getReservedByteSize()
+    {
+        return getReservedByteSize(pools.size(), pools.size());
+    }
+
+    /**
+     * Gets memory reserved by the container holding elementsCount elements.
+     * 
+     * @param elementsCount
+     * @return reserved memory size in bytes.
+     */
+    public static long getReservedByteSize(final int elementsCount)
+    {
+        int poolsCount = (elementsCount + Pool.POOL_ELEMENTS_COUNT - 1) / Pool.POOL_ELEMENTS_COUNT;
+        // ArrayList grows by 50%
+        return getReservedByteSize(poolsCount, poolsCount + poolsCount / 2);
+    }
+
+    /**
+     * Gets memory reserved by a single pool.
+     * 
+     * @return pool size in bytes.
+     */
+    public static long getPoolByteSize()
+    {
+        // Pool: data reference, size
+        return MemoryFootprint.ofObject(MemoryFootprint.REFERENCE_SIZE + 4)
+                + MemoryFootprint.ofLongArray(Pool.POOL_ELEMENTS_COUNT);
+    }
+
+    private static long getReservedByteSize(final int poolsCount, final int poolsCapacity)
+    {
+        // PoolArrayLong: pools reference, poolsCount, size, reservedSize; ArrayList: elementData reference, size,
+        // modCount
+        return MemoryFootprint.ofObject(MemoryFootprint.REFERENCE_SIZE + 4 + 4 + 4)
+                + MemoryFootprint.ofObject(MemoryFootprint.REFERENCE_SIZE + 4 + 4)
+                + MemoryFootprint.ofReferenceArray(poolsCapacity) + poolsCount * getPoolByteSize();
+    }
+
     /**
      * Gets element at index.
      * 
@@ -120,10 +224,55 @@ public class PoolArrayLong
         {
             throw new IndexOutOfBoundsException("Index " + index + " is out of bounds: [0, " + (size - 1) + "]");
         }
+        if (index < baseSize)
+        {
+            return base.get(index);
+        }
 
-        int poolIndex = index / Pool.POOL_ELEMENTS_COUNT;
-        int elementIndex = index % Pool.POOL_ELEMENTS_COUNT;
+        int poolIndex = (index - baseSize) / Pool.POOL_ELEMENTS_COUNT;
+        int elementIndex = (index - baseSize) % Pool.POOL_ELEMENTS_COUNT;
 
         return pools.get(poolIndex).data[elementIndex];
     }
+
+    /**
+     * Writes all elements to the channel (8 bytes per element, big-endian).
+     * 
+     * @param channel
+     * @throws IOException
+     */
+    public void writeTo(final WritableByteChannel channel) throws IOException
+    {
+        final ByteBuffer buffer = ByteBuffer.allocate(Pool.POOL_ELEMENTS_COUNT * 8);
+        final LongBuffer longBuffer = buffer.asLongBuffer();
+
+        for (int i = 0; i < baseSize; i += Pool.POOL_ELEMENTS_COUNT)
+        {
+            LongBuffer src = base.duplicate();
+            src.position(i);
+            src.limit(Math.min(baseSize, i + Pool.POOL_ELEMENTS_COUNT));
+
+            longBuffer.clear();
+            longBuffer.put(src);
+            write(channel, buffer, longBuffer.position());
+        }
+        for (int i = 0; i < poolsCount; ++i)
+        {
+            final Pool pool = pools.get(i);
+            longBuffer.clear();
+            longBuffer.put(pool.data, 0, pool.size);
+            write(channel, buffer, pool.size);
+        }
+    }
+
+    private static void write(final WritableByteChannel channel, final ByteBuffer buffer, final int elementsCount)
+            throws IOException
+    {
+        buffer.clear();
+        buffer.limit(elementsCount * 8);
+        while (buffer.hasRemaining())
+        {
+            channel.write(buffer);
+        }
+    }
 }
@@ -0,0 +1,143 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2019 Marek Szajna
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.szajna.games.ossoccer.ai;
+
+import com.szajna.games.ossoccer.field.Field;
+
+/**
+ * Scratch memory of the analysis: the copy of the game field the analysis is done on, the analysis path
+ * buffers and the tree. The context is not bound to any player nor game field - each analysis binds it to its
+ * position, so a context per thread serves any number of games and the analyses in the steady state do not
+ * allocate.<br>
+ * NOTE: a context can be used by one analysis at a time. The memory of the tree is kept between the analyses
+ * (up to the limit of the next analysis), call release() to free it. SoccerEngine counts the kept memory
+ * against its memory budget and releases the context when the budget has no room for it.
+ */
+public final class SearchContext
+{
+    private static final ThreadLocal<SearchContext> threadContext = new ThreadLocal<SearchContext>() {
+        @Override
+        protected SearchContext initialValue()
+        {
+            return new SearchContext();
+        }
+    };
+
+    private Field field;
+    private byte pathMoves[];
+    private int analysisPathIndexes[];
+    private EstimationTree tree;
+
+    /**
+     * Gets context of the current thread.
+     * 
+     * @return context.
+     */
+    public static SearchContext forCurrentThread()
+    {
+        return threadContext.get();
+    }
+
+    /**
+     * Binds the context to the position of the game field - the context field is set to a copy of it.
+     * 
+     * @param gameField
+     * @return the context field.
+     */
+    Field bind(final Field gameField)
+    {
+        if (field == null || field.getWidth() != gameField.getWidth() || field.getHeight() != gameField.getHeight())
+            field = gameField.copy();
+        else
+            field.restore(gameField.snapshot());
+        return field;
+    }
+
+    /**
+     * Gets analysis path moves buffer.
+     * 
+     * @param capacity - required capacity.
+     * @return buffer of at least the capacity.
+     */
+    byte[] getPathMoves(final int capacity)
+    {
+        if (pathMoves == null || pathMoves.length < capacity)
+            pathMoves = new byte[capacity];
+        return pathMoves;
+    }
+
+    /**
+     * Gets analysis path tree indexes buffer.
+     * 
+     * @param capacity - required capacity.
+     * @return buffer of at least the capacity.
+     */
+    int[] getAnalysisPathIndexes(final int capacity)
+    {
+        if (analysisPathIndexes == null || analysisPathIndexes.length < capacity)
+            analysisPathIndexes = new int[capacity];
+        return analysisPathIndexes;
+    }
+
+    /**
+     * Gets empty tree.
+     * 
+     * @param playerId         - player the tree is built for.
+     * @param maxElementsCount - elements limit of the analysis, the memory over it is released.
+     * @return tree.
+     */
+    EstimationTree getTree(final int playerId, final int maxElementsCount)
+    {
+        if (tree == null)
+            tree = new EstimationTree(playerId);
+        else
+            tree.reset(playerId, maxElementsCount);
+        return tree;
+    }
+
+    /**
+     * Gets memory kept by the context.
+     * 
+     * @return memory size in bytes.
+     */
+    public long getReservedByteSize()
+    {
+        return (tree != null ? tree.getReservedByteSize() : 0)
+                + (pathMoves != null ? MemoryFootprint.ofByteArray(pathMoves.length) : 0)
+                + (analysisPathIndexes != null ? MemoryFootprint.ofIntArray(analysisPathIndexes.length) : 0);
+    }
+
+    /**
+     * Releases the memory kept by the context, the next analysis allocates it again.
+     */
+    public void release()
+    {
+        field = null;
+        pathMoves = null;
+        analysisPathIndexes = null;
+        tree = null;
+    }
+}
@@ -28,10 +28,13 @@ import static com.szajna.games.ossoccer.ai.EstimationTree.EST_GAME_LOST;
 import static com.szajna.games.ossoccer.ai.EstimationTree.EST_GOAL_LOST;
 import static com.szajna.games.ossoccer.ai.EstimationTree.EST_GOAL_SCORED;
 
+import java.io.File;
+import java.io.IOException;
+
 import com.szajna.games.ossoccer.SoccerRules;
 import com.szajna.games.ossoccer.ai.EstimationTree.TreeElementHelper;
-import com.szajna.games.ossoccer.field.Edge;
 import com.szajna.games.ossoccer.field.Field;
+import com.szajna.games.ossoccer.field.FieldFactory;
 import com.szajna.games.ossoccer.field.Move;
 import com.szajna.games.ossoccer.field.Node;
 import com.szajna.games.ossoccer.field.Path;
@@ -43,7 +46,12 @@ public class SimpleAIPlayer implements AIPlayer
     private static final String LOG_TAG = "SimpleAIPlayer ";
 
     private final int playerId;
-    private final Field field;
+    /** Field of the game, it is not modified by the analysis */
+    private final Field gameField;
+    /** Copy of the game field the analysis is done on, it belongs to the search context */
+    private Field field;
+    /** Search context of the analyses, null for the context of the analysing thread */
+    private SearchContext searchContext;
     private int level;
 
     private int goalAtBottomY;
@@ -52,9 +60,17 @@ public class SimpleAIPlayer implements AIPlayer
     @SuppressWarnings("unused")
     private int fieldHalfWidth;
 
-    private static final int ANALYSIS_PATH_MAX_MOVES = 100;
+    /**
+     * Analysis path buffers capacity - the longest path on the field, see getPathCapacity(). The buffers belong
+     * to the search context.
+     */
+    private int pathCapacity;
     private byte pathMoves[];
-    private byte analysisPathMoves[];
+    /**
+     * Tree indexes of the elements on the analysis path (analysis cursor). The moves of the path are kept by
+     * the field move journal.
+     */
+    private int analysisPathIndexes[];
     private int analysisPathMovesSize;
 
     /**
@@ -62,31 +78,73 @@ public class SimpleAIPlayer implements AIPlayer
      */
     private static class Config
     {
-        private final int treeElementMaxCount;
+        private final long maxByteSize;
         private final int aiMoveMaxDepth;
         private final int opponentMoveMaxDepth;
 
         /**
          * Creates AI configuration object.
          * 
-         * @param treeElementMaxCount
+         * @param maxByteSize          - memory budget of a single analysis.
          * @param aiMoveMaxDepth
          * @param opponentMoveMaxDepth
          */
-        Config(final int treeElementMaxCount, final int aiMoveMaxDepth, final int opponentMoveMaxDepth)
+        Config(final long maxByteSize, final int aiMoveMaxDepth, final int opponentMoveMaxDepth)
         {
-            this.treeElementMaxCount = treeElementMaxCount;
+            this.maxByteSize = maxByteSize;
             this.aiMoveMaxDepth = aiMoveMaxDepth;
             this.opponentMoveMaxDepth = opponentMoveMaxDepth;
         }
     }
 
-    private final Config cfgEasy = new Config(50000, 4, 8); // RAM max. 400 kiB
-    private final Config cfgMedium = new Config(500000, 16, 32); // RAM max. 4 MiB
-    private final Config cfgHard = new Config(5000000, 32, 64); // RAM max. 40 MiB
+    /** Analysis path capacity on the standard field, the level memory budgets are sized for it */
+    private static final int STANDARD_PATH_CAPACITY = getPathCapacity(FieldFactory.createStandard());
+
+    // NOTE: the memory budgets are sized for the breadth-first trees of 50 k, 500 k and 5 M elements on the
+    // standard field, they are computed once
+    private static final Config cfgEasy = new Config(getLevelByteSize(50000), 4, 8); // RAM max. ~550 kiB
+    private static final Config cfgMedium = new Config(getLevelByteSize(500000), 16, 32); // RAM max. ~5 MiB
+    private static final Config cfgHard = new Config(getLevelByteSize(5000000), 32, 64); // RAM max. ~48 MiB
+
+    /** Size of the field the move depth limits are configured for */
+    private static final int STANDARD_FIELD_WIDTH = 9;
+    private static final int STANDARD_FIELD_HEIGHT = 13;
 
     /** Current AI configuration */
     private Config config;
+    private ExpansionPolicy expansionPolicy = ExpansionPolicy.BREADTH_FIRST;
+
+    /** Memory limit of a single analysis */
+    private long memoryLimit = Long.MAX_VALUE;
+    /** Tree elements and move depth limits of the current analysis */
+    private int treeElementMaxCount;
+    private int aiMoveMaxDepth;
+    private int opponentMoveMaxDepth;
+    private boolean treeLimitReached;
+    private AnalysisStats lastAnalysisStats;
+
+    /** Search limits, see setSearchLimits() */
+    private int searchMaxElements = Integer.MAX_VALUE;
+    private long searchMaxTimeMillis = Long.MAX_VALUE;
+    /** Time of the analysis start and number of the limit checks (the time is read every few checks) */
+    private long analysisStartTime;
+    private int limitChecksCount;
+    private boolean searchLimitReached;
+    private volatile boolean stopRequested;
+
+    // analysis progress
+    private IAnalysisProgressObserver progressObserver;
+    private long progressIntervalMillis;
+    private long progressTime;
+    private int maxMoveDepth;
+    /** Opponent move start index, -1 during the AI move analysis. */
+    private int progressAIMovesEndIndex;
+
+    /** Minimal time between the checkpoints of a single analysis */
+    private static final long CHECKPOINT_INTERVAL_MS = 30000;
+    private File checkpointFile;
+    private long checkpointTime;
+    private long positionKey;
 
     /**
      * Creates 'simple' AI Player.
@@ -98,23 +156,73 @@ public class SimpleAIPlayer implements AIPlayer
     public SimpleAIPlayer(final int level, final int pid, final Field field)
     {
         this.playerId = pid;
-        this.field = field;
+        this.gameField = field;
         this.setDifficultyLevel(level);
     }
 
+    /**
+     * {@inheritDoc}<br>
+     * The analysis is done on a copy of the game field kept by the search context, so the game field can be read
+     * (e.g. painted) during the analysis. NOTE: the game field must not be modified until the move is made.
+     */
     @Override
     public Path makeMove()
     {
+        final SearchContext context = searchContext != null ? searchContext : SearchContext.forCurrentThread();
+        field = context.bind(gameField);
+
         goalAtBottomY = 0;
         goalAtTopY = field.getHeight() - 1;
         fieldHalfHeight = field.getHeight() / 2;
         fieldHalfWidth = field.getWidth() / 2;
 
-        pathMoves = new byte[ANALYSIS_PATH_MAX_MOVES];
-        analysisPathMoves = new byte[ANALYSIS_PATH_MAX_MOVES];
+        pathCapacity = getPathCapacity(field);
+        pathMoves = context.getPathMoves(pathCapacity);
+        analysisPathIndexes = context.getAnalysisPathIndexes(pathCapacity);
         analysisPathMovesSize = 0;
 
-        return doAnalysis();
+        // the move depth limits grow with the field - the bounce chains along the borders get longer
+        final int depthScale = Math.max(STANDARD_FIELD_WIDTH + STANDARD_FIELD_HEIGHT,
+                field.getWidth() + field.getHeight());
+        aiMoveMaxDepth = Math.min(pathCapacity,
+                config.aiMoveMaxDepth * depthScale / (STANDARD_FIELD_WIDTH + STANDARD_FIELD_HEIGHT));
+        opponentMoveMaxDepth = Math.min(pathCapacity,
+                config.opponentMoveMaxDepth * depthScale / (STANDARD_FIELD_WIDTH + STANDARD_FIELD_HEIGHT));
+
+        treeElementMaxCount = getTreeElementMaxCount(getMaxByteSize(), expansionPolicy, pathCapacity);
+        treeLimitReached = false;
+        searchLimitReached = false;
+        limitChecksCount = 0;
+        // NOTE: a stop requested before the analysis, e.g. after the previous one, must not cut this one short
+        stopRequested = false;
+        analysisStartTime = System.currentTimeMillis();
+        progressTime = analysisStartTime;
+        maxMoveDepth = 0;
+        progressAIMovesEndIndex = -1;
+
+        try
+        {
+            return doAnalysis(context);
+        }
+        finally
+        {
+            // the player keeps no scratch memory between the analyses
+            field = null;
+            pathMoves = null;
+            analysisPathIndexes = null;
+        }
+    }
+
+    @Override
+    public void setSearchContext(SearchContext context)
+    {
+        this.searchContext = context;
+    }
+
+    @Override
+    public int getPlayerId()
+    {
+        return playerId;
     }
 
     @Override
@@ -142,12 +250,126 @@ public class SimpleAIPlayer implements AIPlayer
         }
     }
 
+    @Override
+    public void setMemoryLimit(long maxByteSize)
+    {
+        this.memoryLimit = maxByteSize;
+    }
+
+    @Override
+    public void setExpansionPolicy(ExpansionPolicy expansionPolicy)
+    {
+        this.expansionPolicy = expansionPolicy;
+    }
+
+    @Override
+    public ExpansionPolicy getExpansionPolicy()
+    {
+        return expansionPolicy;
+    }
+
+    @Override
+    public long getMaxByteSize()
+    {
+        return Math.min(config.maxByteSize, memoryLimit);
+    }
+
+    @Override
+    public AnalysisStats getLastAnalysisStats()
+    {
+        return lastAnalysisStats;
+    }
+
+    @Override
+    public void setSearchLimits(int maxElements, long maxTimeMillis)
+    {
+        this.searchMaxElements = maxElements;
+        this.searchMaxTimeMillis = maxTimeMillis;
+    }
+
+    @Override
+    public void stop()
+    {
+        stopRequested = true;
+    }
+
+    @Override
+    public void setProgressObserver(IAnalysisProgressObserver observer, long intervalMillis)
+    {
+        this.progressObserver = observer;
+        this.progressIntervalMillis = intervalMillis;
+    }
+
+    /**
+     * Sets file the analysis is checkpointed to. The analysis is saved periodically and when it is done. If the
+     * file holds an analysis of the current position, the analysis is resumed from it - a long analysis can
+     * be continued after a restart, e.g. with a higher memory limit.
+     * 
+     * @param checkpointFile - null to disable checkpoints.
+     */
+    public void setCheckpointFile(final File checkpointFile)
+    {
+        this.checkpointFile = checkpointFile;
+    }
+
+    /**
+     * Gets tree elements limit of the analysis fitting in maxByteSize.
+     * 
+     * @param maxByteSize
+     * @param expansionPolicy
+     * @param pathCapacity
+     * @return tree elements max. count.
+     */
+    private static int getTreeElementMaxCount(final long maxByteSize, final ExpansionPolicy expansionPolicy,
+            final int pathCapacity)
+    {
+        return EstimationTree.getMaxElementsCount(maxByteSize - getBuffersByteSize(pathCapacity),
+                expansionPolicy == ExpansionPolicy.BEST_FIRST);
+    }
+
+    /**
+     * Gets memory budget of the breadth-first analysis building a tree of treeElementMaxCount elements on the
+     * standard field, the inverse of getTreeElementMaxCount().
+     * 
+     * @param treeElementMaxCount
+     * @return memory size in bytes.
+     */
+    private static long getLevelByteSize(final int treeElementMaxCount)
+    {
+        return EstimationTree.getMaxByteSize(treeElementMaxCount, false)
+                + getBuffersByteSize(STANDARD_PATH_CAPACITY);
+    }
+
+    /**
+     * Gets capacity of the analysis path buffers - a path can not be longer than the number of the field
+     * edges, nor the max. move depth of the tree.
+     * 
+     * @param field
+     * @return path capacity.
+     */
+    private static int getPathCapacity(final Field field)
+    {
+        return Math.min(field.getEdgesCount(), TreeElementHelper.MAX_MOVE_DEPTH);
+    }
+
+    /**
+     * Gets memory taken by the analysis path buffers.
+     * 
+     * @param pathCapacity
+     * @return memory size in bytes.
+     */
+    private static long getBuffersByteSize(final int pathCapacity)
+    {
+        return 2 * MemoryFootprint.ofByteArray(pathCapacity) + MemoryFootprint.ofIntArray(pathCapacity);
+    }
+
     /**
      * Does the analysis.
      * 
+     * @param context
      * @return calculated best path.
      */
-    private Path doAnalysis()
+    private Path doAnalysis(final SearchContext context)
     {
         if (!SoccerRules.isAnyMoveAllowed(field.getCurrent()) || field.getCurrent().isGoal())
             return null;
@@ -155,24 +377,58 @@ public class SimpleAIPlayer implements AIPlayer
         Log.i(LOG_TAG, "Analysis started, level: " + level);
 
         // Debug.startMethodTracing("calc");
-        long starttime = System.currentTimeMillis();
-        EstimationTree tree = new EstimationTree(playerId);
+        long starttime = analysisStartTime;
+        positionKey = field.getPositionKey();
+        checkpointTime = starttime;
+
+        EstimationTree tree;
+        int opponentMoveStartIndex = -1;
+
+        EstimationTreeFile checkpoint = loadCheckpoint();
+        if (checkpoint != null)
+        {
+            tree = checkpoint.getTree();
+            opponentMoveStartIndex = checkpoint.getOpponentMoveStartIndex();
+            Log.i(LOG_TAG, "Analysis resumed, tree size: " + tree.getElementsCount());
+        }
+        else
+        {
+            tree = context.getTree(playerId, treeElementMaxCount);
+        }
 
         // AI move analysis
         boolean isAIMove = true;
         boolean estimationTopPositive = isEstimationTopPositive(isAIMove);
         boolean aiScoreDetected = false;
+        boolean opponentAnalysisStarted = false;
 
-        // do the initial analysis
-        aiScoreDetected = analyseMovesAtCurrentPosition(tree, -1, 0, estimationTopPositive);
-        if (!aiScoreDetected)
+        if (opponentMoveStartIndex < 0)
         {
-            // do the tree analysis
-            aiScoreDetected = analyseTreeElements(tree, 0, estimationTopPositive, isAIMove);
+            // do the initial analysis
+            if (tree.getElementsCount() == 0)
+                aiScoreDetected = analyseMovesAtCurrentPosition(tree, -1, 0, estimationTopPositive);
+            if (!aiScoreDetected)
+            {
+                // do the tree analysis
+                aiScoreDetected = analyseTreeElements(tree, 0, estimationTopPositive, isAIMove);
+            }
+            opponentMoveStartIndex = tree.getElementsCount();
+            progressAIMovesEndIndex = opponentMoveStartIndex;
+
+            // NOTE: the AI move analysis stopped by the tree limit is resumed rather than the opponent one
+            saveCheckpoint(tree, aiScoreDetected ? opponentMoveStartIndex : -1);
+        }
+        else
+        {
+            // resumed in the opponent move analysis
+            progressAIMovesEndIndex = opponentMoveStartIndex;
+            opponentAnalysisStarted = true;
+            isAIMove = false;
+            estimationTopPositive = isEstimationTopPositive(isAIMove);
+            analyseTreeElements(tree, opponentMoveStartIndex, estimationTopPositive, isAIMove);
         }
 
-        int opponentMoveStartIndex = tree.getElementsCount();
-        if (!aiScoreDetected)
+        if (!aiScoreDetected && isAIMove)
         {
             // opponent move analysis
             isAIMove = false;
@@ -184,99 +440,61 @@ public class SimpleAIPlayer implements AIPlayer
             for (int i = 0; i < treeElementsCount; ++i)
             {
                 // stop if too many moves analyzed
-                if (tree.getElementsCount() > config.treeElementMaxCount)
+                if (isTreeLimitReached(tree))
                     break;
 
                 long treeElement = tree.getElement(i);
-                if (TreeElementHelper.isOpponentAnalysisPossible(treeElement))
+                if (TreeElementHelper.isOpponentAnalysisPossible(treeElement)
+                        && TreeElementHelper.getMoveDepth(treeElement) < pathCapacity)
                 {
                     prepareFieldForAnalysis(tree, i);
-                    analyseMovesAtCurrentPosition(tree, i, TreeElementHelper.getMoveDepth(treeElement),
-                            estimationTopPositive);
+                    if (analyseMovesAtCurrentPosition(tree, i, TreeElementHelper.getMoveDepth(treeElement),
+                            estimationTopPositive))
+                    {
+                        // opponent can score - no need to analyse the other replies to this AI move
+                        tree.setRefuted(i);
+                    }
                 }
             }
             // take back all moves from analysis path to leave filed in initial state
-            for (int i = analysisPathMovesSize - 1; i >= 0; --i)
-            {
-                takeBackMove(analysisPathMoves[i]);
-            }
-            analysisPathMovesSize = 0;
+            takeBackAnalysisPath();
 
             // do the tree analysis
+            opponentAnalysisStarted = !treeLimitReached;
+            if (opponentAnalysisStarted)
+                saveCheckpoint(tree, opponentMoveStartIndex);
             analyseTreeElements(tree, opponentMoveStartIndex, estimationTopPositive, isAIMove);
         }
+        if (opponentAnalysisStarted)
+            saveCheckpoint(tree, opponentMoveStartIndex);
 
         // get the best path
         Path bestPath = level < 1 ? tree.getBestPathAIAnalysis(opponentMoveStartIndex) : // difficulty: easy
                 tree.getBestPath(opponentMoveStartIndex); // difficulty: medium, hard
 
+        AnalysisStats stats = new AnalysisStats();
+        stats.setElementsCount(tree.getElementsCount());
+        stats.setElementsMaxCount(treeElementMaxCount);
+        stats.setMaxByteSize(getMaxByteSize());
+        stats.setTreeByteSize(tree.getReservedByteSize());
+        stats.setSelectionByteSize(EstimationTree.getSelectionByteSize(opponentMoveStartIndex));
+        stats.setPeakByteSize(stats.getTreeByteSize() + stats.getSelectionByteSize() + getBuffersByteSize(pathCapacity));
+        stats.setMemoryLimited(memoryLimit < config.maxByteSize);
+        stats.setTreeLimitReached(treeLimitReached);
+        stats.setSearchLimitReached(searchLimitReached);
+        stats.setTimeMillis(System.currentTimeMillis() - starttime);
+        stats.setBestPathEstimation(tree.getBestPathEstimation());
+        lastAnalysisStats = stats;
+
         Log.i(LOG_TAG, "BEST PATH");
         Log.i(LOG_TAG, bestPath.toString());
+        Log.i(LOG_TAG, "Analysis stats: " + stats);
         Log.i(LOG_TAG, "Analysis time: " + (System.currentTimeMillis() - starttime) + " ms");
 
         // Debug.stopMethodTracing();
         return bestPath;
     }
 
-    /**
-     * Makes move.
-     * 
-     * @param moveDirection
-     */
-    private void makeMove(int moveDirection)
-    {
-        final Node current = field.getCurrent();
-        final Edge edge = current.getEdge(moveDirection);
-
-        if (null == edge)
-            throw new IllegalArgumentException("Edge doesn't exists.");
-        if (edge.isBlocked())
-            throw new IllegalArgumentException("Edge already visited.");
-
-        edge.setVisitedBy(playerId);
-
-        final Node other = edge.getOpposite(current);
-        other.setVisited(true);
-        field.setCurrent(other.getX(), other.getY());
-    }
-
-    /**
-     * Takes back move.
-     * 
-     * @param moveDirection
-     */
-    private void takeBackMove(int moveDirection)
-    {
-        int oppositeMoveDir = Move.getOppositeDirection(moveDirection);
-
-        final Node current = field.getCurrent();
-        final Edge edge = current.getEdge(oppositeMoveDir);
-
-        if (null == edge)
-            throw new IllegalArgumentException("Edge doesn't exists.");
-        if (edge.isBorder())
-            throw new IllegalArgumentException("Edge is border.");
-        if (!edge.isVisited())
-            throw new IllegalArgumentException("Edge not visited.");
-
-        edge.setVisitedBy(PlayerId.None);
-        boolean currentNodeVisited = false;
-
-        for (int dir = Move.DIRECTION_0; dir <= Move.DIRECTION_7; ++dir)
-        {
-            final Edge e = current.getEdge(dir);
-            if (e != null && !e.isBorder() && e.isVisited())
-            {
-                currentNodeVisited = true;
-                break;
-            }
-        }
-        current.setVisited(currentNodeVisited);
-
-        final Node other = edge.getOpposite(current);
-        field.setCurrent(other.getX(), other.getY());
-    }
-
     /**
      * Analyzes all possible moves at current position.
      * 
@@ -297,60 +515,58 @@ public class SimpleAIPlayer implements AIPlayer
         boolean pathEnd;
         short estimation;
 
-        for (int dir = Move.DIRECTION_0; dir <= Move.DIRECTION_7; ++dir)
+        for (byte dir : SoccerRules.getDirections(SoccerRules.getAllowedDirections(baseNode)))
         {
-            if (SoccerRules.isMoveAllowed(baseNode, dir))
-            {
+            Node nextNode = baseNode.getNode(dir);
+            hasToRebounce = nextNode.isMarked();
 
-                Node nextNode = baseNode.getNode(dir);
-                hasToRebounce = nextNode.isMarked();
-
-                if (nextNode.isGoal())
+            if (nextNode.isGoal())
+            {
+                if (nextNode.getY() == goalAtBottomY)
                 {
-                    if (nextNode.getY() == goalAtBottomY)
-                    {
-                        // goal at bottom
-                        estimation = estimationTopPositive ? EST_GOAL_LOST : EST_GOAL_SCORED;
-                    }
-                    else if (nextNode.getY() == goalAtTopY)
-                    {
-                        // goal at top
-                        estimation = estimationTopPositive ? EST_GOAL_SCORED : EST_GOAL_LOST;
-                    }
-                    else
-                    {
-                        estimation = 0;
-                    }
-                    analysisComplete = true;
-                    pathEnd = true;
-
-                    if (estimation == EST_GOAL_SCORED)
-                        scorePosibilityDetected = true;
-
+                    // goal at bottom
+                    estimation = estimationTopPositive ? EST_GOAL_LOST : EST_GOAL_SCORED;
                 }
-                else if (!SoccerRules.isAnyMoveAllowed(nextNode, Move.getOppositeDirection(dir)))
+                else if (nextNode.getY() == goalAtTopY)
                 {
-                    // block - game lost
-                    estimation = EST_GAME_LOST;
-                    analysisComplete = true;
-                    pathEnd = true;
+                    // goal at top
+                    estimation = estimationTopPositive ? EST_GOAL_SCORED : EST_GOAL_LOST;
                 }
                 else
                 {
-                    estimation = (short) (estimationTopPositive ? (nextNode.getY() - fieldHalfHeight)
-                            : (-nextNode.getY() + fieldHalfHeight));
-
-                    analysisComplete = hasToRebounce ? false : true;
-                    pathEnd = hasToRebounce ? false : true;
+                    estimation = 0;
                 }
+                analysisComplete = true;
+                pathEnd = true;
 
-                long treeElement = TreeElementHelper.valueOf(parentIndex, estimation, (byte) (moveDepth + 1),
-                        (byte) dir, analysisComplete, pathEnd);
-                tree.addElement(treeElement);
+                if (estimation == EST_GOAL_SCORED)
+                    scorePosibilityDetected = true;
 
-                // Log.v(LOG_TAG, "Adding element, parentIndex: " + parentIndex +
-                // ", dir: " + dir + ", est: " + estimation);
             }
+            else if (!SoccerRules.isAnyMoveAllowed(nextNode, Move.getOppositeDirection(dir)))
+            {
+                // block - game lost
+                estimation = EST_GAME_LOST;
+                analysisComplete = true;
+                pathEnd = true;
+            }
+            else
+            {
+                estimation = (short) (estimationTopPositive ? (nextNode.getY() - fieldHalfHeight)
+                        : (-nextNode.getY() + fieldHalfHeight));
+
+                analysisComplete = hasToRebounce ? false : true;
+                pathEnd = hasToRebounce ? false : true;
+            }
+
+            long treeElement = TreeElementHelper.valueOf(parentIndex, estimation, moveDepth + 1, dir,
+                    analysisComplete, pathEnd);
+            tree.addElement(treeElement);
+            if (moveDepth >= maxMoveDepth)
+                maxMoveDepth = moveDepth + 1;
+
+            // Log.v(LOG_TAG, "Adding element, parentIndex: " + parentIndex +
+            // ", dir: " + dir + ", est: " + estimation);
         }
         return scorePosibilityDetected;
     }
@@ -380,16 +596,54 @@ public class SimpleAIPlayer implements AIPlayer
     /**
      * Analyzes tree elements starting from analysisStartIndex.
      * 
+     * Opponent replies to AI moves for which the opponent can already score are not analyzed any further -
+     * such AI move can not get any worse, nor better than the other moves.<br>
+     * NOTE: the cut is limited to the opponent goal. An AI move whose reply is merely estimated worse than the
+     * current best line is not cut - the estimation of the best line is not final until all its replies are
+     * analyzed, so cutting against it could drop the move that turns out to be the best.
+     * 
      * @param tree
      * @param estimationTopPositive
-     * @param analysisStartIndex
+     * @param analysisStartIndex    - 0 for AI moves, opponent move start index for opponent moves.
      * @param isAIMove
      * @return true if AI score possibility detected (only for AI), otherwise false.
      */
     private boolean analyseTreeElements(final EstimationTree tree, final int analysisStartIndex,
             final boolean estimationTopPositive, final boolean isAIMove)
     {
-        final int treeMaxMoveDepth = isAIMove ? config.aiMoveMaxDepth : config.opponentMoveMaxDepth;
+        boolean aiScorePosibilityDetected;
+        if (expansionPolicy == ExpansionPolicy.BEST_FIRST)
+        {
+            aiScorePosibilityDetected = analyseTreeElementsBestFirst(tree, analysisStartIndex, estimationTopPositive,
+                    isAIMove);
+        }
+        else
+        {
+            aiScorePosibilityDetected = analyseTreeElementsBreadthFirst(tree, analysisStartIndex,
+                    estimationTopPositive, isAIMove);
+        }
+
+        // take back all moves from analysis path to leave filed in initial state
+        takeBackAnalysisPath();
+
+        Log.d(LOG_TAG, "Tree size: " + tree.getElementsCount() + ", " + tree.getReservedByteSize() + " bytes");
+
+        return aiScorePosibilityDetected;
+    }
+
+    /**
+     * Analyzes tree elements starting from analysisStartIndex generation by generation.
+     * 
+     * @param tree
+     * @param estimationTopPositive
+     * @param analysisStartIndex
+     * @param isAIMove
+     * @return true if AI score possibility detected (only for AI), otherwise false.
+     */
+    private boolean analyseTreeElementsBreadthFirst(final EstimationTree tree, final int analysisStartIndex,
+            final boolean estimationTopPositive, final boolean isAIMove)
+    {
+        final int treeMaxMoveDepth = isAIMove ? aiMoveMaxDepth : opponentMoveMaxDepth;
 
         int moveDepth;
         boolean keepAnalyzing = true;
@@ -402,26 +656,40 @@ public class SimpleAIPlayer implements AIPlayer
             for (int i = startIndex; i < treeElementsCount; ++i)
             {
                 // stop if too many moves analyzed
-                if (tree.getElementsCount() > config.treeElementMaxCount || keepAnalyzing == false)
+                if (keepAnalyzing == false || isTreeLimitReached(tree))
                 {
                     keepAnalyzing = false;
                     break;
                 }
 
+                if (checkpointFile != null)
+                    saveCheckpointIfDue(tree, isAIMove ? -1 : analysisStartIndex);
+
                 long treeElement = tree.getElement(i);
                 if (!TreeElementHelper.isAnalysisComplete(treeElement))
                 {
                     moveDepth = TreeElementHelper.getMoveDepth(treeElement);
-                    if (moveDepth < treeMaxMoveDepth || !tree.isAtLeastOnePathEndInTree())
+                    final int aiMoveIndex = isAIMove ? -1 : tree.getAIMoveIndex(i, analysisStartIndex);
+
+                    if ((moveDepth < treeMaxMoveDepth || !tree.isAtLeastOnePathEndInTree())
+                            && moveDepth < pathCapacity && (isAIMove || !tree.isRefuted(aiMoveIndex)))
                     {
                         // do the further analysis
                         prepareFieldForAnalysis(tree, i);
 
-                        if (analyseMovesAtCurrentPosition(tree, i, moveDepth, estimationTopPositive) && isAIMove)
+                        if (analyseMovesAtCurrentPosition(tree, i, moveDepth, estimationTopPositive))
                         {
-                            // stop analysis early if AI score possibility detected
-                            keepAnalyzing = false;
-                            aiScorePosibilityDetected = true;
+                            if (isAIMove)
+                            {
+                                // stop analysis early if AI score possibility detected
+                                keepAnalyzing = false;
+                                aiScorePosibilityDetected = true;
+                            }
+                            else
+                            {
+                                // opponent can score - cut off the remaining replies to the AI move
+                                tree.setRefuted(aiMoveIndex);
+                            }
                         }
                     }
 
@@ -432,57 +700,263 @@ public class SimpleAIPlayer implements AIPlayer
             }
             startIndex = treeElementsCount;
         }
+        return aiScorePosibilityDetected;
+    }
 
-        // take back all moves from analysis path to leave filed in initial state
-        for (int i = analysisPathMovesSize - 1; i >= 0; --i)
+    /**
+     * Analyzes tree elements starting from analysisStartIndex. The element with the best estimation is
+     * expanded first, so the promising re-bounce chains are analyzed deeper within the same tree size limit.
+     * 
+     * @param tree
+     * @param estimationTopPositive
+     * @param analysisStartIndex
+     * @param isAIMove
+     * @return true if AI score possibility detected (only for AI), otherwise false.
+     */
+    private boolean analyseTreeElementsBestFirst(final EstimationTree tree, final int analysisStartIndex,
+            final boolean estimationTopPositive, final boolean isAIMove)
+    {
+        final int treeMaxMoveDepth = isAIMove ? aiMoveMaxDepth : opponentMoveMaxDepth;
+
+        int moveDepth;
+        boolean aiScorePosibilityDetected = false;
+
+        tree.clearExpansionQueue();
+        for (int i = analysisStartIndex; i < tree.getElementsCount(); ++i)
         {
-            takeBackMove(analysisPathMoves[i]);
+            if (!TreeElementHelper.isAnalysisComplete(tree.getElement(i)))
+                tree.offerForExpansion(i);
         }
-        analysisPathMovesSize = 0;
 
-        Log.d(LOG_TAG, "Tree size: " + tree.getElementsCount() + ", " + tree.getEstimatedByteSize(true) + " bytes");
+        int index;
+        while ((index = tree.pollForExpansion()) >= 0)
+        {
+            // stop if too many moves analyzed
+            if (isTreeLimitReached(tree))
+                break;
+
+            if (checkpointFile != null)
+                saveCheckpointIfDue(tree, isAIMove ? -1 : analysisStartIndex);
+
+            long treeElement = tree.getElement(index);
+            moveDepth = TreeElementHelper.getMoveDepth(treeElement);
+            final int aiMoveIndex = isAIMove ? -1 : tree.getAIMoveIndex(index, analysisStartIndex);
+
+            if ((moveDepth < treeMaxMoveDepth || !tree.isAtLeastOnePathEndInTree())
+                    && moveDepth < pathCapacity && (isAIMove || !tree.isRefuted(aiMoveIndex)))
+            {
+                // do the further analysis
+                prepareFieldForAnalysis(tree, index);
+
+                int firstChildIndex = tree.getElementsCount();
+                if (analyseMovesAtCurrentPosition(tree, index, moveDepth, estimationTopPositive))
+                {
+                    if (isAIMove)
+                    {
+                        // stop analysis early if AI score possibility detected
+                        aiScorePosibilityDetected = true;
+                    }
+                    else
+                    {
+                        // opponent can score - cut off the remaining replies to the AI move
+                        tree.setRefuted(aiMoveIndex);
+                    }
+                }
+
+                for (int i = firstChildIndex; i < tree.getElementsCount(); ++i)
+                {
+                    if (!TreeElementHelper.isAnalysisComplete(tree.getElement(i)))
+                        tree.offerForExpansion(i);
+                }
+            }
+
+            // set analysis complete for treeElement
+            long element = TreeElementHelper.setAnalysisComplete(treeElement, true);
+            tree.setElement(element, index);
+
+            if (aiScorePosibilityDetected)
+                break;
+        }
+        tree.clearExpansionQueue();
 
         return aiScorePosibilityDetected;
     }
 
     /**
-     * Prepares field for tree analysis at index.
+     * Checks if the tree elements limit or the search limits are reached, or the analysis is stopped. NOTE: the
+     * limits are not applied until there is at least one path end in the tree - a move has to be found even
+     * with a very low limit.
+     * 
+     * @param tree
+     * @return true if the limit is reached, otherwise false.
+     */
+    private boolean isTreeLimitReached(final EstimationTree tree)
+    {
+        if (tree.getElementsCount() > treeElementMaxCount && tree.isAtLeastOnePathEndInTree())
+        {
+            treeLimitReached = true;
+            return true;
+        }
+        if (isSearchLimitReached(tree) && tree.isAtLeastOnePathEndInTree())
+        {
+            searchLimitReached = true;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean isSearchLimitReached(final EstimationTree tree)
+    {
+        if (searchLimitReached || stopRequested || tree.getElementsCount() > searchMaxElements)
+            return true;
+
+        // NOTE: reading the time on every check would slow down the analysis
+        if ((searchMaxTimeMillis != Long.MAX_VALUE || progressObserver != null) && 0 == (++limitChecksCount & 0xff))
+        {
+            final long now = System.currentTimeMillis();
+            if (progressObserver != null && now - progressTime >= progressIntervalMillis)
+                reportProgress(tree, now);
+            return now - analysisStartTime >= searchMaxTimeMillis;
+        }
+        return false;
+    }
+
+    /**
+     * Reports the leading move of the analysis in progress to the progress observer.
+     * 
+     * @param tree
+     * @param now  - current time.
+     */
+    private void reportProgress(final EstimationTree tree, final long now)
+    {
+        progressTime = now;
+
+        final int aiMovesEndIndex = progressAIMovesEndIndex >= 0 ? progressAIMovesEndIndex : tree.getElementsCount();
+        final int index = tree.getLeadingPathEnd(aiMovesEndIndex);
+        if (index < 0)
+            return;
+
+        progressObserver.onAnalysisProgress(new AnalysisProgress(maxMoveDepth, tree.getElementsCount(),
+                now - analysisStartTime, tree.getPathToElement(index),
+                TreeElementHelper.getEstimation(tree.getElement(index))));
+    }
+
+    /**
+     * Loads the checkpoint of the analysis of the current position.
+     * 
+     * @return checkpoint or null if there is no checkpoint of the current position.
+     */
+    private EstimationTreeFile loadCheckpoint()
+    {
+        if (checkpointFile == null || !checkpointFile.exists())
+            return null;
+
+        try
+        {
+            EstimationTreeFile checkpoint = EstimationTreeFile.load(checkpointFile, true);
+            if (checkpoint.getPositionKey() == positionKey && checkpoint.getTree().getPlayerId() == playerId)
+                return checkpoint;
+        }
+        catch (IOException e)
+        {
+            Log.w(LOG_TAG, "Checkpoint not loaded: " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Saves the checkpoint if the checkpoint interval elapsed. NOTE: the tree is consistent between the
+     * expansions of the elements - the elements not marked complete are the ones still to be expanded.
+     * 
+     * @param tree
+     * @param opponentMoveStartIndex - -1 in the AI move analysis.
+     */
+    private void saveCheckpointIfDue(final EstimationTree tree, final int opponentMoveStartIndex)
+    {
+        long now = System.currentTimeMillis();
+        if (now - checkpointTime >= CHECKPOINT_INTERVAL_MS)
+        {
+            saveCheckpoint(tree, opponentMoveStartIndex);
+            checkpointTime = now;
+        }
+    }
+
+    /**
+     * Saves the checkpoint of the analysis.
+     * 
+     * @param tree
+     * @param opponentMoveStartIndex - -1 in the AI move analysis.
+     */
+    private void saveCheckpoint(final EstimationTree tree, final int opponentMoveStartIndex)
+    {
+        if (checkpointFile == null)
+            return;
+
+        try
+        {
+            EstimationTreeFile.save(checkpointFile, tree, positionKey, opponentMoveStartIndex);
+        }
+        catch (IOException e)
+        {
+            Log.e(LOG_TAG, "Checkpoint not saved: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Takes back all moves from the analysis path to leave the field in the initial state.
+     */
+    private void takeBackAnalysisPath()
+    {
+        field.undoMoves(analysisPathMovesSize);
+        analysisPathMovesSize = 0;
+    }
+
+    /**
+     * Prepares field for tree analysis at index.<br>
+     * The analysis path is kept as a stack (cursor) of tree indexes, so only the part of the path to the
+     * element which differs from the current analysis path is walked, taken back and replayed. Tree elements
+     * are expanded generation by generation in the order of their parents, which is the depth-first order
+     * within a generation - the consecutive elements share the longest possible part of the path.
      * 
      * @param tree
      * @param index
      */
     private void prepareFieldForAnalysis(final EstimationTree tree, final int index)
     {
-        int pathMovesCount = tree.getPathToElement(index, pathMoves);
+        // NOTE: move depth is counted from the tree root, so element at depth d is at path position d - 1
+        final int pathMovesCount = TreeElementHelper.getMoveDepth(tree.getElement(index));
+
+        if (pathMovesCount > pathCapacity)
+        {
+            throw new ArrayIndexOutOfBoundsException(
+                    "" + pathMovesCount + " exceeds analysis path capacity [" + pathCapacity + "]");
+        }
 
-        int moveIndex = 0;
-        while (moveIndex < analysisPathMovesSize && moveIndex < pathMovesCount
-                && analysisPathMoves[moveIndex] == pathMoves[moveIndex])
+        // walk up until the element is found on the analysis path
+        int elementIndex = index;
+        int moveIndex = pathMovesCount - 1;
+        while (moveIndex >= 0
+                && (moveIndex >= analysisPathMovesSize || analysisPathIndexes[moveIndex] != elementIndex))
         {
-            ++moveIndex;
+            long treeElement = tree.getElement(elementIndex);
+            pathMoves[moveIndex] = TreeElementHelper.getMoveDirection(treeElement);
+            analysisPathIndexes[moveIndex] = elementIndex;
+            elementIndex = TreeElementHelper.getParentIndex(treeElement);
+            --moveIndex;
         }
-        int diffStartIndex = moveIndex;
+        int diffStartIndex = moveIndex + 1;
 
         // take back moves
-        for (int i = analysisPathMovesSize - 1; i >= diffStartIndex; --i)
+        if (analysisPathMovesSize > diffStartIndex)
         {
-            takeBackMove(analysisPathMoves[i]);
-            analysisPathMovesSize--;
+            field.undoMoves(analysisPathMovesSize - diffStartIndex);
+            analysisPathMovesSize = diffStartIndex;
         }
         // make moves
-        byte moveDirection;
         for (int i = diffStartIndex; i < pathMovesCount; ++i)
         {
-            moveDirection = pathMoves[i];
-            makeMove(moveDirection);
-            analysisPathMoves[analysisPathMovesSize] = moveDirection;
+            field.makeMove(pathMoves[i], playerId);
             analysisPathMovesSize++;
         }
-
-        if (analysisPathMovesSize > ANALYSIS_PATH_MAX_MOVES)
-        {
-            throw new ArrayIndexOutOfBoundsException(
-                    "" + analysisPathMovesSize + " exceeds ANALYSIS_PATH_MAX_MOVES [" + ANALYSIS_PATH_MAX_MOVES + "]");
-        }
     }
 }
@@ -36,17 +36,20 @@ import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
 import java.awt.event.MouseWheelEvent;
 import java.awt.event.MouseWheelListener;
-import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayDeque;
 import java.util.Properties;
+import java.util.Queue;
 
 import javax.swing.JOptionPane;
 import javax.swing.SwingUtilities;
 
 import com.szajna.games.ossoccer.AppConfig;
+import com.szajna.games.ossoccer.GameClock;
 import com.szajna.games.ossoccer.IAnalysisObserver;
 import com.szajna.games.ossoccer.Player;
 import com.szajna.games.ossoccer.SoccerEngine;
 import com.szajna.games.ossoccer.SoccerRules;
+import com.szajna.games.ossoccer.ai.AnalysisProgress;
 import com.szajna.games.ossoccer.field.Field;
 import com.szajna.games.ossoccer.field.Path;
 import com.szajna.games.ossoccer.field.Path.PathElement;
@@ -83,8 +86,19 @@ public class SoccerController implements MouseListener, MouseMotionListener, Mou
     private int pathDrawTime = 0;
     private volatile boolean pathDrawInProgress = false;
 
+    private final GameClock gameClock;
+    /** The clock of the player to move is paused until the CPU move is drawn - the input is blocked until then. */
+    private boolean clockPausedForDraw = false;
+
     private Player winner = null;
     private boolean gameOver = false;
+    /** Game number, incremented by each new game. */
+    private int gameGeneration = 0;
+    /**
+     * Game numbers of the CPU analyses started and not completed yet, in the start order - the engine completes
+     * the analyses in the same order. The results of the analyses of an older game are dropped.
+     */
+    private final Queue<Integer> analysisGenerations = new ArrayDeque<Integer>();
     private boolean gameOverEvent = false;
 
     public SoccerController(SoccerEngine soccerEngine, final Court courtView)
@@ -119,6 +133,33 @@ public class SoccerController implements MouseListener, MouseMotionListener, Mou
 
         setUiAnimSpeed(uiAnimSpeed);
 
+        // set game clock
+        String propClockBase = appProperties.getProperty(AppConfig.PROP_KEY_CLOCK_BASE_SECONDS);
+        String propClockIncrement = appProperties.getProperty(AppConfig.PROP_KEY_CLOCK_INCREMENT_SECONDS);
+        int clockBaseSeconds;
+        int clockIncrementSeconds;
+        try
+        {
+            clockBaseSeconds = Integer.parseInt(propClockBase);
+            clockIncrementSeconds = Integer.parseInt(propClockIncrement);
+        }
+        catch (NumberFormatException e)
+        {
+            // set defaults
+            clockBaseSeconds = AppConfig.DEFAULT_CLOCK_BASE_SECONDS;
+            clockIncrementSeconds = AppConfig.DEFAULT_CLOCK_INCREMENT_SECONDS;
+        }
+
+        if (clockBaseSeconds < 0 || clockIncrementSeconds < 0)
+        {
+            clockBaseSeconds = AppConfig.DEFAULT_CLOCK_BASE_SECONDS;
+            clockIncrementSeconds = AppConfig.DEFAULT_CLOCK_INCREMENT_SECONDS;
+        }
+
+        gameClock = new GameClock(clockBaseSeconds * 1000L, clockIncrementSeconds * 1000L);
+        gameClock.start(currentPlayer.getId());
+        courtView.setGameClock(gameClock);
+
         uiTimer = new javax.swing.Timer(1000 / FPS, new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent event)
@@ -126,12 +167,20 @@ public class SoccerController implements MouseListener, MouseMotionListener, Mou
                 long now = System.currentTimeMillis();
                 long millis = now - uiRepaintTimestamp;
 
+                checkTimeOver();
+
                 pathDrawTime += (int) millis;
                 if (pathDrawTime > pathTotalDrawTime)
                 {
                     pathDrawTime = pathTotalDrawTime;
                     pathDrawInProgress = false;
                 }
+                if (clockPausedForDraw && !pathDrawInProgress)
+                {
+                    clockPausedForDraw = false;
+                    if (!gameOver)
+                        gameClock.start(currentPlayer.getId());
+                }
 
                 int pathDrawPercent;
                 if (pathTotalDrawTime > 0)
@@ -331,46 +380,71 @@ public class SoccerController implements MouseListener, MouseMotionListener, Mou
     {
     }
 
+    /**
+     * IAnalysisObserver interface implementation, called in the UI thread. The best line of the latest progress
+     * published by the engine is shown - the notifications queued behind a busy UI thread are skipped.
+     */
+    @Override
+    public void onAnalysisProgress(AnalysisProgress progress)
+    {
+        AnalysisProgress latest = soccerEngine.getAnalysisProgress();
+        if (gameOver || latest == null || !currentPlayer.isCpuControlled() || !isAnalysisOfCurrentGame())
+        {
+            return;
+        }
+
+        courtView.setBestLine(latest.getBestPath());
+        courtView.repaint();
+    }
+
+    /**
+     * IAnalysisObserver interface implementation, called in the UI thread - the analysing thread does not wait
+     * for the move to be applied and painted.
+     */
     @Override
     public void onAnalysisComplete()
     {
+        Integer generation = analysisGenerations.poll();
+        if (generation == null || generation != gameGeneration)
+        {
+            // the analysis of the previous game
+            return;
+        }
+
+        courtView.setBestLine(null);
+        if (gameOver)
+        {
+            // e.g. the time is over
+            return;
+        }
+
+        bestPath = soccerEngine.getBestPath();
+        assert (bestPath != null && bestPath.size() > 0);
+
+        pathDrawTime = 0;
+        pathTotalDrawTime = bestPath.size() * pathDrawTimePerMove;
+        pathDrawInProgress = true;
+
+        courtView.setLastMoveSize(bestPath.size());
+        courtView.setLastMoveDrawPercent(0);
+
         try
         {
-            SwingUtilities.invokeAndWait(new Runnable() {
-                @Override
-                public void run()
-                {
-                    bestPath = soccerEngine.getBestPath();
-                    assert (bestPath != null && bestPath.getMoves().size() > 0);
-
-                    pathDrawTime = 0;
-                    pathTotalDrawTime = bestPath.getMoves().size() * pathDrawTimePerMove;
-                    pathDrawInProgress = true;
-
-                    courtView.setLastMoveSize(bestPath.getMoves().size());
-                    courtView.setLastMoveDrawPercent(0);
-
-                    try
-                    {
-                        onMoveMade();
-                    }
-                    catch (Exception e)
-                    {
-                        e.printStackTrace();
-                    }
-
-                    courtView.repaint();
-                }
-            });
+            onMoveMade();
         }
-        catch (InterruptedException e)
+        catch (Exception e)
         {
             e.printStackTrace();
         }
-        catch (InvocationTargetException e)
+
+        if (!gameOver && !currentPlayer.isCpuControlled())
         {
-            e.printStackTrace();
+            // the player can not move until the CPU move is drawn
+            gameClock.stop();
+            clockPausedForDraw = true;
         }
+
+        courtView.repaint();
     }
 
     private void createPlayers()
@@ -389,12 +463,29 @@ public class SoccerController implements MouseListener, MouseMotionListener, Mou
         courtView.setCurrentPlayer(player);
     }
 
+    /**
+     * Checks if the oldest analysis not completed yet belongs to the current game.
+     * 
+     * @return true if yes, false if no.
+     */
+    private boolean isAnalysisOfCurrentGame()
+    {
+        Integer generation = analysisGenerations.peek();
+        return generation != null && generation == gameGeneration;
+    }
+
     private void setNewGame()
     {
+        // the analysis of the previous game is not needed anymore, its result is dropped
+        gameGeneration++;
+        soccerEngine.stopAnalysis();
         bestPath.clear();
         soccerEngine.resetGame();
 
         setCurrentPlayer(players[0]);
+        gameClock.reset();
+        gameClock.start(currentPlayer.getId());
+        clockPausedForDraw = false;
 
         for (Player player : players)
         {
@@ -402,6 +493,7 @@ public class SoccerController implements MouseListener, MouseMotionListener, Mou
         }
 
         courtView.setFingerPos(-1, -1);
+        courtView.setBestLine(null);
 
         pathDrawTime = pathTotalDrawTime;
         pathDrawInProgress = false;
@@ -418,9 +510,9 @@ public class SoccerController implements MouseListener, MouseMotionListener, Mou
         Field field = soccerEngine.getField();
         boolean hasToRebounce = false;
 
-        if (bestPath.getMoves().size() == 1)
+        if (bestPath.size() == 1)
         {
-            int dir = bestPath.getMoves().get(0).getMoveDirection();
+            int dir = bestPath.get(0).getMoveDirection();
             hasToRebounce = SoccerRules.hasToRebounce(field.getCurrent(), dir);
         }
 
@@ -445,9 +537,10 @@ public class SoccerController implements MouseListener, MouseMotionListener, Mou
 
             if (firstGoalWins == false && SoccerRules.isAnyMoveAllowed(field.getCurrent()))
             {
+                gameClock.switchTurn(currentPlayer.getId());
                 if (currentPlayer.isCpuControlled())
                 {
-                    soccerEngine.startAnalysis();
+                    startCpuAnalysis();
                 }
             }
             else
@@ -456,6 +549,7 @@ public class SoccerController implements MouseListener, MouseMotionListener, Mou
                 winner = getWinner();
                 gameOver = true;
                 gameOverEvent = true;
+                gameClock.stop();
             }
         }
         else if (!SoccerRules.isAnyMoveAllowed(field.getCurrent()))
@@ -464,6 +558,7 @@ public class SoccerController implements MouseListener, MouseMotionListener, Mou
             winner = getOpponent(currentPlayer);
             gameOver = true;
             gameOverEvent = true;
+            gameClock.stop();
         }
         else
         {
@@ -471,15 +566,51 @@ public class SoccerController implements MouseListener, MouseMotionListener, Mou
             {
                 Player opponent = getOpponent(currentPlayer);
                 setCurrentPlayer(opponent);
+                gameClock.switchTurn(currentPlayer.getId());
 
                 if (currentPlayer.isCpuControlled())
                 {
-                    soccerEngine.startAnalysis();
+                    startCpuAnalysis();
                 }
             }
         }
     }
 
+    /**
+     * Starts analysis of the CPU player, the thinking time is limited by the CPU player clock, if enabled.
+     */
+    private void startCpuAnalysis()
+    {
+        if (gameClock.isEnabled())
+            soccerEngine.setClock(gameClock.getRemainingMillis(currentPlayer.getId()), gameClock.getIncrementMillis());
+        else
+            soccerEngine.setClock(-1, 0);
+
+        analysisGenerations.add(gameGeneration);
+        soccerEngine.startAnalysis();
+    }
+
+    /**
+     * Checks clock of the player to move - the player loses the game if the time is over.
+     */
+    private void checkTimeOver()
+    {
+        if (gameOver || !gameClock.isTimeOver(currentPlayer.getId()))
+            return;
+
+        Log.d(LOG_TAG, "Time is over: " + currentPlayer.getName());
+        winner = getOpponent(currentPlayer);
+        gameOver = true;
+        gameOverEvent = true;
+        gameClock.stop();
+        courtView.setBestLine(null);
+
+        if (currentPlayer.isCpuControlled())
+        {
+            soccerEngine.stopAnalysis();
+        }
+    }
+
     /**
      * Get opponent to Player player.
      * 
@@ -2,26 +2,35 @@ package com.szajna.games.ossoccer.field;
 
 public final class Edge
 {
+    private final Field field;
+    /**
+     * Index of the edge in the field, the edge state (visited by) is kept by the field.
+     */
+    private final int id;
     private final Node n1;
     private final Node n2;
     /**
-     * true if the edge belongs to the border line.
+     * Move direction from n1 to n2.
      */
-    private final boolean border;
+    private final int direction;
     /**
-     * One of PlayerId values indicating by whom was the edge visited, if was at all.
+     * true if the edge belongs to the border line.
      */
-    private int visitedBy;
+    private final boolean border;
 
-    public Edge(final Node n1, final Node n2, final boolean border)
+    Edge(final Field field, final int id, final Node n1, final Node n2, final int direction, final boolean border)
     {
-        if (null == n1 || null == n2 || n1 == n2)
+        if (null == field || null == n1 || null == n2 || n1 == n2)
+            throw new IllegalArgumentException();
+        if (direction < Move.DIRECTION_0 || Move.DIRECTION_7 < direction)
             throw new IllegalArgumentException();
 
+        this.field = field;
+        this.id = id;
         this.n1 = n1;
         this.n2 = n2;
+        this.direction = direction;
         this.border = border;
-        this.visitedBy = PlayerId.None;
     }
 
     /**
@@ -29,7 +38,12 @@ public final class Edge
      */
     public void reset()
     {
-        this.visitedBy = PlayerId.None;
+        field.setEdgeVisitedBy(id, PlayerId.None);
+    }
+
+    public int getId()
+    {
+        return id;
     }
 
     public Node getN1()
@@ -42,6 +56,16 @@ public final class Edge
         return n2;
     }
 
+    /**
+     * Gets move direction from n1 to n2.
+     * 
+     * @return direction.
+     */
+    public int getDirection()
+    {
+        return direction;
+    }
+
     public Node getOpposite(final Node node)
     {
         if (n1 != node && n2 != node)
@@ -52,7 +76,7 @@ public final class Edge
 
     public boolean isBlocked()
     {
-        return border | (PlayerId.None != visitedBy);
+        return field.isEdgeBlocked(id);
     }
 
     public boolean isBorder()
@@ -60,18 +84,23 @@ public final class Edge
         return border;
     }
 
+    /**
+     * Sets by whom the edge was visited.
+     * 
+     * @param visitedBy - one of PlayerId values, PlayerId.None if not visited.
+     */
     public void setVisitedBy(final int visitedBy)
     {
-        this.visitedBy = visitedBy;
+        field.setEdgeVisitedBy(id, visitedBy);
     }
 
     public int getVisitedBy()
     {
-        return visitedBy;
+        return field.getEdgeVisitedBy(id);
     }
 
     public boolean isVisited()
     {
-        return PlayerId.None != visitedBy;
+        return field.isEdgeVisited(id);
     }
 }
@@ -1,6 +1,6 @@
 package com.szajna.games.ossoccer.field;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 
 import com.szajna.games.ossoccer.field.Path.PathElement;
 import com.szajna.util.Log;
@@ -8,6 +8,14 @@ import com.szajna.util.Log;
 public final class Field
 {
     private static final String LOG_TAG = Field.class.getSimpleName();
+
+    /** Edge ownership codes, 2 bits per edge. NOTE: the player codes are equal to the PlayerId values. */
+    static final int OWNER_NONE = PlayerId.None;
+    static final int OWNER_PLAYER1 = PlayerId.Player1;
+    static final int OWNER_PLAYER2 = PlayerId.Player2;
+    static final int OWNER_BORDER = 3;
+    /** Bit 0 of every 2-bit code in a word. */
+    private static final long OWNER_LOW_BITS = 0x5555555555555555L;
     private final Path path = new Path();
     private final int width;
     private final int height;
@@ -15,6 +23,23 @@ public final class Field
     private final Node start;
     private Node current;
 
+    private Edge[] edges;
+    private FieldGraph graph;
+    /** Edge state, 2-bit ownership code (OWNER_*) per edge id, 32 edges per word. */
+    private long[] owners;
+    /** Ownership at the start of a game - the border edges only. */
+    private long[] initialOwners;
+    /** true if the owners are shared with a snapshot or the initial owners - they are copied before a change. */
+    private boolean edgeStateShared;
+    /**
+     * Move journal, entry per move made: the visited edge id, the node the move started from (current can be
+     * also set by setCurrent()) and the path size before the move.
+     */
+    private int[] journalEdges;
+    private Node[] journalNodes;
+    private int[] journalPathSizes;
+    private int journalSize;
+
     Field(final int width, final int height, final Node[] nodes, final Node start)
     {
         this.width = width;
@@ -22,35 +47,243 @@ public final class Field
         this.nodes = nodes;
         this.start = start;
         this.current = this.start;
+        this.start.setPinned(true);
+    }
+
+    /**
+     * Sets edges of the field, edge id is the index in the array.
+     * 
+     * @param edges
+     */
+    void setEdges(final Edge[] edges)
+    {
+        this.edges = edges;
+        this.graph = new FieldGraph(width, height, nodes, edges, start);
+        this.initialOwners = new long[(edges.length + 31) >>> 5];
+        for (Edge edge : edges)
+        {
+            if (edge.isBorder())
+            {
+                setOwner(initialOwners, edge.getId(), OWNER_BORDER);
+            }
+        }
+        this.owners = initialOwners;
+        this.edgeStateShared = true;
+        // NOTE: only not visited edges can be moved along, so the journal never exceeds the edges count
+        this.journalEdges = new int[edges.length];
+        this.journalNodes = new Node[edges.length];
+        this.journalPathSizes = new int[edges.length];
+        this.journalSize = 0;
     }
 
     /**
-     * Resets Edge to its initial (ready for a game) state.
+     * Resets Field to its initial (ready for a game) state. Only the end nodes of the visited edges are reset -
+     * the other nodes are in the initial state, so the cost depends on the game length, not the field size.
      */
     public void reset()
     {
         this.path.clear();
+        this.journalSize = 0;
+        resetVisitedNodes();
 
-        for (Node node : nodes)
+        owners = initialOwners;
+        edgeStateShared = true;
+
+        this.current = this.start;
+    }
+
+    /**
+     * Resets the end nodes of the visited edges.
+     */
+    private void resetVisitedNodes()
+    {
+        for (int word = 0; word < owners.length; ++word)
         {
-            if (null != node)
+            // bit 0 of the code set if owned by a player (code 01 or 10)
+            long bits = (owners[word] ^ (owners[word] >>> 1)) & OWNER_LOW_BITS;
+            while (0 != bits)
             {
-                node.reset();
+                final Edge edge = edges[(word << 5) + (Long.numberOfTrailingZeros(bits) >>> 1)];
+                edge.getN1().reset();
+                edge.getN2().reset();
+                bits &= bits - 1;
+            }
+        }
+    }
 
-                for (int i = Move.DIRECTION_0; i <= Move.DIRECTION_7; ++i)
-                {
-                    final Edge edge = node.getEdge(i);
+    /**
+     * Creates immutable snapshot of the field state. The snapshot shares the edge state with the field until
+     * the field is modified (copy-on-write). NOTE: the snapshot has to be created by the thread modifying the
+     * field, but it can be read by any number of threads.
+     * 
+     * @return snapshot.
+     */
+    public FieldSnapshot snapshot()
+    {
+        edgeStateShared = true;
+        return new FieldSnapshot(this, owners, current);
+    }
 
-                    if (null != edge)
-                    {
-                        edge.reset();
-                    }
-                }
+    /**
+     * Restores the field state from the snapshot of a field of the same size. The edge state is shared with
+     * the snapshot until the field is modified (copy-on-write). NOTE: the path and the move journal are not
+     * part of the snapshot - they are cleared.
+     * 
+     * @param snapshot
+     * @throws IllegalArgumentException if the snapshot is of a field of another size.
+     */
+    public void restore(final FieldSnapshot snapshot)
+    {
+        if (snapshot.getWidth() != width || snapshot.getHeight() != height
+                || snapshot.getOwners().length != owners.length)
+            throw new IllegalArgumentException("Snapshot of a field of another size.");
+
+        this.path.clear();
+        this.journalSize = 0;
+        resetVisitedNodes();
+
+        owners = snapshot.getOwners();
+        edgeStateShared = true;
+
+        for (Edge edge : edges)
+        {
+            if (!edge.isBorder() && edge.isVisited())
+            {
+                onEdgeVisitedChanged(edge, true);
             }
         }
 
-        this.current = this.start;
-        this.current.setVisited(true);
+        final Node snapshotCurrent = snapshot.getCurrent();
+        this.current = nodes[snapshotCurrent.getY() * width + snapshotCurrent.getX()];
+    }
+
+    /**
+     * Creates a copy of the field - the layout and the state, without the path.
+     * 
+     * @return field copy.
+     */
+    public Field copy()
+    {
+        final Field field = FieldFactory.create(width, height);
+        field.restore(snapshot());
+        return field;
+    }
+
+    public int getEdgesCount()
+    {
+        return edges.length;
+    }
+
+    public Edge getEdge(final int id)
+    {
+        return edges[id];
+    }
+
+    /**
+     * Gets layout of the field as primitive arrays.
+     * 
+     * @return graph.
+     */
+    public FieldGraph getGraph()
+    {
+        return graph;
+    }
+
+    /**
+     * Checks if the edge is visited by any player.
+     * 
+     * @param id - edge id, see FieldGraph.getEdgeId().
+     * @return true if visited.
+     */
+    public boolean isEdgeVisited(final int id)
+    {
+        final int owner = getOwner(owners, id);
+        return OWNER_NONE != owner && OWNER_BORDER != owner;
+    }
+
+    /**
+     * Checks if the edge is blocked, i.e. it is visited or belongs to the border line.
+     * 
+     * @param id - edge id, see FieldGraph.getEdgeId().
+     * @return true if blocked.
+     */
+    public boolean isEdgeBlocked(final int id)
+    {
+        return OWNER_NONE != getOwner(owners, id);
+    }
+
+    int getEdgeVisitedBy(final int id)
+    {
+        return getEdgeVisitedBy(owners, id);
+    }
+
+    /**
+     * Sets by whom the edge was visited. NOTE: the border edges are never visited, they are not changed.
+     * 
+     * @param id
+     * @param visitedBy - one of PlayerId values.
+     */
+    void setEdgeVisitedBy(final int id, final int visitedBy)
+    {
+        if (visitedBy < PlayerId.None || PlayerId.Player2 < visitedBy)
+            throw new IllegalArgumentException("Invalid player: " + visitedBy);
+
+        final int owner = getOwner(owners, id);
+        if (OWNER_BORDER == owner)
+            return;
+
+        if (edgeStateShared)
+        {
+            owners = owners.clone();
+            edgeStateShared = false;
+        }
+        setOwner(owners, id, visitedBy);
+
+        final boolean visited = OWNER_NONE != visitedBy;
+        if (visited != (OWNER_NONE != owner))
+        {
+            onEdgeVisitedChanged(edges[id], visited);
+        }
+    }
+
+    /**
+     * Keeps the node visited edges counts and allowed directions up to date.
+     * 
+     * @param edge
+     * @param visited
+     */
+    private static void onEdgeVisitedChanged(final Edge edge, final boolean visited)
+    {
+        final int direction = edge.getDirection();
+        edge.getN1().onEdgeVisitedChanged(visited, direction);
+        edge.getN2().onEdgeVisitedChanged(visited, (direction + 4) & Move.DIRECTION_MASK);
+    }
+
+    static int getOwner(final long[] owners, final int id)
+    {
+        return (int) (owners[id >>> 5] >>> ((id & 31) << 1)) & 3;
+    }
+
+    private static void setOwner(final long[] owners, final int id, final int owner)
+    {
+        final int shift = (id & 31) << 1;
+        owners[id >>> 5] = (owners[id >>> 5] & ~(3L << shift)) | ((long) owner << shift);
+    }
+
+    static int getEdgeVisitedBy(final long[] owners, final int id)
+    {
+        final int owner = getOwner(owners, id);
+        return OWNER_BORDER != owner ? owner : PlayerId.None;
+    }
+
+    long[] getInitialOwners()
+    {
+        return initialOwners;
+    }
+
+    Node getStart()
+    {
+        return start;
     }
 
     public int getWidth()
@@ -68,6 +301,16 @@ public final class Field
         return current;
     }
 
+    /**
+     * Gets index of the current node in the FieldGraph.
+     * 
+     * @return node index.
+     */
+    public int getCurrentIndex()
+    {
+        return current.getY() * width + current.getX();
+    }
+
     public void setCurrent(final int x, final int y)
     {
         this.current = nodes[y * width + x];
@@ -96,34 +339,122 @@ public final class Field
     }
 
     /**
-     * Applies a path to the field.
+     * Makes a move of the player from the current node. The move is recorded in the journal, so it can be
+     * taken back by undoMove(). NOTE: the path of the field is not changed, see applyPath().
      * 
-     * @param path
-     * @throws IllegalArgumentException if path is invalid for any reason (e.g. doesn't connect to the
-     *                                  current node, uses already used edges)
+     * @param direction
+     * @param playerId  - Player1 or Player2.
+     * @throws IllegalArgumentException if the edge doesn't exist or is already visited.
      */
-    public void applyPath(final Path path)
+    public void makeMove(final int direction, final int playerId)
     {
-        final ArrayList<PathElement> moves = path.getMoves();
+        final Edge edge = current.getEdge(direction);
+
+        if (null == edge)
+            throw new IllegalArgumentException("Edge doesn't exists.");
+        if (edge.isBlocked())
+            throw new IllegalArgumentException("Edge already visited.");
+        if (PlayerId.Player1 != playerId && PlayerId.Player2 != playerId)
+            throw new IllegalArgumentException("Invalid player: " + playerId);
 
-        for (PathElement move : moves)
+        if (journalSize == journalEdges.length)
         {
-            final Edge edge = current.getEdge(move.getMoveDirection());
+            // edges were released by Edge.setVisitedBy() behind the journal
+            journalEdges = Arrays.copyOf(journalEdges, journalSize * 2);
+            journalNodes = Arrays.copyOf(journalNodes, journalSize * 2);
+            journalPathSizes = Arrays.copyOf(journalPathSizes, journalSize * 2);
+        }
+        journalEdges[journalSize] = edge.getId();
+        journalNodes[journalSize] = current;
+        journalPathSizes[journalSize] = path.size();
+        journalSize++;
 
-            if (null == edge)
-                throw new IllegalArgumentException("Edge doesn't exists.");
-            if (edge.isBlocked())
-                throw new IllegalArgumentException("Edge already visited.");
+        setEdgeVisitedBy(edge.getId(), playerId);
+        current = edge.getOpposite(current);
+    }
 
-            edge.setVisitedBy(move.getPlayerId());
+    /**
+     * Takes back the last move from the journal: the edge is not visited again, the ball goes back to the
+     * previous node and the path is restored to its size before the move.
+     * 
+     * @throws IllegalStateException if the journal is empty.
+     */
+    public void undoMove()
+    {
+        if (0 == journalSize)
+            throw new IllegalStateException("No move to undo.");
 
-            final Node other = edge.getOpposite(current);
-            other.setVisited(true);
+        --journalSize;
+        setEdgeVisitedBy(journalEdges[journalSize], PlayerId.None);
+        current = journalNodes[journalSize];
 
-            current = other;
+        final int pathSize = journalPathSizes[journalSize];
+        if (pathSize < path.size())
+        {
+            path.truncate(pathSize);
         }
+    }
 
-        this.path.addPath(path);
+    /**
+     * Takes back the last moves from the journal, see undoMove().
+     * 
+     * @param count - number of moves.
+     * @throws IllegalStateException if the journal has less moves.
+     */
+    public void undoMoves(final int count)
+    {
+        if (count > journalSize)
+            throw new IllegalStateException("Only " + journalSize + " moves to undo.");
+
+        for (int i = 0; i < count; ++i)
+        {
+            undoMove();
+        }
+    }
+
+    /**
+     * Gets number of the moves in the journal, i.e. made since the last reset or restore.
+     * 
+     * @return journal size.
+     */
+    public int getJournalSize()
+    {
+        return journalSize;
+    }
+
+    /**
+     * Applies a path to the field. The moves are recorded in the journal and added to the field path. The
+     * field is not changed if the path is invalid.
+     * 
+     * @param path
+     * @throws IllegalArgumentException if path is invalid for any reason (e.g. doesn't connect to the
+     *                                  current node, uses already used edges)
+     */
+    public void applyPath(final Path path)
+    {
+        final int movesCount = path.size();
+        final int startJournalSize = journalSize;
+        final int startPathSize = this.path.size();
+
+        try
+        {
+            for (int i = 0; i < movesCount; ++i)
+            {
+                final PathElement move = path.get(i);
+
+                if (!move.isSeparator())
+                {
+                    makeMove(move.getMoveDirection(), move.getPlayerId());
+                }
+                this.path.addMove(move);
+            }
+        }
+        catch (IllegalArgumentException e)
+        {
+            undoMoves(journalSize - startJournalSize);
+            this.path.truncate(startPathSize);
+            throw e;
+        }
     }
 
     public Path getPath()
@@ -131,6 +462,34 @@ public final class Field
         return path;
     }
 
+    /**
+     * Gets key of the current position - a hash of the visited edges and the current node. NOTE: it is an
+     * FNV-style hash of whole 64-bit words of the edge owners (the FNV-1a offset basis and prime, but not byte by
+     * byte), so it is not an FNV-1a value - the keys are only comparable with the keys of this implementation.
+     * 
+     * @return position key.
+     */
+    public long getPositionKey()
+    {
+        return getPositionKey(owners, current.getY() * width + current.getX());
+    }
+
+    static long getPositionKey(final long[] owners, final int currentIndex)
+    {
+        long key = 0xcbf29ce484222325L;
+
+        for (long word : owners)
+        {
+            // visited or border - the owner doesn't matter
+            key ^= (word | (word >>> 1)) & OWNER_LOW_BITS;
+            key *= 0x100000001b3L;
+        }
+        key ^= currentIndex;
+        key *= 0x100000001b3L;
+
+        return key;
+    }
+
     public void printFiled()
     {
         StringBuilder sb = new StringBuilder("\n");
@@ -1,5 +1,7 @@
 package com.szajna.games.ossoccer.field;
 
+import java.util.ArrayList;
+
 public class FieldFactory
 {
     public static Field createStandard()
@@ -44,12 +46,12 @@ public class FieldFactory
             }
         }
 
+        // NOTE: center is always visited, it is pinned by the field
         final Node center = nodes[width / 2 + (height / 2) * width];
-        // center is always visited
-        center.setVisited(true);
         final Field field = new Field(width, height, nodes, center);
 
         // Creating edges.
+        final ArrayList<Edge> edges = new ArrayList<Edge>();
         {
             for (int j = 0; j < height; ++j)
             {
@@ -60,22 +62,24 @@ public class FieldFactory
                     if (null == node)
                         continue;
 
-                    setEdge(node, 0, i, j + 1, field);
-                    setEdge(node, 1, i + 1, j + 1, field);
-                    setEdge(node, 2, i + 1, j, field);
-                    setEdge(node, 3, i + 1, j - 1, field);
-                    setEdge(node, 4, i, j - 1, field);
-                    setEdge(node, 5, i - 1, j - 1, field);
-                    setEdge(node, 6, i - 1, j, field);
-                    setEdge(node, 7, i - 1, j + 1, field);
+                    setEdge(node, 0, i, j + 1, field, edges);
+                    setEdge(node, 1, i + 1, j + 1, field, edges);
+                    setEdge(node, 2, i + 1, j, field, edges);
+                    setEdge(node, 3, i + 1, j - 1, field, edges);
+                    setEdge(node, 4, i, j - 1, field, edges);
+                    setEdge(node, 5, i - 1, j - 1, field, edges);
+                    setEdge(node, 6, i - 1, j, field, edges);
+                    setEdge(node, 7, i - 1, j + 1, field, edges);
                 }
             }
         }
+        field.setEdges(edges.toArray(new Edge[edges.size()]));
 
         return field;
     }
 
-    private static void setEdge(final Node node, final int dir, final int ox, final int oy, final Field field)
+    private static void setEdge(final Node node, final int dir, final int ox, final int oy, final Field field,
+            final ArrayList<Edge> edges)
     {
         if (dir < 0 || 8 <= dir)
             throw new IllegalArgumentException("Bad direction value.");
@@ -113,7 +117,8 @@ public class FieldFactory
 
         final boolean blocked = node.isBorder() && other.isBorder()
                 && (node.getX() == other.getX() || node.getY() == other.getY());
-        final Edge edge = new Edge(node, other, blocked);
+        final Edge edge = new Edge(field, edges.size(), node, other, dir, blocked);
+        edges.add(edge);
         node.setEdge(edge, dir);
         other.setEdge(edge, (dir + 4) % 8);
     }
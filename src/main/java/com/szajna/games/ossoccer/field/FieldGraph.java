@@ -0,0 +1,202 @@
+package com.szajna.games.ossoccer.field;
+
+import java.util.Arrays;
+
+/**
+ * Immutable layout of the field as flat primitive arrays - the data oriented counterpart of the Node and Edge
+ * objects. Node index is y * width + x, the arrays indexed by node * 8 + direction hold the neighbour node
+ * index and the edge id, NO_NODE / NO_EDGE if there is no edge in the direction.<br>
+ * The state of the edges (visited) is kept by the field, see Field.isEdgeVisited(int).
+ */
+public final class FieldGraph
+{
+    public static final int NO_NODE = -1;
+    public static final int NO_EDGE = -1;
+
+    /** Node flags. */
+    public static final byte NODE_EXISTS = 0x01;
+    public static final byte NODE_BORDER = 0x02;
+    public static final byte NODE_GOAL = 0x04;
+    public static final byte NODE_START = 0x08;
+
+    private final int width;
+    private final int height;
+    private final int start;
+    private final int[] neighbours;
+    private final int[] edgeIds;
+    private final byte[] nodeFlags;
+    /** Bit mask of the directions with a non-border edge, per node. */
+    private final byte[] openDirections;
+    /** true if the edge is blocked from the start of the game (it belongs to the border line), per edge id. */
+    private final boolean[] blockedEdges;
+
+    FieldGraph(final int width, final int height, final Node[] nodes, final Edge[] edges, final Node start)
+    {
+        this.width = width;
+        this.height = height;
+        this.start = getIndex(start);
+        this.neighbours = new int[nodes.length * 8];
+        this.edgeIds = new int[nodes.length * 8];
+        this.nodeFlags = new byte[nodes.length];
+        this.openDirections = new byte[nodes.length];
+        this.blockedEdges = new boolean[edges.length];
+
+        Arrays.fill(neighbours, NO_NODE);
+        Arrays.fill(edgeIds, NO_EDGE);
+
+        for (int n = 0; n < nodes.length; ++n)
+        {
+            final Node node = nodes[n];
+            if (null == node)
+                continue;
+
+            byte flags = NODE_EXISTS;
+            if (node.isBorder())
+                flags |= NODE_BORDER;
+            if (node.isGoal())
+                flags |= NODE_GOAL;
+            if (node == start)
+                flags |= NODE_START;
+            nodeFlags[n] = flags;
+
+            for (int dir = Move.DIRECTION_0; dir <= Move.DIRECTION_7; ++dir)
+            {
+                final Edge edge = node.getEdge(dir);
+                if (null == edge)
+                    continue;
+
+                neighbours[n * 8 + dir] = getIndex(edge.getOpposite(node));
+                edgeIds[n * 8 + dir] = edge.getId();
+                if (!edge.isBorder())
+                    openDirections[n] |= 1 << dir;
+            }
+        }
+
+        for (Edge edge : edges)
+        {
+            blockedEdges[edge.getId()] = edge.isBorder();
+        }
+    }
+
+    private int getIndex(final Node node)
+    {
+        return node.getY() * width + node.getX();
+    }
+
+    public int getWidth()
+    {
+        return width;
+    }
+
+    public int getHeight()
+    {
+        return height;
+    }
+
+    /**
+     * Gets number of the node indexes, including the indexes without a node (corners around the goals).
+     * 
+     * @return nodes count.
+     */
+    public int getNodesCount()
+    {
+        return nodeFlags.length;
+    }
+
+    public int getEdgesCount()
+    {
+        return blockedEdges.length;
+    }
+
+    public int getNodeIndex(final int x, final int y)
+    {
+        return y * width + x;
+    }
+
+    public int getX(final int node)
+    {
+        return node % width;
+    }
+
+    public int getY(final int node)
+    {
+        return node / width;
+    }
+
+    /**
+     * Gets index of the start (center) node.
+     * 
+     * @return node index.
+     */
+    public int getStart()
+    {
+        return start;
+    }
+
+    /**
+     * Gets neighbour of the node in the direction.
+     * 
+     * @param node
+     * @param direction
+     * @return node index or NO_NODE if there is no edge in the direction.
+     */
+    public int getNeighbour(final int node, final int direction)
+    {
+        return neighbours[(node << 3) + direction];
+    }
+
+    /**
+     * Gets id of the edge of the node in the direction.
+     * 
+     * @param node
+     * @param direction
+     * @return edge id or NO_EDGE if there is no edge in the direction.
+     */
+    public int getEdgeId(final int node, final int direction)
+    {
+        return edgeIds[(node << 3) + direction];
+    }
+
+    /**
+     * Gets flags of the node.
+     * 
+     * @param node
+     * @return NODE_* bits, 0 if there is no node at the index.
+     */
+    public int getNodeFlags(final int node)
+    {
+        return nodeFlags[node];
+    }
+
+    public boolean isBorder(final int node)
+    {
+        return 0 != (nodeFlags[node] & NODE_BORDER);
+    }
+
+    public boolean isGoal(final int node)
+    {
+        return 0 != (nodeFlags[node] & NODE_GOAL);
+    }
+
+    /**
+     * Gets directions of the node edges which are not blocked from the start of the game.
+     * 
+     * @param node
+     * @return bit mask, bit n set if there is a non-border edge in direction n.
+     */
+    public int getOpenDirections(final int node)
+    {
+        return openDirections[node] & 0xff;
+    }
+
+    /**
+     * Checks if the edge is blocked from the start of the game, i.e. it belongs to the border line.
+     * 
+     * @param edgeId
+     * @return true if blocked.
+     */
+    public boolean isBlocked(final int edgeId)
+    {
+        return blockedEdges[edgeId];
+    }
+}
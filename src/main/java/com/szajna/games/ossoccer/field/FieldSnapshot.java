@@ -0,0 +1,166 @@
+package com.szajna.games.ossoccer.field;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Immutable snapshot of the field state: visited edges and the current node. Can be read by any number of
+ * threads while the field is being modified.<br>
+ * NOTE: nodes and edges of the snapshot describe the field layout only, their state (visited) has to be read
+ * through the snapshot.<br>
+ * The edge state is kept as 2-bit ownership codes, so a snapshot takes about edges / 4 bytes and can be
+ * persisted with writeTo() / readFrom().
+ */
+public final class FieldSnapshot
+{
+    private final Field field;
+    private final long[] owners;
+    private final Node current;
+
+    FieldSnapshot(final Field field, final long[] owners, final Node current)
+    {
+        this.field = field;
+        this.owners = owners;
+        this.current = current;
+    }
+
+    /**
+     * Writes the snapshot: the field width and height, the current node and the edge ownership codes.
+     * 
+     * @param out
+     * @throws IOException
+     */
+    public void writeTo(final DataOutput out) throws IOException
+    {
+        out.writeShort(getWidth());
+        out.writeShort(getHeight());
+        out.writeShort(current.getX());
+        out.writeShort(current.getY());
+        out.writeInt(owners.length);
+        for (long word : owners)
+        {
+            out.writeLong(word);
+        }
+    }
+
+    /**
+     * Reads the snapshot written by writeTo().
+     * 
+     * @param in
+     * @param field - field of the snapshot size, it provides the layout.
+     * @return snapshot.
+     * @throws IOException if the snapshot is of a field of another size or it is corrupted.
+     */
+    public static FieldSnapshot readFrom(final DataInput in, final Field field) throws IOException
+    {
+        final int width = in.readShort();
+        final int height = in.readShort();
+        final Node current = field.getNode(in.readShort(), in.readShort());
+        final long[] initialOwners = field.getInitialOwners();
+
+        if (width != field.getWidth() || height != field.getHeight() || in.readInt() != initialOwners.length)
+            throw new IOException("Snapshot of a field of another size.");
+        if (null == current)
+            throw new IOException("Invalid current node.");
+
+        final long[] owners = new long[initialOwners.length];
+        for (int i = 0; i < owners.length; ++i)
+        {
+            owners[i] = in.readLong();
+        }
+
+        // the border edges and only them have the border code, the codes past the last edge are not used
+        for (int id = 0; id < owners.length * 32; ++id)
+        {
+            final int owner = Field.getOwner(owners, id);
+            final boolean valid = id < field.getEdgesCount()
+                    ? (Field.OWNER_BORDER == owner) == field.getEdge(id).isBorder()
+                    : Field.OWNER_NONE == owner;
+            if (!valid)
+                throw new IOException("Invalid state of edge " + id + ".");
+        }
+        return new FieldSnapshot(field, owners, current);
+    }
+
+    public int getWidth()
+    {
+        return field.getWidth();
+    }
+
+    public int getHeight()
+    {
+        return field.getHeight();
+    }
+
+    public Node getNode(final int x, final int y)
+    {
+        return field.getNode(x, y);
+    }
+
+    public Node getCurrent()
+    {
+        return current;
+    }
+
+    public boolean isEdgeVisited(final Edge edge)
+    {
+        return PlayerId.None != getEdgeVisitedBy(edge);
+    }
+
+    public boolean isEdgeBlocked(final Edge edge)
+    {
+        return Field.OWNER_NONE != Field.getOwner(owners, edge.getId());
+    }
+
+    public int getEdgeVisitedBy(final Edge edge)
+    {
+        return Field.getEdgeVisitedBy(owners, edge.getId());
+    }
+
+    /**
+     * Checks if the node is visited, i.e. it is the start node or any of its edges has been visited.
+     * 
+     * @param node
+     * @return true if visited, otherwise false.
+     */
+    public boolean isNodeVisited(final Node node)
+    {
+        if (node == field.getStart())
+            return true;
+
+        for (int dir = Move.DIRECTION_0; dir <= Move.DIRECTION_7; ++dir)
+        {
+            final Edge edge = node.getEdge(dir);
+            if (null != edge && !edge.isBorder() && isEdgeVisited(edge))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the movement should not stop at the node.
+     * 
+     * @param node
+     * @return true if marked, otherwise false.
+     */
+    public boolean isNodeMarked(final Node node)
+    {
+        return node.isBorder() || isNodeVisited(node);
+    }
+
+    /**
+     * Gets key of the position, the same as Field.getPositionKey() at the time of the snapshot.
+     * 
+     * @return position key.
+     */
+    public long getPositionKey()
+    {
+        return Field.getPositionKey(owners, current.getY() * field.getWidth() + current.getX());
+    }
+
+    long[] getOwners()
+    {
+        return owners;
+    }
+}
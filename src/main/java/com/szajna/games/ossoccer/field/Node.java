@@ -7,8 +7,10 @@ public final class Node
     private final Edge edges[] = new Edge[8];
     private final boolean border;   // true if the node belongs to the border line.
     private final boolean goal;     // true if this is the goal node
-    private boolean visited;        // true if any from the connected edges has been visited by any player or 
-                                    // this is the start node, false otherwise.
+    private int visitedEdgesCount;  // number of the connected non-border edges visited by any player.
+    private boolean pinned;         // true if this is the start node - always visited.
+    private int openDirections;     // bit mask of the directions with a non-border edge.
+    private int allowedDirections;  // bit mask of the directions with a non-border, not visited edge.
 
     public Node(final int x, final int y, final boolean border, final boolean goal)
     {
@@ -16,15 +18,17 @@ public final class Node
         this.y = y;
         this.border = border;
         this.goal = goal;
-        this.visited = false;
+        this.visitedEdgesCount = 0;
+        this.pinned = false;
     }
 
     /**
-     * Resets Edge to its initial (ready for a game) state.
+     * Resets Node to its initial (ready for a game) state.
      */
     public void reset()
     {
-        visited = false;
+        visitedEdgesCount = 0;
+        allowedDirections = openDirections;
     }
 
     public int getX()
@@ -45,7 +49,7 @@ public final class Node
     // true if movement should not stop at this point
     public boolean isMarked()
     {
-        return border | visited;
+        return border | pinned | (0 != visitedEdgesCount);
     }
 
     public boolean isBorder()
@@ -58,14 +62,50 @@ public final class Node
         return goal;
     }
 
-    public void setVisited(final boolean visited)
+    /**
+     * Checks if the node is visited, i.e. any from the connected edges has been visited by any player or this
+     * is the start node.
+     * 
+     * @return true if visited, otherwise false.
+     */
+    public boolean isVisited()
     {
-        this.visited = visited;
+        return pinned | (0 != visitedEdgesCount);
     }
 
-    public boolean isVisited()
+    void setPinned(final boolean pinned)
     {
-        return visited;
+        this.pinned = pinned;
+    }
+
+    /**
+     * Gets directions of the not blocked edges.
+     * 
+     * @return bit mask, bit n set if the move in direction n is allowed.
+     */
+    public int getAllowedDirections()
+    {
+        return allowedDirections;
+    }
+
+    /**
+     * Updates the number of the visited edges and the allowed directions on a connected edge state change.
+     * 
+     * @param visited   - true if the edge became visited, false if it is no longer visited.
+     * @param direction - direction of the edge from this node.
+     */
+    void onEdgeVisitedChanged(final boolean visited, final int direction)
+    {
+        if (visited)
+        {
+            visitedEdgesCount++;
+            allowedDirections &= ~(1 << direction);
+        }
+        else
+        {
+            visitedEdgesCount--;
+            allowedDirections |= 1 << direction;
+        }
     }
 
     public Node getNode(final int dir)
@@ -83,5 +123,12 @@ public final class Node
             throw new RuntimeException("New edge assigned to an already occupied direction.");
 
         edges[dir] = edge;
+
+        // NOTE: edges are assigned on the field creation, they are not visited
+        if (!edge.isBorder())
+        {
+            openDirections |= 1 << dir;
+            allowedDirections |= 1 << dir;
+        }
     }
 }
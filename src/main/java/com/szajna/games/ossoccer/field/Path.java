@@ -1,7 +1,13 @@
 package com.szajna.games.ossoccer.field;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
 
+/**
+ * Path - sequence of moves and round separators. Stored as a growable array of byte codes (see PathElement), so
+ * adding, applying and copying paths does not allocate per move.
+ */
 public final class Path
 {
     /**
@@ -22,6 +28,29 @@ public final class Path
             return PATH_ELEMENTS[playerId - PlayerId.Player1][moveDirection];
         }
 
+        /**
+         * Gets path element of the code.
+         * 
+         * @param code - see getCode().
+         * @return path element.
+         */
+        static PathElement valueOfCode(final byte code)
+        {
+            if (SEPARATOR == (SEPARATOR & code))
+                return PATH_SEPARATOR;
+            return PATH_ELEMENTS[(code & PLAYER_MASK) >>> 3][code & Move.DIRECTION_MASK];
+        }
+
+        /**
+         * Gets code of the path element: move direction at bits 0-2, player at bit 3, separator at bit 4.
+         * 
+         * @return code.
+         */
+        byte getCode()
+        {
+            return data;
+        }
+
         public boolean isSeparator()
         {
             return SEPARATOR == (SEPARATOR & data);
@@ -81,64 +110,204 @@ public final class Path
         }
     };
 
-    private final ArrayList<PathElement> moves;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private byte[] codes;
+    private int size;
+    private List<PathElement> movesView;
 
     public Path()
     {
-        moves = new ArrayList<PathElement>();
+        codes = new byte[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    /**
+     * Creates a copy of the path.
+     * 
+     * @param path
+     */
+    public Path(final Path path)
+    {
+        codes = Arrays.copyOf(path.codes, Math.max(INITIAL_CAPACITY, path.size));
+        size = path.size;
     }
 
     public void clear()
     {
-        moves.clear();
+        size = 0;
+    }
+
+    /**
+     * Removes the path elements beyond the size.
+     * 
+     * @param size - new size, not greater than the current one.
+     */
+    void truncate(final int size)
+    {
+        if (size < 0 || size > this.size)
+            throw new IndexOutOfBoundsException("Size " + size + " is out of bounds: [0, " + this.size + "]");
+        this.size = size;
+    }
+
+    /**
+     * Gets number of the path elements (moves and separators).
+     * 
+     * @return size.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Gets path element at index.
+     * 
+     * @param index
+     * @return path element.
+     */
+    public PathElement get(final int index)
+    {
+        checkIndex(index);
+        return PathElement.valueOfCode(codes[index]);
     }
 
     public void addMove(PathElement move)
     {
-        moves.add(move);
+        ensureCapacity(size + 1);
+        codes[size++] = move.getCode();
     }
 
     public void addPath(final Path path)
     {
-        for (PathElement move : path.moves)
+        ensureCapacity(size + path.size);
+        System.arraycopy(path.codes, 0, codes, size, path.size);
+        size += path.size;
+    }
+
+    /**
+     * Reverses order of the path elements.
+     */
+    public void reverse()
+    {
+        for (int i = 0, j = size - 1; i < j; ++i, --j)
         {
-            moves.add(move);
+            byte tmp = codes[i];
+            codes[i] = codes[j];
+            codes[j] = tmp;
         }
     }
 
-    public ArrayList<PathElement> getMoves()
+    /**
+     * Gets path elements.
+     * 
+     * @return modifiable list view of the path elements.
+     */
+    public List<PathElement> getMoves()
     {
-        return moves;
+        if (movesView == null)
+            movesView = new MovesView();
+        return movesView;
     }
 
     public static Path getDiff(final Path p1, final Path p2)
     {
-        final int mc1 = p1.moves.size();
-        final int mc2 = p2.moves.size();
+        final int mc1 = p1.size;
+        final int mc2 = p2.size;
         final int mds = mc1 < mc2 ? mc1 : mc2;
         final int mdc = mc1 < mc2 ? mc2 - mds : mc1 - mds;
-        final ArrayList<PathElement> md = mc1 < mc2 ? p2.moves : p1.moves;
+        final Path md = mc1 < mc2 ? p2 : p1;
 
         final Path diffPath = new Path();
-        final ArrayList<PathElement> diffMoves = diffPath.getMoves();
+        diffPath.ensureCapacity(mdc);
+        System.arraycopy(md.codes, mds, diffPath.codes, 0, mdc);
+        diffPath.size = mdc;
 
-        for (int i = 0; i < mdc; ++i)
+        return diffPath;
+    }
+
+    private void ensureCapacity(final int capacity)
+    {
+        if (capacity > codes.length)
         {
-            diffMoves.add(md.get(mds + i));
+            codes = Arrays.copyOf(codes, Math.max(capacity, codes.length * 2));
         }
+    }
 
-        return diffPath;
+    private void checkIndex(final int index)
+    {
+        if (index < 0 || index >= size)
+        {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds: [0, " + (size - 1) + "]");
+        }
+    }
+
+    /**
+     * List view of the path elements.
+     */
+    private final class MovesView extends AbstractList<PathElement>
+    {
+        @Override
+        public PathElement get(final int index)
+        {
+            return Path.this.get(index);
+        }
+
+        @Override
+        public int size()
+        {
+            return size;
+        }
+
+        @Override
+        public PathElement set(final int index, final PathElement element)
+        {
+            final PathElement previous = Path.this.get(index);
+            codes[index] = element.getCode();
+            return previous;
+        }
+
+        @Override
+        public void add(final int index, final PathElement element)
+        {
+            if (index < 0 || index > size)
+                throw new IndexOutOfBoundsException("Index " + index + " is out of bounds: [0, " + size + "]");
+
+            ensureCapacity(size + 1);
+            System.arraycopy(codes, index, codes, index + 1, size - index);
+            codes[index] = element.getCode();
+            size++;
+            modCount++;
+        }
+
+        @Override
+        public PathElement remove(final int index)
+        {
+            final PathElement previous = Path.this.get(index);
+            System.arraycopy(codes, index + 1, codes, index, size - index - 1);
+            size--;
+            modCount++;
+            return previous;
+        }
+
+        @Override
+        public void clear()
+        {
+            Path.this.clear();
+            modCount++;
+        }
     }
 
     @Override
     public String toString()
     {
         StringBuilder sb = new StringBuilder();
-        sb.append(moves.size());
+        sb.append(size);
         sb.append(" move(s): ");
 
-        for (PathElement e : moves)
+        for (int i = 0; i < size; ++i)
         {
+            final PathElement e = get(i);
             sb.append("[");
             if (e.isSeparator())
             {
@@ -0,0 +1,263 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2019 Marek Szajna
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.szajna.games.ossoccer.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.szajna.games.ossoccer.EngineException;
+import com.szajna.games.ossoccer.SoccerMatch;
+import com.szajna.games.ossoccer.field.Path;
+import com.szajna.util.Log;
+
+/**
+ * Connection of a client, served by its own thread. The client can play any number of games at the same time,
+ * the games are closed with the connection.
+ */
+class ClientConnection implements Runnable
+{
+    private static final String LOG_TAG = ClientConnection.class.getSimpleName();
+    private static final String CHARSET = "US-ASCII";
+
+    private final SoccerServer server;
+    private final Socket socket;
+    private final Map<Integer, ServerGame> games = new HashMap<Integer, ServerGame>();
+    private PrintWriter out;
+    private int lastGameId;
+
+    ClientConnection(final SoccerServer server, final Socket socket)
+    {
+        this.server = server;
+        this.socket = socket;
+    }
+
+    @Override
+    public void run()
+    {
+        server.onConnectionOpened();
+        try
+        {
+            final BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), CHARSET));
+            out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), CHARSET));
+
+            String line;
+            while (null != (line = in.readLine()))
+            {
+                final String[] tokens = line.trim().split("\\s+");
+                if (tokens[0].length() == 0)
+                    continue;
+                if ("quit".equals(tokens[0]))
+                    break;
+
+                try
+                {
+                    execute(tokens);
+                }
+                catch (IllegalArgumentException e)
+                {
+                    out.println("error " + e.getMessage());
+                }
+                catch (IllegalStateException e)
+                {
+                    out.println("error " + e.getMessage());
+                }
+                out.flush();
+            }
+        }
+        catch (IOException e)
+        {
+            Log.d(LOG_TAG, "Connection closed: " + e.getMessage());
+        }
+        catch (InterruptedException e)
+        {
+            Log.d(LOG_TAG, "Connection interrupted.");
+        }
+        finally
+        {
+            server.onGamesClosed(games.size());
+            games.clear();
+            close();
+            server.onConnectionClosed();
+        }
+    }
+
+    private void execute(final String[] tokens) throws InterruptedException
+    {
+        final String command = tokens[0];
+
+        if ("new".equals(command))
+        {
+            newGame(tokens);
+        }
+        else if ("play".equals(command))
+        {
+            expectTokens(tokens, 3);
+            final ServerGame game = getGame(tokens[1]);
+            game.getMatch().playTurn(tokens[2]);
+            server.onTurnPlayed();
+            if (!reportGameOver(game))
+                playEngineTurn(game);
+        }
+        else if ("go".equals(command))
+        {
+            expectTokens(tokens, 2);
+            final ServerGame game = getGame(tokens[1]);
+            if (!reportGameOver(game))
+                playEngineTurn(game);
+        }
+        else if ("end".equals(command))
+        {
+            expectTokens(tokens, 2);
+            games.remove(getGame(tokens[1]).getId());
+            server.onGamesClosed(1);
+        }
+        else if ("stats".equals(command))
+        {
+            out.println(server.getStats());
+        }
+        else
+        {
+            throw new IllegalArgumentException("Unknown command: " + command);
+        }
+    }
+
+    private void newGame(final String[] tokens)
+    {
+        int width = SoccerServer.DEFAULT_WIDTH;
+        int height = SoccerServer.DEFAULT_HEIGHT;
+        int level = SoccerServer.DEFAULT_LEVEL;
+        int maxElements = server.getDefaultMaxElements();
+        long maxTimeMillis = server.getDefaultMaxTimeMillis();
+
+        int i = 1;
+        while (i < tokens.length)
+        {
+            final String name = tokens[i++];
+            expectTokens(tokens, i + 1);
+
+            if ("size".equals(name))
+            {
+                expectTokens(tokens, i + 2);
+                width = parseInt(tokens[i++]);
+                height = parseInt(tokens[i++]);
+            }
+            else if ("level".equals(name))
+                level = Math.max(0, Math.min(2, parseInt(tokens[i++])));
+            else if ("nodes".equals(name))
+                maxElements = Math.min(maxElements, parseInt(tokens[i++]));
+            else if ("movetime".equals(name))
+                maxTimeMillis = Math.min(maxTimeMillis, parseInt(tokens[i++]));
+            else
+                throw new IllegalArgumentException("Unknown game parameter: " + name);
+        }
+
+        if (width < SoccerMatch.MIN_SIZE || height < SoccerMatch.MIN_SIZE || width > SoccerServer.MAX_SIZE
+                || height > SoccerServer.MAX_SIZE)
+            throw new IllegalArgumentException("Invalid field size: " + width + "x" + height);
+
+        final ServerGame game = new ServerGame(++lastGameId, width, height, level, maxElements, maxTimeMillis);
+        games.put(game.getId(), game);
+        server.onGameOpened();
+        out.println("game " + game.getId());
+    }
+
+    /**
+     * Plays turn of the engine. Replies "busy" if the search pool is full - the client can retry with "go".
+     */
+    private void playEngineTurn(final ServerGame game) throws InterruptedException
+    {
+        final Path turn;
+        try
+        {
+            turn = server.getSearchPool().analyse(game.getEngine());
+        }
+        catch (EngineException e)
+        {
+            out.println("busy " + game.getId() + " " + e.getMessage());
+            return;
+        }
+        if (null == turn || 0 == turn.size())
+            throw new IllegalStateException("No move found in game " + game.getId());
+
+        game.getMatch().playTurn(turn);
+        server.onTurnPlayed();
+        out.println("move " + game.getId() + " " + SoccerMatch.toString(turn));
+        reportGameOver(game);
+    }
+
+    private boolean reportGameOver(final ServerGame game)
+    {
+        if (!game.getMatch().isGameOver())
+            return false;
+
+        out.println("over " + game.getId() + " " + game.getMatch().getWinner());
+        return true;
+    }
+
+    private ServerGame getGame(final String id)
+    {
+        final ServerGame game = games.get(parseInt(id));
+        if (null == game)
+            throw new IllegalArgumentException("Unknown game: " + id);
+        return game;
+    }
+
+    private void close()
+    {
+        try
+        {
+            socket.close();
+        }
+        catch (IOException e)
+        {
+            Log.d(LOG_TAG, "Socket close failed: " + e.getMessage());
+        }
+    }
+
+    private static void expectTokens(final String[] tokens, final int count)
+    {
+        if (tokens.length < count)
+            throw new IllegalArgumentException("Missing parameters of " + tokens[0]);
+    }
+
+    static int parseInt(final String value)
+    {
+        try
+        {
+            return Integer.parseInt(value);
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IllegalArgumentException("Invalid number: " + value);
+        }
+    }
+}
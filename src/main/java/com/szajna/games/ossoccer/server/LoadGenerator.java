@@ -0,0 +1,264 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2019 Marek Szajna
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.szajna.games.ossoccer.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.Random;
+
+import com.szajna.games.ossoccer.SoccerMatch;
+import com.szajna.games.ossoccer.tools.RandomPositions;
+import com.szajna.util.Log;
+
+/**
+ * Load generator - clients playing random turns against the engines of a SoccerServer. Every client has its
+ * own connection and thread, and plays its games one after another. Reports games per second and the engine
+ * move latency (from sending the client turn to receiving the engine turn).
+ * 
+ * <pre>
+ * usage: LoadGenerator [host] [port] [clients] [games per client] [level] [nodes]
+ * </pre>
+ */
+public class LoadGenerator
+{
+    private final String host;
+    private final int port;
+    private final String gameParameters;
+
+    public LoadGenerator(final String host, final int port, final int level, final int maxElements)
+    {
+        this.host = host;
+        this.port = port;
+        this.gameParameters = "level " + level + " nodes " + maxElements;
+    }
+
+    /**
+     * Client playing its games in its own thread.
+     */
+    private class Client extends Thread
+    {
+        private final int gamesCount;
+        private final Random random;
+        private long[] latencies = new long[1024];
+        private int latenciesCount;
+        private int gamesPlayed;
+        private Exception error;
+
+        Client(final int index, final int gamesCount)
+        {
+            super("client-" + index);
+            this.gamesCount = gamesCount;
+            this.random = new Random(index);
+        }
+
+        @Override
+        public void run()
+        {
+            Socket socket = null;
+            try
+            {
+                socket = new Socket(host, port);
+                socket.setTcpNoDelay(true);
+                final BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                        "US-ASCII"));
+                final PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(),
+                        "US-ASCII"));
+
+                for (int i = 0; i < gamesCount; ++i)
+                {
+                    playGame(in, out);
+                    gamesPlayed++;
+                }
+                out.println("quit");
+                out.flush();
+            }
+            catch (Exception e)
+            {
+                error = e;
+            }
+            finally
+            {
+                if (null != socket)
+                {
+                    try
+                    {
+                        socket.close();
+                    }
+                    catch (IOException e)
+                    {
+                    }
+                }
+            }
+        }
+
+        private void playGame(final BufferedReader in, final PrintWriter out) throws IOException,
+                InterruptedException
+        {
+            send(out, "new " + gameParameters);
+            final String[] reply = receive(in, "game");
+            final String id = reply[1];
+            final SoccerMatch match = new SoccerMatch(SoccerServer.DEFAULT_WIDTH, SoccerServer.DEFAULT_HEIGHT);
+
+            while (!match.isGameOver())
+            {
+                final String turn = RandomPositions.getRandomTurn(match.getField(), random);
+                match.playTurn(turn);
+                if (match.isGameOver())
+                {
+                    send(out, "play " + id + " " + turn);
+                    receive(in, "over");
+                    break;
+                }
+
+                final long start = System.nanoTime();
+                String command = "play " + id + " " + turn;
+                String[] move;
+                while (true)
+                {
+                    send(out, command);
+                    move = receive(in, null);
+                    if (!"busy".equals(move[0]))
+                        break;
+                    // search pool is full - retry
+                    Thread.sleep(1);
+                    command = "go " + id;
+                }
+                if (!"move".equals(move[0]))
+                    throw new IOException("Unexpected reply: " + Arrays.toString(move));
+                addLatency(System.nanoTime() - start);
+
+                match.playTurn(move[2]);
+                if (match.isGameOver())
+                    receive(in, "over");
+            }
+            send(out, "end " + id);
+        }
+
+        private void addLatency(final long nanos)
+        {
+            if (latenciesCount == latencies.length)
+                latencies = Arrays.copyOf(latencies, latencies.length * 2);
+            latencies[latenciesCount++] = nanos;
+        }
+    }
+
+    private static void send(final PrintWriter out, final String line)
+    {
+        out.println(line);
+        out.flush();
+    }
+
+    private static String[] receive(final BufferedReader in, final String expected) throws IOException
+    {
+        final String line = in.readLine();
+        if (null == line)
+            throw new IOException("Connection closed.");
+
+        final String[] tokens = line.split(" ");
+        if (null != expected && !expected.equals(tokens[0]))
+            throw new IOException("Unexpected reply: " + line);
+        return tokens;
+    }
+
+    /**
+     * Runs the clients and prints the report.
+     * 
+     * @param clientsCount
+     * @param gamesPerClient
+     * @throws InterruptedException
+     */
+    public void run(final int clientsCount, final int gamesPerClient) throws InterruptedException
+    {
+        final Client[] clients = new Client[clientsCount];
+        final long start = System.nanoTime();
+
+        for (int i = 0; i < clientsCount; ++i)
+        {
+            clients[i] = new Client(i, gamesPerClient);
+            clients[i].start();
+        }
+
+        int gamesPlayed = 0;
+        int latenciesCount = 0;
+        int errorsCount = 0;
+        for (Client client : clients)
+        {
+            client.join();
+            gamesPlayed += client.gamesPlayed;
+            latenciesCount += client.latenciesCount;
+            if (null != client.error)
+            {
+                errorsCount++;
+                Log.e(client.getName(), "Failed: " + client.error);
+            }
+        }
+        final long nanos = Math.max(1, System.nanoTime() - start);
+
+        final long[] latencies = new long[latenciesCount];
+        int offset = 0;
+        for (Client client : clients)
+        {
+            System.arraycopy(client.latencies, 0, latencies, offset, client.latenciesCount);
+            offset += client.latenciesCount;
+        }
+        Arrays.sort(latencies);
+
+        System.out.println(String.format("clients: %d, games: %d, errors: %d, time: %d ms", clientsCount,
+                gamesPlayed, errorsCount, nanos / 1000000));
+        System.out.println(String.format("games/s: %.1f, engine moves/s: %.1f", gamesPlayed * 1e9 / nanos,
+                latenciesCount * 1e9 / nanos));
+        System.out.println(String.format("move latency [ms] p50: %.2f, p99: %.2f, max: %.2f",
+                getPercentile(latencies, 50) / 1e6, getPercentile(latencies, 99) / 1e6,
+                getPercentile(latencies, 100) / 1e6));
+    }
+
+    private static long getPercentile(final long[] sorted, final int percent)
+    {
+        if (0 == sorted.length)
+            return 0;
+        final int index = (int) Math.ceil(sorted.length * percent / 100.0) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    public static void main(String args[]) throws InterruptedException
+    {
+        Log.setLogLevel(Log.LOG_LEVEL_ERROR);
+
+        final String host = args.length > 0 ? args[0] : "localhost";
+        final int port = args.length > 1 ? Integer.parseInt(args[1]) : SoccerServer.DEFAULT_PORT;
+        final int clientsCount = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        final int gamesPerClient = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        final int level = args.length > 4 ? Integer.parseInt(args[4]) : 1;
+        final int maxElements = args.length > 5 ? Integer.parseInt(args[5]) : 20000;
+
+        new LoadGenerator(host, port, level, maxElements).run(clientsCount, gamesPerClient);
+    }
+}
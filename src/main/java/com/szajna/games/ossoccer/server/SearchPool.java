@@ -0,0 +1,138 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2019 Marek Szajna
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.szajna.games.ossoccer.server;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.szajna.games.ossoccer.EngineException;
+import com.szajna.games.ossoccer.SoccerEngine;
+import com.szajna.games.ossoccer.field.Path;
+
+/**
+ * Search pool shared by all the games of the server. The analyses are CPU bound, so they are done by a fixed
+ * number of threads (one per core by default) with a bounded queue - the analyses over the queue capacity are
+ * rejected instead of slowing down all the games.
+ */
+public class SearchPool
+{
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Creates search pool.
+     * 
+     * @param threadsCount  - number of the search threads.
+     * @param queueCapacity - max. number of the analyses waiting for a thread.
+     */
+    public SearchPool(final int threadsCount, final int queueCapacity)
+    {
+        executor = new ThreadPoolExecutor(threadsCount, threadsCount, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(queueCapacity), new ThreadFactory() {
+                    private final AtomicInteger threadsCreated = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable r)
+                    {
+                        Thread thread = new Thread(r, "search-" + threadsCreated.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+    }
+
+    /**
+     * Does the analysis of the engine in the pool and waits for its result.
+     * 
+     * @param engine - engine set up for the analysis; it must not be used by other threads until done.
+     * @return the best path.
+     * @throws EngineException      if the pool is full or the analysis failed.
+     * @throws InterruptedException
+     */
+    public Path analyse(final SoccerEngine engine) throws EngineException, InterruptedException
+    {
+        final Future<Path> result;
+        try
+        {
+            result = executor.submit(new Callable<Path>() {
+                @Override
+                public Path call()
+                {
+                    return engine.analyse();
+                }
+            });
+        }
+        catch (RejectedExecutionException e)
+        {
+            throw new EngineException("Search pool is full.");
+        }
+
+        try
+        {
+            return result.get();
+        }
+        catch (InterruptedException e)
+        {
+            // nobody waits for the result any more - the stop is needed only by a running analysis,
+            // the engine ignores it before the analysis and after it
+            if (!result.cancel(false))
+            {
+                engine.stopAnalysis();
+            }
+            throw e;
+        }
+        catch (ExecutionException e)
+        {
+            throw new EngineException("Analysis failed: " + e.getCause());
+        }
+    }
+
+    /**
+     * Gets number of the analyses waiting for a thread.
+     * 
+     * @return queue size.
+     */
+    public int getQueuedCount()
+    {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount()
+    {
+        return executor.getActiveCount();
+    }
+
+    public void shutdown()
+    {
+        executor.shutdownNow();
+    }
+}
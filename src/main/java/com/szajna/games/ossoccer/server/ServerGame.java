@@ -0,0 +1,71 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2019 Marek Szajna
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.szajna.games.ossoccer.server;
+
+import com.szajna.games.ossoccer.SoccerEngine;
+import com.szajna.games.ossoccer.SoccerMatch;
+import com.szajna.games.ossoccer.field.PlayerId;
+
+/**
+ * Game hosted by the server: the match and the engine playing it. The game is used by its connection thread
+ * only, the engine analysis is done in the search pool while the connection thread waits.
+ */
+class ServerGame
+{
+    private final int id;
+    private final SoccerMatch match;
+    private final SoccerEngine engine;
+
+    ServerGame(final int id, final int width, final int height, final int level, final int maxElements,
+            final long maxTimeMillis)
+    {
+        this.id = id;
+        this.match = new SoccerMatch(width, height);
+        this.engine = new SoccerEngine(match.getField(), level, PlayerId.Player2);
+        this.engine.setSearchLimits(maxElements, maxTimeMillis);
+    }
+
+    int getId()
+    {
+        return id;
+    }
+
+    SoccerMatch getMatch()
+    {
+        return match;
+    }
+
+    /**
+     * Gets engine set up to play for the player to move.
+     * 
+     * @return engine.
+     */
+    SoccerEngine getEngine()
+    {
+        engine.setPlayerId(match.getPlayerToMove());
+        return engine;
+    }
+}
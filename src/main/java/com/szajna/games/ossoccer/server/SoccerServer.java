@@ -0,0 +1,256 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2019 Marek Szajna
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.szajna.games.ossoccer.server;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.szajna.games.ossoccer.AnalysisMemoryBudget;
+import com.szajna.util.Log;
+
+/**
+ * Server hosting independent games over a line based TCP protocol. Each connection is served by its own
+ * thread, which mostly waits for the client or for the search pool; the analyses of all the games are done by
+ * the shared, bounded {@link SearchPool}.<br>
+ * A turn is written as the digits of its move directions, see SoccerMatch. The client plays Player1 by
+ * default - it starts the game with "play", or lets the engine start with "go".
+ * 
+ * <pre>
+ * new [size w h] [level 0-2] [nodes n] [movetime ms]   replies: game id
+ * play id turn                                         replies: [over id winner] | move id turn [over id winner]
+ * go id                                                replies: move id turn [over id winner]
+ * end id
+ * stats                                                replies: stats ...
+ * quit
+ * </pre>
+ * 
+ * "busy id ..." is replied instead of the engine move if the search pool is full, the client can retry with
+ * "go id". Errors are replied as "error ..." lines.
+ * 
+ * <pre>
+ * usage: SoccerServer [port] [search threads] [search queue capacity] [bind address]
+ * </pre>
+ */
+public class SoccerServer
+{
+    private static final String LOG_TAG = SoccerServer.class.getSimpleName();
+
+    public static final int DEFAULT_PORT = 7878;
+    static final int DEFAULT_WIDTH = 9;
+    static final int DEFAULT_HEIGHT = 13;
+    static final int DEFAULT_LEVEL = 1;
+    static final int MAX_SIZE = 101;
+
+    private final SearchPool searchPool;
+    private final ExecutorService connectionExecutor;
+    private final ServerSocket serverSocket;
+    private int defaultMaxElements = Integer.MAX_VALUE;
+    private long defaultMaxTimeMillis = Long.MAX_VALUE;
+
+    private final AtomicInteger connectionsCount = new AtomicInteger();
+    private final AtomicInteger gamesCount = new AtomicInteger();
+    private final AtomicLong gamesOpenedCount = new AtomicLong();
+    private final AtomicLong turnsCount = new AtomicLong();
+
+    /**
+     * Creates server listening on the port.
+     * 
+     * @param port               - port, 0 for any free port.
+     * @param bindAddress        - address to listen at, null for the loopback address.
+     * @param searchThreadsCount
+     * @param searchQueueCapacity
+     * @throws IOException
+     */
+    public SoccerServer(final int port, final InetAddress bindAddress, final int searchThreadsCount,
+            final int searchQueueCapacity) throws IOException
+    {
+        this.searchPool = new SearchPool(searchThreadsCount, searchQueueCapacity);
+        this.connectionExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+            private final AtomicInteger threadsCreated = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r)
+            {
+                Thread thread = new Thread(r, "connection-" + threadsCreated.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.serverSocket = new ServerSocket(port, 256,
+                null != bindAddress ? bindAddress : InetAddress.getByName(null));
+    }
+
+    public int getPort()
+    {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Sets search limits of the games, the clients can only lower them.
+     * 
+     * @param maxElements   - max. number of the analysis tree elements, Integer.MAX_VALUE for no limit.
+     * @param maxTimeMillis - max. analysis time, Long.MAX_VALUE for no limit.
+     */
+    public void setSearchLimits(final int maxElements, final long maxTimeMillis)
+    {
+        this.defaultMaxElements = maxElements;
+        this.defaultMaxTimeMillis = maxTimeMillis;
+    }
+
+    int getDefaultMaxElements()
+    {
+        return defaultMaxElements;
+    }
+
+    long getDefaultMaxTimeMillis()
+    {
+        return defaultMaxTimeMillis;
+    }
+
+    SearchPool getSearchPool()
+    {
+        return searchPool;
+    }
+
+    /**
+     * Accepts the connections until the server is closed.
+     */
+    public void serve()
+    {
+        while (!serverSocket.isClosed())
+        {
+            try
+            {
+                final Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connectionExecutor.execute(new ClientConnection(this, socket));
+            }
+            catch (SocketException e)
+            {
+                // closed
+            }
+            catch (IOException e)
+            {
+                Log.w(LOG_TAG, "Accept failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Starts accepting the connections in a background thread.
+     */
+    public void start()
+    {
+        final Thread acceptor = new Thread(new Runnable() {
+            @Override
+            public void run()
+            {
+                serve();
+            }
+        }, "acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public void close()
+    {
+        try
+        {
+            serverSocket.close();
+        }
+        catch (IOException e)
+        {
+            Log.w(LOG_TAG, "Close failed: " + e.getMessage());
+        }
+        connectionExecutor.shutdownNow();
+        searchPool.shutdown();
+    }
+
+    void onConnectionOpened()
+    {
+        connectionsCount.incrementAndGet();
+    }
+
+    void onConnectionClosed()
+    {
+        connectionsCount.decrementAndGet();
+    }
+
+    void onGameOpened()
+    {
+        gamesCount.incrementAndGet();
+        gamesOpenedCount.incrementAndGet();
+    }
+
+    void onGamesClosed(final int count)
+    {
+        gamesCount.addAndGet(-count);
+    }
+
+    void onTurnPlayed()
+    {
+        turnsCount.incrementAndGet();
+    }
+
+    /**
+     * Gets the server statistics line.
+     * 
+     * @return stats line.
+     */
+    String getStats()
+    {
+        return "stats connections " + connectionsCount.get() + " games " + gamesCount.get() + " opened "
+                + gamesOpenedCount.get() + " turns " + turnsCount.get() + " searching "
+                + searchPool.getActiveCount() + " queued " + searchPool.getQueuedCount();
+    }
+
+    public static void main(String args[]) throws IOException
+    {
+        Log.setPrintStream(System.err);
+        Log.setLogLevel(Log.LOG_LEVEL_WARN);
+
+        final int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        final int threadsCount = args.length > 1 ? Integer.parseInt(args[1])
+                : Runtime.getRuntime().availableProcessors();
+        final int queueCapacity = args.length > 2 ? Integer.parseInt(args[2]) : 4096;
+        final InetAddress bindAddress = args.length > 3 ? InetAddress.getByName(args[3]) : null;
+
+        // many analyses share the heap - they get less memory rather than running out of it
+        AnalysisMemoryBudget.getInstance().setAdaptive(true);
+
+        final SoccerServer server = new SoccerServer(port, bindAddress, threadsCount, queueCapacity);
+        System.out.println("Listening on port " + server.getPort() + ", search threads: " + threadsCount);
+        server.serve();
+    }
+}
@@ -0,0 +1,257 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2019 Marek Szajna
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.szajna.games.ossoccer.tools;
+
+import java.util.Random;
+
+import com.szajna.games.ossoccer.SoccerRules;
+import com.szajna.games.ossoccer.field.Edge;
+import com.szajna.games.ossoccer.field.Field;
+import com.szajna.games.ossoccer.field.FieldGraph;
+import com.szajna.games.ossoccer.field.Move;
+import com.szajna.games.ossoccer.field.Node;
+import com.szajna.games.ossoccer.field.PlayerId;
+import com.szajna.util.Log;
+
+/**
+ * Perft - counts all legal complete turns (bounce chains until a not marked node, a goal or a block) to the
+ * given depth. The turns ending the game (goal, block) are counted as leaves.<br>
+ * Used to benchmark the move generation and to prove the faster move generators and board representations
+ * are equivalent to the rules of SoccerRules, Node and Edge.
+ * 
+ * <pre>
+ * usage: Perft [depth] [seed] [width height]
+ * </pre>
+ */
+public class Perft
+{
+    /**
+     * Move generator.
+     */
+    public enum Generator
+    {
+        /** allowed directions bit mask of the node */
+        MASK,
+        /**
+         * probing the node edges with the rules of the baseline SoccerRules (Edge.isBlocked,
+         * SoccerRules.hasToRebounce), reference for the direction masks and the field graph
+         */
+        EDGE_PROBE,
+        /** primitive arrays of the field graph and the field edge state */
+        GRAPH,
+    };
+
+    private final Field field;
+    private final FieldGraph graph;
+    private final Generator generator;
+    private long movesCount;
+
+    public Perft(final Field field, final Generator generator)
+    {
+        this.field = field;
+        this.graph = field.getGraph();
+        this.generator = generator;
+    }
+
+    /**
+     * Gets number of the single moves (edges) made by the last count.
+     * 
+     * @return moves count.
+     */
+    public long getMovesCount()
+    {
+        return movesCount;
+    }
+
+    /**
+     * Counts turns to the depth at the current position. The field is left in the initial state.
+     * 
+     * @param depth    - number of turns.
+     * @param playerId - player to move.
+     * @return number of the leaf turns.
+     */
+    public long count(final int depth, final int playerId)
+    {
+        movesCount = 0;
+        if (depth <= 0)
+            return 1;
+        return countTurns(depth, playerId);
+    }
+
+    /**
+     * Counts the leaves of all the turns of the player starting at the current node.
+     */
+    private long countTurns(final int depth, final int playerId)
+    {
+        long leaves = 0;
+
+        if (generator == Generator.MASK)
+        {
+            final Node current = field.getCurrent();
+            for (byte dir : SoccerRules.getDirections(SoccerRules.getAllowedDirections(current)))
+            {
+                leaves += countMove(dir, depth, playerId);
+            }
+        }
+        else if (generator == Generator.EDGE_PROBE)
+        {
+            final Node current = field.getCurrent();
+            for (int dir = Move.DIRECTION_0; dir <= Move.DIRECTION_7; ++dir)
+            {
+                final Edge edge = current.getEdge(dir);
+                if (edge != null && !edge.isBlocked())
+                    leaves += countMove(dir, depth, playerId);
+            }
+        }
+        else
+        {
+            final int current = field.getCurrentIndex();
+            for (int dir = Move.DIRECTION_0; dir <= Move.DIRECTION_7; ++dir)
+            {
+                if (isEdgeOpen(graph.getEdgeId(current, dir)))
+                    leaves += countMove(dir, depth, playerId);
+            }
+        }
+        return leaves;
+    }
+
+    private long countMove(final int dir, final int depth, final int playerId)
+    {
+        final boolean hasToRebounce;
+        final boolean gameOver;
+
+        if (generator == Generator.GRAPH)
+        {
+            final int next = graph.getNeighbour(field.getCurrentIndex(), dir);
+            hasToRebounce = isMarked(next);
+            field.makeMove(dir, playerId);
+            gameOver = graph.isGoal(next) || !isAnyMoveAllowed(next);
+        }
+        else if (generator == Generator.EDGE_PROBE)
+        {
+            final Node next = field.getCurrent().getNode(dir);
+            hasToRebounce = SoccerRules.hasToRebounce(field.getCurrent(), dir);
+            field.makeMove(dir, playerId);
+            gameOver = next.isGoal() || !isAnyEdgeOpen(next);
+        }
+        else
+        {
+            final Node next = field.getCurrent().getNode(dir);
+            hasToRebounce = next.isMarked();
+            field.makeMove(dir, playerId);
+            gameOver = next.isGoal() || !SoccerRules.isAnyMoveAllowed(next);
+        }
+        movesCount++;
+
+        long leaves;
+        if (gameOver)
+        {
+            // goal or block - game over
+            leaves = 1;
+        }
+        else if (hasToRebounce)
+        {
+            leaves = countTurns(depth, playerId);
+        }
+        else if (depth == 1)
+        {
+            leaves = 1;
+        }
+        else
+        {
+            leaves = countTurns(depth - 1, playerId == PlayerId.Player1 ? PlayerId.Player2 : PlayerId.Player1);
+        }
+
+        field.undoMove();
+        return leaves;
+    }
+
+    private static boolean isAnyEdgeOpen(final Node node)
+    {
+        for (int dir = Move.DIRECTION_0; dir <= Move.DIRECTION_7; ++dir)
+        {
+            final Edge edge = node.getEdge(dir);
+            if (edge != null && !edge.isBlocked())
+                return true;
+        }
+        return false;
+    }
+
+    private boolean isEdgeOpen(final int edgeId)
+    {
+        return FieldGraph.NO_EDGE != edgeId && !graph.isBlocked(edgeId) && !field.isEdgeVisited(edgeId);
+    }
+
+    private boolean isMarked(final int node)
+    {
+        if (0 != (graph.getNodeFlags(node) & (FieldGraph.NODE_BORDER | FieldGraph.NODE_START)))
+            return true;
+        for (int dir = Move.DIRECTION_0; dir <= Move.DIRECTION_7; ++dir)
+        {
+            final int edgeId = graph.getEdgeId(node, dir);
+            if (FieldGraph.NO_EDGE != edgeId && !graph.isBlocked(edgeId) && field.isEdgeVisited(edgeId))
+                return true;
+        }
+        return false;
+    }
+
+    private boolean isAnyMoveAllowed(final int node)
+    {
+        for (int dir = Move.DIRECTION_0; dir <= Move.DIRECTION_7; ++dir)
+        {
+            if (isEdgeOpen(graph.getEdgeId(node, dir)))
+                return true;
+        }
+        return false;
+    }
+
+    public static void main(String args[])
+    {
+        Log.setLogLevel(Log.LOG_LEVEL_ERROR);
+
+        final int depth = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        final long seed = args.length > 1 ? Long.parseLong(args[1]) : 0;
+        final int width = args.length > 3 ? Integer.parseInt(args[2]) : 9;
+        final int height = args.length > 3 ? Integer.parseInt(args[3]) : 13;
+
+        for (Generator generator : Generator.values())
+        {
+            final Field field = RandomPositions.create(width, height, seed, 0);
+            final int playerId = RandomPositions.playOpening(field, new Random(seed), 20);
+            final Perft perft = new Perft(field, generator);
+
+            for (int d = 1; d <= depth; ++d)
+            {
+                final long start = System.nanoTime();
+                final long leaves = perft.count(d, playerId);
+                final long nanos = Math.max(1, System.nanoTime() - start);
+
+                System.out.println(String.format("%-10s depth %d: %14d turns %14d moves %8d ms %12d moves/s",
+                        generator, d, leaves, perft.getMovesCount(), nanos / 1000000,
+                        perft.getMovesCount() * 1000000000L / nanos));
+            }
+        }
+    }
+}
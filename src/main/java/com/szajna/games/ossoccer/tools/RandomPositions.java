@@ -0,0 +1,146 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2019 Marek Szajna
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.szajna.games.ossoccer.tools;
+
+import java.util.Random;
+
+import com.szajna.games.ossoccer.SoccerRules;
+import com.szajna.games.ossoccer.field.Field;
+import com.szajna.games.ossoccer.field.FieldFactory;
+import com.szajna.games.ossoccer.field.Move;
+import com.szajna.games.ossoccer.field.Node;
+import com.szajna.games.ossoccer.field.Path;
+import com.szajna.games.ossoccer.field.Path.PathElement;
+import com.szajna.games.ossoccer.field.PlayerId;
+
+/**
+ * Reproducible random positions for the benchmarks.
+ */
+public final class RandomPositions
+{
+    private RandomPositions()
+    {
+    }
+
+    /**
+     * Creates a field with a random opening played from the start node. The same seed gives the same position.
+     * Moves into the goals and into blocks are never played.
+     * 
+     * @param width
+     * @param height
+     * @param seed
+     * @param maxMovesCount - max. number of the single moves (edges) of the opening.
+     * @return field.
+     */
+    public static Field create(final int width, final int height, final long seed, final int maxMovesCount)
+    {
+        final Field field = FieldFactory.create(width, height);
+        field.reset();
+        playOpening(field, new Random(seed), maxMovesCount);
+        return field;
+    }
+
+    /**
+     * Plays a random opening on the field. The players alternate after each move ending at a not marked node,
+     * as in the game.
+     * 
+     * @param field
+     * @param random
+     * @param maxMovesCount - max. number of the single moves (edges) of the opening.
+     * @return id of the player to move next.
+     */
+    public static int playOpening(final Field field, final Random random, final int maxMovesCount)
+    {
+        final Path path = new Path();
+        int playerId = PlayerId.Player1;
+
+        for (int i = 0; i < maxMovesCount; ++i)
+        {
+            final Node current = field.getCurrent();
+            final byte[] directions = SoccerRules.getDirections(SoccerRules.getAllowedDirections(current));
+
+            // pick a random direction not leading to a goal nor a block
+            byte direction = -1;
+            for (int tries = 0; tries < directions.length && direction < 0; ++tries)
+            {
+                final byte dir = directions[random.nextInt(directions.length)];
+                final Node next = current.getNode(dir);
+                if (!next.isGoal() && SoccerRules.isAnyMoveAllowed(next, Move.getOppositeDirection(dir)))
+                    direction = dir;
+            }
+            if (direction < 0)
+                break;
+
+            final boolean hasToRebounce = SoccerRules.hasToRebounce(current, direction);
+            path.clear();
+            path.addMove(PathElement.valueOf(direction, (byte) playerId));
+            field.applyPath(path);
+
+            if (!hasToRebounce)
+                playerId = playerId == PlayerId.Player1 ? PlayerId.Player2 : PlayerId.Player1;
+        }
+        return playerId;
+    }
+
+    /**
+     * Gets random complete turn at the current position. The moves into the goals and into blocks are avoided if
+     * possible. The field is not changed.
+     * 
+     * @param field
+     * @param random
+     * @return turn as the digits of its move directions.
+     */
+    public static String getRandomTurn(final Field field, final Random random)
+    {
+        final StringBuilder turn = new StringBuilder();
+
+        while (true)
+        {
+            final Node current = field.getCurrent();
+            final byte[] directions = SoccerRules.getDirections(SoccerRules.getAllowedDirections(current));
+
+            byte direction = directions[random.nextInt(directions.length)];
+            for (int tries = 0; tries < directions.length; ++tries)
+            {
+                final byte dir = directions[random.nextInt(directions.length)];
+                final Node next = current.getNode(dir);
+                if (!next.isGoal() && SoccerRules.isAnyMoveAllowed(next, Move.getOppositeDirection(dir)))
+                {
+                    direction = dir;
+                    break;
+                }
+            }
+
+            final boolean hasToRebounce = SoccerRules.hasToRebounce(current, direction);
+            field.makeMove(direction, PlayerId.Player1);
+            turn.append((char) ('0' + direction));
+
+            if (!hasToRebounce || field.getCurrent().isGoal() || !SoccerRules.isAnyMoveAllowed(field.getCurrent()))
+                break;
+        }
+        field.undoMoves(turn.length());
+        return turn.toString();
+    }
+}
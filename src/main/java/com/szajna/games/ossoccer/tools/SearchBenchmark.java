@@ -0,0 +1,112 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2019 Marek Szajna
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.szajna.games.ossoccer.tools;
+
+import com.szajna.games.ossoccer.SoccerRules;
+import com.szajna.games.ossoccer.ai.AnalysisStats;
+import com.szajna.games.ossoccer.ai.SimpleAIPlayer;
+import com.szajna.games.ossoccer.field.Field;
+import com.szajna.util.Log;
+
+/**
+ * Search benchmark - runs the AI analysis on random positions of fields of growing size and reports the tree
+ * elements (nodes) analyzed per second. The rate should stay roughly constant as the field grows.
+ * 
+ * <pre>
+ * usage: SearchBenchmark [level] [positions] [WIDTHxHEIGHT ...]
+ * e.g.:  SearchBenchmark 1 20 9x13 15x21 21x31 31x45
+ * </pre>
+ */
+public class SearchBenchmark
+{
+    private static final String[] DEFAULT_SIZES = { "9x13", "15x21", "21x31", "31x45" };
+    private static final int OPENING_MAX_MOVES = 40;
+
+    public static void main(String args[])
+    {
+        Log.setLogLevel(Log.LOG_LEVEL_ERROR);
+
+        final int level = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        final int positions = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        String[] sizes = DEFAULT_SIZES;
+        if (args.length > 2)
+        {
+            sizes = new String[args.length - 2];
+            System.arraycopy(args, 2, sizes, 0, sizes.length);
+        }
+
+        // warm up
+        run(9, 13, level, positions);
+
+        System.out.println("level " + level + ", " + positions + " positions per field");
+        System.out.println(String.format("%-8s %12s %10s %14s", "field", "elements", "time [ms]", "elements/s"));
+
+        for (String size : sizes)
+        {
+            final String[] dimensions = size.split("x");
+            final int width = Integer.parseInt(dimensions[0]);
+            final int height = Integer.parseInt(dimensions[1]);
+
+            final long[] result = run(width, height, level, positions);
+            final long elements = result[0];
+            final long nanos = result[1];
+            System.out.println(String.format("%-8s %12d %10d %14d", size, elements, nanos / 1000000,
+                    nanos > 0 ? elements * 1000000000L / nanos : 0));
+        }
+    }
+
+    /**
+     * Runs the analysis of the random positions.
+     * 
+     * @param width
+     * @param height
+     * @param level
+     * @param positions
+     * @return analyzed tree elements count and the analysis time in nanoseconds.
+     */
+    private static long[] run(final int width, final int height, final int level, final int positions)
+    {
+        long elements = 0;
+        long nanos = 0;
+
+        for (int seed = 0; seed < positions; ++seed)
+        {
+            final Field field = RandomPositions.create(width, height, seed, OPENING_MAX_MOVES);
+            if (!SoccerRules.isAnyMoveAllowed(field.getCurrent()))
+                continue;
+
+            final SimpleAIPlayer player = new SimpleAIPlayer(level, seed % 2 == 0 ? 1 : 2, field);
+
+            final long start = System.nanoTime();
+            player.makeMove();
+            nanos += System.nanoTime() - start;
+
+            final AnalysisStats stats = player.getLastAnalysisStats();
+            if (stats != null)
+                elements += stats.getElementsCount();
+        }
+        return new long[] { elements, nanos };
+    }
+}
@@ -0,0 +1,458 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2019 Marek Szajna
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.szajna.games.ossoccer.tools;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.szajna.games.ossoccer.SoccerEngine;
+import com.szajna.games.ossoccer.SoccerMatch;
+import com.szajna.games.ossoccer.ai.ExpansionPolicy;
+import com.szajna.games.ossoccer.field.Path;
+import com.szajna.games.ossoccer.field.PlayerId;
+import com.szajna.util.Log;
+
+/**
+ * Tournament - self-play match of two engine configurations, A and B, to check the playing strength after a
+ * change of the search. The games are played in parallel, in pairs: both games of a pair start from the same
+ * random opening, with the colours swapped.<br>
+ * Reports the Elo difference of A over B with its 95% confidence interval and, optionally, stops early by the
+ * sequential probability ratio test (SPRT) of the hypotheses elo0 (H0) and elo1 (H1), alpha = beta = 0.05.
+ * 
+ * <pre>
+ * usage: Tournament [games] [config A] [config B] [opening turns] [threads] [elo0 elo1]
+ * config: level[/nodes[/movetime ms[/expansion]]], e.g. 1/20000, 1/20000/1000/best_first
+ * </pre>
+ */
+public class Tournament
+{
+    /** Two-sided 95% confidence. */
+    private static final double Z_95 = 1.959964;
+    private static final double SPRT_ALPHA = 0.05;
+    private static final double SPRT_BETA = 0.05;
+    /** Number of the games between the progress reports. */
+    private static final int REPORT_INTERVAL_GAMES = 100;
+
+    /**
+     * Observer of the tournament progress.
+     */
+    public interface IProgressObserver
+    {
+        /**
+         * Called by a game thread every REPORT_INTERVAL_GAMES games.
+         * 
+         * @param report - report of the games played so far, see getReport().
+         */
+        void onProgress(String report);
+    }
+
+    /**
+     * Engine configuration.
+     */
+    public static class Config
+    {
+        private final int level;
+        private final int maxElements;
+        private final long maxTimeMillis;
+        private final ExpansionPolicy expansionPolicy;
+
+        public Config(final int level, final int maxElements, final long maxTimeMillis,
+                final ExpansionPolicy expansionPolicy)
+        {
+            this.level = level;
+            this.maxElements = maxElements;
+            this.maxTimeMillis = maxTimeMillis;
+            this.expansionPolicy = expansionPolicy;
+        }
+
+        /**
+         * Parses configuration: level[/nodes[/movetime ms[/expansion]]], the expansion is breadth_first
+         * (default) or best_first. A missing limit is written as "-".
+         * 
+         * @param config
+         * @return configuration.
+         * @throws IllegalArgumentException if the configuration is not valid.
+         */
+        public static Config parse(final String config)
+        {
+            final String[] values = config.split("/");
+            return new Config(Integer.parseInt(values[0]),
+                    values.length > 1 && !"-".equals(values[1]) ? Integer.parseInt(values[1]) : Integer.MAX_VALUE,
+                    values.length > 2 && !"-".equals(values[2]) ? Long.parseLong(values[2]) : Long.MAX_VALUE,
+                    values.length > 3 ? ExpansionPolicy.valueOf(values[3].toUpperCase(Locale.ROOT))
+                            : ExpansionPolicy.BREADTH_FIRST);
+        }
+
+        SoccerEngine createEngine(final SoccerMatch match, final int playerId)
+        {
+            final SoccerEngine engine = new SoccerEngine(match.getField(), level, playerId);
+            engine.setSearchLimits(maxElements, maxTimeMillis);
+            engine.setExpansionPolicy(expansionPolicy);
+            return engine;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "level " + level + (maxElements != Integer.MAX_VALUE ? ", nodes " + maxElements : "")
+                    + (maxTimeMillis != Long.MAX_VALUE ? ", movetime " + maxTimeMillis : "")
+                    + (expansionPolicy != ExpansionPolicy.BREADTH_FIRST ? ", " + expansionPolicy : "");
+        }
+    }
+
+    private final Config configA;
+    private final Config configB;
+    private final int openingTurnsCount;
+    private final long seed;
+
+    private double sprtElo0;
+    private double sprtElo1;
+    private boolean sprtEnabled;
+
+    /** Results of A */
+    private int wins;
+    private int losses;
+    private int draws;
+    private boolean stopped;
+    /** The first exception of a game, it stops the tournament. */
+    private RuntimeException failure;
+
+    private IProgressObserver progressObserver;
+
+    public Tournament(final Config configA, final Config configB, final int openingTurnsCount, final long seed)
+    {
+        this.configA = configA;
+        this.configB = configB;
+        this.openingTurnsCount = openingTurnsCount;
+        this.seed = seed;
+    }
+
+    /**
+     * Enables the early stop by the SPRT.
+     * 
+     * @param elo0 - Elo difference of H0.
+     * @param elo1 - Elo difference of H1.
+     */
+    public void setSprt(final double elo0, final double elo1)
+    {
+        this.sprtElo0 = elo0;
+        this.sprtElo1 = elo1;
+        this.sprtEnabled = true;
+    }
+
+    public void setProgressObserver(final IProgressObserver progressObserver)
+    {
+        this.progressObserver = progressObserver;
+    }
+
+    /**
+     * Plays the games.
+     * 
+     * @param gamesCount   - max. number of the games, rounded up to the pairs.
+     * @param threadsCount
+     * @throws InterruptedException
+     * @throws IllegalStateException if a game failed - the tournament is stopped then.
+     */
+    public void run(final int gamesCount, final int threadsCount) throws InterruptedException
+    {
+        final int pairsCount = (gamesCount + 1) / 2;
+        final AtomicInteger nextGame = new AtomicInteger();
+        final Thread[] threads = new Thread[threadsCount];
+
+        for (int t = 0; t < threadsCount; ++t)
+        {
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run()
+                {
+                    int game;
+                    while (!isStopped() && (game = nextGame.getAndIncrement()) < 2 * pairsCount)
+                    {
+                        final String report;
+                        try
+                        {
+                            report = addResult(playGame(game));
+                        }
+                        catch (RuntimeException e)
+                        {
+                            addFailure(e);
+                            return;
+                        }
+
+                        final IProgressObserver observer = progressObserver;
+                        if (report != null && observer != null)
+                            observer.onProgress(report);
+                    }
+                }
+            }, "tournament-" + t);
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        final RuntimeException e = getFailure();
+        if (e != null)
+            throw new IllegalStateException("Tournament game failed: " + e, e);
+    }
+
+    /**
+     * Plays the game. Both games of a pair have the same opening, A plays Player1 in the even games.
+     * 
+     * @param game - game index.
+     * @return winner: PlayerId.Player1 if A won, PlayerId.Player2 if B won, PlayerId.None if draw.
+     */
+    int playGame(final int game)
+    {
+        final SoccerMatch match = new SoccerMatch(9, 13);
+        playOpening(match, new Random(seed + game / 2));
+
+        final boolean aIsPlayer1 = 0 == game % 2;
+        final SoccerEngine engine1 = (aIsPlayer1 ? configA : configB).createEngine(match, PlayerId.Player1);
+        final SoccerEngine engine2 = (aIsPlayer1 ? configB : configA).createEngine(match, PlayerId.Player2);
+
+        while (!match.isGameOver())
+        {
+            final SoccerEngine engine = PlayerId.Player1 == match.getPlayerToMove() ? engine1 : engine2;
+            final Path turn = engine.analyse();
+            if (null == turn || 0 == turn.size())
+                break;
+            match.playTurn(turn);
+        }
+
+        if (PlayerId.None == match.getWinner())
+            return PlayerId.None;
+        return (PlayerId.Player1 == match.getWinner()) == aIsPlayer1 ? PlayerId.Player1 : PlayerId.Player2;
+    }
+
+    /**
+     * Plays random opening turns. An opening ending the game is played again.
+     */
+    private void playOpening(final SoccerMatch match, final Random random)
+    {
+        do
+        {
+            match.reset();
+            for (int i = 0; i < openingTurnsCount && !match.isGameOver(); ++i)
+            {
+                match.playTurn(RandomPositions.getRandomTurn(match.getField(), random));
+            }
+        }
+        while (match.isGameOver());
+    }
+
+    /**
+     * Adds result of the game. NOTE: the results of the games finished after the SPRT stop are not counted -
+     * the test decides on the games played until the stop.
+     * 
+     * @param winner
+     * @return the progress report if due, otherwise null.
+     */
+    private synchronized String addResult(final int winner)
+    {
+        if (stopped)
+            return null;
+
+        if (PlayerId.Player1 == winner)
+            wins++;
+        else if (PlayerId.Player2 == winner)
+            losses++;
+        else
+            draws++;
+
+        final int games = getGamesCount();
+        if (sprtEnabled)
+        {
+            final double llr = getSprtLlr(wins, losses, draws, sprtElo0, sprtElo1);
+            stopped = llr <= getSprtLowerBound() || llr >= getSprtUpperBound();
+        }
+        return 0 == games % REPORT_INTERVAL_GAMES ? getReport() : null;
+    }
+
+    private synchronized void addFailure(final RuntimeException e)
+    {
+        if (failure == null)
+            failure = e;
+        stopped = true;
+    }
+
+    private synchronized RuntimeException getFailure()
+    {
+        return failure;
+    }
+
+    private synchronized boolean isStopped()
+    {
+        return stopped;
+    }
+
+    public synchronized int getGamesCount()
+    {
+        return wins + losses + draws;
+    }
+
+    /**
+     * Gets the report of the games played so far.
+     * 
+     * @return report lines.
+     */
+    public synchronized String getReport()
+    {
+        final int games = getGamesCount();
+        final StringBuilder sb = new StringBuilder();
+        sb.append(String.format("games: %d, A wins: %d, losses: %d, draws: %d, score: %.1f%%", games, wins,
+                losses, draws, 100 * getScore(wins, losses, draws)));
+
+        final double[] interval = getEloInterval(wins, losses, draws);
+        sb.append(String.format("%nelo A - B: %+.1f, 95%% interval: [%+.1f, %+.1f]",
+                getElo(getScore(wins, losses, draws)), interval[0], interval[1]));
+
+        if (sprtEnabled)
+        {
+            final double llr = getSprtLlr(wins, losses, draws, sprtElo0, sprtElo1);
+            sb.append(String.format("%nsprt [%.1f, %.1f]: llr %.2f (%.2f, %.2f)", sprtElo0, sprtElo1, llr,
+                    getSprtLowerBound(), getSprtUpperBound()));
+            if (llr >= getSprtUpperBound())
+                sb.append(" - H1 accepted");
+            else if (llr <= getSprtLowerBound())
+                sb.append(" - H0 accepted");
+        }
+        return sb.toString();
+    }
+
+    static double getScore(final int wins, final int losses, final int draws)
+    {
+        final int games = wins + losses + draws;
+        return 0 == games ? 0.5 : (wins + 0.5 * draws) / games;
+    }
+
+    /**
+     * Gets Elo difference of the expected score.
+     * 
+     * @param score - expected score, (0, 1).
+     * @return Elo difference, infinite for score 0 or 1.
+     */
+    static double getElo(final double score)
+    {
+        return -400 * Math.log10(1 / score - 1);
+    }
+
+    /**
+     * Gets 95% confidence interval of the Elo difference - the interval of the mean score (normal
+     * approximation) converted to Elo.
+     * 
+     * @param wins
+     * @param losses
+     * @param draws
+     * @return lower and upper bound.
+     */
+    static double[] getEloInterval(final int wins, final int losses, final int draws)
+    {
+        final int games = wins + losses + draws;
+        final double score = getScore(wins, losses, draws);
+        final double error = games > 0 ? Z_95 * Math.sqrt(getScoreVariance(wins, losses, draws) / games) : 0.5;
+        return new double[] { getElo(Math.max(0, score - error)), getElo(Math.min(1, score + error)) };
+    }
+
+    /**
+     * Gets variance of the score of a single game.
+     */
+    private static double getScoreVariance(final int wins, final int losses, final int draws)
+    {
+        final int games = wins + losses + draws;
+        final double score = getScore(wins, losses, draws);
+        return (wins * (1 - score) * (1 - score) + losses * score * score + draws * (0.5 - score) * (0.5 - score))
+                / games;
+    }
+
+    /**
+     * Gets log-likelihood ratio of H1 (elo1) over H0 (elo0) - the normal approximation of the generalized SPRT.
+     * 
+     * @param wins
+     * @param losses
+     * @param draws
+     * @param elo0
+     * @param elo1
+     * @return log-likelihood ratio, 0 if not enough games.
+     */
+    static double getSprtLlr(final int wins, final int losses, final int draws, final double elo0,
+            final double elo1)
+    {
+        final int games = wins + losses + draws;
+        final double variance = games > 0 ? getScoreVariance(wins, losses, draws) : 0;
+        if (0 == wins || 0 == losses || variance <= 0)
+            return 0;
+
+        final double score0 = getExpectedScore(elo0);
+        final double score1 = getExpectedScore(elo1);
+        return games * (score1 - score0) * (2 * getScore(wins, losses, draws) - score0 - score1) / (2 * variance);
+    }
+
+    private static double getExpectedScore(final double elo)
+    {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    static double getSprtLowerBound()
+    {
+        return Math.log(SPRT_BETA / (1 - SPRT_ALPHA));
+    }
+
+    static double getSprtUpperBound()
+    {
+        return Math.log((1 - SPRT_BETA) / SPRT_ALPHA);
+    }
+
+    public static void main(String args[]) throws InterruptedException
+    {
+        Log.setLogLevel(Log.LOG_LEVEL_ERROR);
+
+        final int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        final Config configA = Config.parse(args.length > 1 ? args[1] : "1/20000");
+        final Config configB = Config.parse(args.length > 2 ? args[2] : "1/20000");
+        final int openingTurns = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+        final int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+        final Tournament tournament = new Tournament(configA, configB, openingTurns, 0);
+        if (args.length > 6)
+            tournament.setSprt(Double.parseDouble(args[5]), Double.parseDouble(args[6]));
+        tournament.setProgressObserver(new IProgressObserver() {
+            @Override
+            public void onProgress(String report)
+            {
+                System.out.println(report);
+            }
+        });
+
+        System.out.println("A: " + configA + ", B: " + configB + ", " + threads + " threads");
+        final long start = System.currentTimeMillis();
+        tournament.run(games, threads);
+        System.out.println(tournament.getReport());
+        System.out.println("time: " + (System.currentTimeMillis() - start) + " ms");
+    }
+}
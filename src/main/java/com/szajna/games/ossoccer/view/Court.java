@@ -37,11 +37,11 @@ import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.net.URL;
-import java.util.ArrayList;
 
 import javax.imageio.ImageIO;
 import javax.swing.JPanel;
 
+import com.szajna.games.ossoccer.GameClock;
 import com.szajna.games.ossoccer.Player;
 import com.szajna.games.ossoccer.SoccerRules;
 import com.szajna.games.ossoccer.field.Field;
@@ -58,6 +58,7 @@ public class Court extends JPanel
     private int level;
     private Player[] players = null;
     private Player currentPlayer = null;
+    private GameClock gameClock = null;
 
     private int marginX;
     private int marginY;
@@ -77,6 +78,9 @@ public class Court extends JPanel
     private int lastMoveDrawPercent;
     private int lastMoveSize;
 
+    /** The best line of the analysis in progress, drawn from the ball. */
+    private Path bestLine = null;
+
     private int ballPixelPosX;
     private int ballPixelPosY;
 
@@ -136,6 +140,21 @@ public class Court extends JPanel
         this.currentPlayer = player;
     }
 
+    public void setGameClock(GameClock clock)
+    {
+        this.gameClock = clock;
+    }
+
+    /**
+     * Sets the best line of the analysis in progress, drawn as a faint overlay from the ball.
+     * 
+     * @param path - path of the move, it is not modified; null to hide the overlay.
+     */
+    public void setBestLine(Path path)
+    {
+        bestLine = path;
+    }
+
     public void setLastMoveSize(int size)
     {
         lastMoveSize = size;
@@ -238,6 +257,7 @@ public class Court extends JPanel
 
         drawCourt(g2d);
         drawPath(g2d);
+        drawBestLine(g2d, ballColumn, ballRow);
         drawMove(g2d, ballColumn, ballRow);
         // drawing court center above path looks better
         drawCenter(g2d);
@@ -250,7 +270,7 @@ public class Court extends JPanel
     }
 
     /**
-     * Draws player names.
+     * Draws player names, scores and clocks.
      * 
      * @param g2d
      */
@@ -278,13 +298,22 @@ public class Court extends JPanel
         if (players[1].isCpuControlled())
             textPlayer2 += " (" + diffLevelString + ")";
 
+        textPlayer1 += ": " + players[0].getScore();
+        textPlayer2 += ": " + players[1].getScore();
+
+        if (gameClock != null && gameClock.isEnabled())
+        {
+            textPlayer1 += "  " + GameClock.format(gameClock.getRemainingMillis(players[0].getId()));
+            textPlayer2 += "  " + GameClock.format(gameClock.getRemainingMillis(players[1].getId()));
+        }
+
         int fontBaseY = cellSize;
 
         g2d.setColor(GuiCustomization.PLAYER1_PATH_COLOR);
-        g2d.drawString(textPlayer1 + ": " + players[0].getScore(), marginX + cellSize / 2, fontBaseY);
+        g2d.drawString(textPlayer1, marginX + cellSize / 2, fontBaseY);
 
         g2d.setColor(GuiCustomization.PLAYER2_PATH_COLOR);
-        g2d.drawString(textPlayer2 + ": " + players[1].getScore(), marginX + cellSize / 2, fontBaseY * 2);
+        g2d.drawString(textPlayer2, marginX + cellSize / 2, fontBaseY * 2);
 
         int ballSize = (int) (cellSize * 0.25f);
 
@@ -315,7 +344,7 @@ public class Court extends JPanel
         int row = cellCountY / 2;
 
         // initial ball position
-        if (lastMoveDrawPercent >= 100 && path.getMoves().size() == 0)
+        if (lastMoveDrawPercent >= 100 && path.size() == 0)
         {
             ballPixelPosX = marginX + column * cellSize;
             ballPixelPosY = marginY + row * cellSize;
@@ -330,17 +359,17 @@ public class Court extends JPanel
             lastMovePercent = lastMoveSize * lastMoveDrawPercent % 100;
         }
 
-        ArrayList<PathElement> moves = path.getMoves();
-        for (int i = 0; i < moves.size(); i++)
+        final int movesCount = path.size();
+        for (int i = 0; i < movesCount; i++)
         {
-            PathElement pathElement = moves.get(i);
+            PathElement pathElement = path.get(i);
             if (pathElement.isSeparator())
             {
                 // set path start at center if PATH_SEPARATOR
                 column = cellCountX / 2;
                 row = cellCountY / 2;
 
-                if (lastMoveDrawPercent >= 100 && i == moves.size() - 1)
+                if (lastMoveDrawPercent >= 100 && i == movesCount - 1)
                 {
                     // ball position at center
                     ballPixelPosX = marginX + column * cellSize;
@@ -349,7 +378,7 @@ public class Court extends JPanel
                 continue;
             }
 
-            if (i > moves.size() - movesToSkip)
+            if (i > movesCount - movesToSkip)
             {
                 continue;
             }
@@ -361,7 +390,7 @@ public class Court extends JPanel
             int moveShiftX = Tools.getMoveShiftByDirection(moveDir).x * cellSize;
             int moveShiftY = Tools.getMoveShiftByDirection(moveDir).y * cellSize;
 
-            if (i == moves.size() - movesToSkip)
+            if (i == movesCount - movesToSkip)
             {
                 moveShiftX = (moveShiftX * lastMovePercent) / 100;
                 moveShiftY = (moveShiftY * lastMovePercent) / 100;
@@ -379,6 +408,48 @@ public class Court extends JPanel
         }
     }
 
+    /**
+     * Draws the best line of the analysis in progress.
+     * 
+     * @param g2d
+     * @param column - ball column.
+     * @param row    - ball row.
+     */
+    private void drawBestLine(Graphics2D g2d, int column, int row)
+    {
+        final Path path = bestLine;
+        if (path == null || lastMoveDrawPercent < 100)
+        {
+            return;
+        }
+
+        int pathThickness = (int) (cellSize * 0.10f);
+
+        g2d.setStroke(new BasicStroke(pathThickness, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+        for (int i = 0; i < path.size(); i++)
+        {
+            PathElement pathElement = path.get(i);
+            if (pathElement.isSeparator())
+            {
+                continue;
+            }
+
+            byte moveDir = pathElement.getMoveDirection();
+            g2d.setColor(pathElement.getPlayerId() == PlayerId.Player1 ? GuiCustomization.PLAYER1_BEST_LINE_COLOR
+                    : GuiCustomization.PLAYER2_BEST_LINE_COLOR);
+
+            int x1 = marginX + column * cellSize;
+            int y1 = marginY + row * cellSize;
+
+            column += Tools.getMoveShiftByDirection(moveDir).x;
+            row += Tools.getMoveShiftByDirection(moveDir).y;
+
+            g2d.drawLine(x1, y1, marginX + column * cellSize, marginY + row * cellSize);
+        }
+    }
+
     /**
      * Draws court.
      * 
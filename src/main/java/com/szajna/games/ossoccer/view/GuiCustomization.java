@@ -46,6 +46,9 @@ public class GuiCustomization
     public static final Color PLAYER1_PATH_COLOR = new Color(220, 20, 20, 180);
     public static final Color PLAYER2_PATH_COLOR = new Color(20, 200, 20, 180);
 
+    public static final Color PLAYER1_BEST_LINE_COLOR = new Color(220, 20, 20, 70);
+    public static final Color PLAYER2_BEST_LINE_COLOR = new Color(20, 200, 20, 70);
+
     /**
      * No instance allowed.
      */
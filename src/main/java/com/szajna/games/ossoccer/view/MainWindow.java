@@ -30,6 +30,7 @@ import java.awt.event.ActionListener;
 import java.awt.event.ItemListener;
 import java.awt.event.KeyEvent;
 import java.net.URL;
+import java.util.concurrent.Executor;
 
 import javax.swing.ImageIcon;
 import javax.swing.JCheckBoxMenuItem;
@@ -38,6 +39,7 @@ import javax.swing.JMenu;
 import javax.swing.JMenuBar;
 import javax.swing.JMenuItem;
 import javax.swing.KeyStroke;
+import javax.swing.SwingUtilities;
 
 import com.szajna.games.ossoccer.AppConfig;
 import com.szajna.games.ossoccer.SoccerEngine;
@@ -94,7 +96,14 @@ public class MainWindow extends JFrame implements ActionListener
         courtView.setPlayers(soccerController.getPlayers());
 
         // add listeners / observers
-        soccerEngine.setAnalysisObserver(soccerController);
+        // the analysis notifications are delivered to the UI thread, the analysing thread does not wait for them
+        soccerEngine.setAnalysisObserver(soccerController, new Executor() {
+            @Override
+            public void execute(Runnable notification)
+            {
+                SwingUtilities.invokeLater(notification);
+            }
+        });
         courtView.addMouseListener(soccerController);
         courtView.addMouseMotionListener(soccerController);
         courtView.addMouseWheelListener(soccerController);
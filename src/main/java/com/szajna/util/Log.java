@@ -24,6 +24,7 @@
 
 package com.szajna.util;
 
+import java.io.PrintStream;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
@@ -38,12 +39,23 @@ public class Log
 
     private static final DateFormat df = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
     private static int logLevel = LOG_LEVEL_DEBUG;
+    private static PrintStream out = System.out;
 
     public static void setLogLevel(int level)
     {
         logLevel = level;
     }
 
+    /**
+     * Sets stream the log is printed to, System.out by default.
+     * 
+     * @param stream
+     */
+    public static void setPrintStream(PrintStream stream)
+    {
+        out = stream;
+    }
+
     public static void v(String tag, String msg)
     {
         if (logLevel >= LOG_LEVEL_VERBOSE)
@@ -95,6 +107,6 @@ public class Log
         sb.append("] ");
         sb.append(level);
         sb.append(msg);
-        System.out.println(sb.toString());
+        out.println(sb.toString());
     }
 }
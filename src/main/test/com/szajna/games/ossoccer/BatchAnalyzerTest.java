@@ -0,0 +1,114 @@
+package com.szajna.games.ossoccer;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.szajna.games.ossoccer.BatchAnalyzer.Position;
+import com.szajna.games.ossoccer.BatchAnalyzer.Result;
+
+public class BatchAnalyzerTest
+{
+    private static final String[] POSITIONS = { "p0", "p1 0", "p2 0 2", "p3 0 2 56", "p4 size 7 9 0", "p5 00",
+            "p6 0 0 0 0 0 0", "p7 size 3 3", "p8 2", "p9 2 7" };
+
+    @Test
+    public void testPreserveOrder() throws InterruptedException
+    {
+        final List<Result> results = analyse(true);
+        assertEquals(POSITIONS.length, results.size());
+
+        for (int i = 0; i < POSITIONS.length; ++i)
+        {
+            assertEquals(i, results.get(i).getIndex());
+            assertEquals("p" + i, results.get(i).getPosition().getId());
+        }
+    }
+
+    @Test
+    public void testResults() throws InterruptedException
+    {
+        final List<Result> results = analyse(false);
+        final List<Long> indexes = new ArrayList<Long>();
+
+        for (Result result : results)
+        {
+            indexes.add(result.getIndex());
+
+            final Position position = result.getPosition();
+            final boolean invalid = "p5".equals(position.getId()) || "p6".equals(position.getId())
+                    || "p7".equals(position.getId());
+            assertEquals(position.getId(), invalid, null != result.getError());
+            if (invalid)
+            {
+                assertNull(result.getBestPath());
+                continue;
+            }
+
+            // the best path is a legal turn of the player to move
+            final SoccerMatch match = new SoccerMatch(position.getWidth(), position.getHeight());
+            for (String turn : position.getTurns())
+            {
+                match.playTurn(turn);
+            }
+            match.playTurn(result.getBestPath());
+            assertTrue(result.getStats().isSearchLimitReached() || result.getStats().getElementsCount() <= 2000);
+        }
+
+        Collections.sort(indexes);
+        for (int i = 0; i < POSITIONS.length; ++i)
+        {
+            assertEquals(Long.valueOf(i), indexes.get(i));
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testFinishedPositions() throws InterruptedException
+    {
+        // a turn after the goal - more positions than the window of the single worker
+        final String[] lines = new String[20];
+        for (int i = 0; i < lines.length; ++i)
+        {
+            lines[i] = i % 2 == 0 ? "f" + i + " size 5 5 0 0 4" : "v" + i + " 2";
+        }
+
+        final List<Result> results = analyse(lines, 1, true);
+        assertEquals(lines.length, results.size());
+        for (int i = 0; i < lines.length; ++i)
+        {
+            assertEquals(i, results.get(i).getIndex());
+            assertEquals(i % 2 == 0, null != results.get(i).getError());
+        }
+    }
+
+    private static List<Result> analyse(final boolean preserveOrder) throws InterruptedException
+    {
+        return analyse(POSITIONS, 3, preserveOrder);
+    }
+
+    private static List<Result> analyse(final String[] lines, final int threadsCount, final boolean preserveOrder)
+            throws InterruptedException
+    {
+        final List<Position> positions = new ArrayList<Position>();
+        for (String line : lines)
+        {
+            positions.add(Position.parse(line));
+        }
+
+        final List<Result> results = new ArrayList<Result>();
+        final BatchAnalyzer analyzer = new BatchAnalyzer(threadsCount, 1, preserveOrder);
+        analyzer.setSearchLimits(2000, Long.MAX_VALUE);
+        analyzer.analyse(positions.iterator(), new IBatchAnalysisObserver() {
+            @Override
+            public void onPositionAnalysed(Result result)
+            {
+                results.add(result);
+            }
+        });
+        return results;
+    }
+}
@@ -0,0 +1,72 @@
+package com.szajna.games.ossoccer;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.szajna.games.ossoccer.field.PlayerId;
+
+public class GameClockTest
+{
+    /** Clock of the manually set time. */
+    private static class TestClock extends GameClock
+    {
+        private long time;
+
+        TestClock(final long baseMillis, final long incrementMillis)
+        {
+            super(baseMillis, incrementMillis);
+        }
+
+        @Override
+        protected long currentTimeMillis()
+        {
+            return time;
+        }
+    }
+
+    @Test
+    public void testBaseAndIncrement()
+    {
+        final TestClock clock = new TestClock(60000, 2000);
+        assertTrue(clock.isEnabled());
+
+        clock.start(PlayerId.Player1);
+        clock.time = 5000;
+        assertEquals(55000, clock.getRemainingMillis(PlayerId.Player1));
+        assertEquals(60000, clock.getRemainingMillis(PlayerId.Player2));
+
+        clock.switchTurn(PlayerId.Player2);
+        assertEquals(PlayerId.Player2, clock.getRunningPlayerId());
+        assertEquals(57000, clock.getRemainingMillis(PlayerId.Player1));
+
+        clock.time = 65000;
+        assertEquals(0, clock.getRemainingMillis(PlayerId.Player2));
+        assertTrue(clock.isTimeOver(PlayerId.Player2));
+
+        // no increment after the time is over
+        clock.switchTurn(PlayerId.Player1);
+        assertEquals(0, clock.getRemainingMillis(PlayerId.Player2));
+
+        clock.stop();
+        clock.time = 70000;
+        assertEquals(57000, clock.getRemainingMillis(PlayerId.Player1));
+
+        clock.reset();
+        assertEquals(PlayerId.None, clock.getRunningPlayerId());
+        assertEquals(60000, clock.getRemainingMillis(PlayerId.Player2));
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        final TestClock clock = new TestClock(0, 0);
+        clock.start(PlayerId.Player1);
+        clock.time = 1000;
+        assertFalse(clock.isEnabled());
+        assertFalse(clock.isTimeOver(PlayerId.Player1));
+
+        assertEquals("1:05", GameClock.format(64100));
+        assertEquals("0:00", GameClock.format(-10));
+    }
+}
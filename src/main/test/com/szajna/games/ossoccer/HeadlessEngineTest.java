@@ -0,0 +1,53 @@
+package com.szajna.games.ossoccer;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class HeadlessEngineTest
+{
+    @Test
+    public void testStopWithoutAnalysis() throws IOException
+    {
+        // the position command waits for the analysis, the stop comes when the engine is idle
+        final List<String> infos = run("go level 1", "position", "stop", "go level 1", "position", "quit");
+
+        assertEquals(2, infos.size());
+        assertEquals(infos.get(0), infos.get(1));
+        assertFalse(infos.get(0), infos.get(0).startsWith("info nodes 8 "));
+    }
+
+    /**
+     * Runs the commands.
+     * 
+     * @param commands
+     * @return the "info nodes" lines without the time.
+     */
+    private static List<String> run(final String... commands) throws IOException
+    {
+        final StringBuilder input = new StringBuilder();
+        for (String command : commands)
+        {
+            input.append(command).append('\n');
+        }
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new HeadlessEngine(new PrintStream(output, true)).run(new BufferedReader(new StringReader(input.toString())));
+
+        final List<String> infos = new ArrayList<String>();
+        for (String line : output.toString().split("\n"))
+        {
+            if (line.startsWith("info nodes "))
+                infos.add(line.substring(0, line.indexOf(" time ")));
+        }
+        return infos;
+    }
+}
@@ -0,0 +1,237 @@
+package com.szajna.games.ossoccer;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.szajna.games.ossoccer.ai.AnalysisProgress;
+import com.szajna.games.ossoccer.ai.SearchContext;
+import com.szajna.games.ossoccer.field.Field;
+import com.szajna.games.ossoccer.tools.RandomPositions;
+
+public class SoccerEngineTest
+{
+    @Test
+    public void testAsynchronousNotifications()
+    {
+        final Field field = RandomPositions.create(15, 21, 7, 0);
+        final int playerId = RandomPositions.playOpening(field, new Random(7), 20);
+        final SoccerEngine engine = new SoccerEngine(field, 2, playerId);
+
+        final List<AnalysisProgress> progresses = new ArrayList<AnalysisProgress>();
+        final List<Runnable> notifications = new ArrayList<Runnable>();
+        final List<AnalysisProgress> published = new ArrayList<AnalysisProgress>();
+        final boolean[] complete = { false };
+
+        // the executor only queues the notifications - the analysis must not wait for them
+        engine.setProgressInterval(0);
+        engine.setAnalysisObserver(new IAnalysisObserver() {
+            @Override
+            public void onAnalysisProgress(AnalysisProgress progress)
+            {
+                assertFalse(complete[0]);
+                progresses.add(progress);
+            }
+
+            @Override
+            public void onAnalysisComplete()
+            {
+                complete[0] = true;
+            }
+        }, new Executor() {
+            @Override
+            public void execute(Runnable notification)
+            {
+                notifications.add(notification);
+                published.add(engine.getAnalysisProgress());
+            }
+        });
+
+        engine.run();
+        assertNotNull(engine.getBestPath());
+        assertTrue(notifications.size() > 1);
+        assertTrue(progresses.isEmpty());
+        assertNull(engine.getAnalysisProgress());
+
+        for (Runnable notification : notifications)
+        {
+            notification.run();
+        }
+        assertTrue(complete[0]);
+        assertEquals(notifications.size() - 1, progresses.size());
+
+        int elementsCount = 0;
+        for (int i = 0; i < progresses.size(); ++i)
+        {
+            // the progress is published before it is delivered
+            final AnalysisProgress progress = progresses.get(i);
+            assertSame(progress, published.get(i));
+
+            assertTrue(progress.getElementsCount() >= elementsCount);
+            assertTrue(progress.getBestPath().size() > 0);
+            assertTrue(progress.getDepth() >= progress.getBestPath().size());
+            elementsCount = progress.getElementsCount();
+        }
+        assertTrue(engine.getLastAnalysisStats().getElementsCount() >= elementsCount);
+    }
+
+    @Test
+    public void testStopWithoutAnalysis()
+    {
+        final Field field = RandomPositions.create(15, 21, 7, 0);
+        final int playerId = RandomPositions.playOpening(field, new Random(7), 20);
+
+        final SoccerEngine reference = new SoccerEngine(field, 1, playerId);
+        reference.analyse();
+
+        // a stop before the analysis and after it must not cut the next analysis short
+        final SoccerEngine engine = new SoccerEngine(field, 1, playerId);
+        engine.stopAnalysis();
+        engine.analyse();
+        engine.stopAnalysis();
+        engine.analyse();
+
+        assertEquals(reference.getLastAnalysisStats().getElementsCount(),
+                engine.getLastAnalysisStats().getElementsCount());
+    }
+
+    @Test
+    public void testKeptMemoryBudget()
+    {
+        final Field field = RandomPositions.create(15, 21, 7, 0);
+        final int playerId = RandomPositions.playOpening(field, new Random(7), 20);
+        final AnalysisMemoryBudget budget = AnalysisMemoryBudget.getInstance();
+        final SearchContext context = SearchContext.forCurrentThread();
+        final long globalLimit = budget.getGlobalLimit();
+        try
+        {
+            // the memory kept by the context after the analysis is counted against the budget
+            final SoccerEngine engine = new SoccerEngine(field, 1, playerId);
+            engine.analyse();
+            final long keptByteSize = context.getReservedByteSize();
+            assertTrue(keptByteSize > 0);
+            assertEquals(keptByteSize, budget.getKeptByteSize(context));
+
+            // the memory of the same level does not depend on the heap by default
+            assertFalse(budget.isAdaptive());
+            final SoccerEngine other = new SoccerEngine(field, 1, playerId);
+            other.analyse();
+            assertEquals(engine.getLastAnalysisStats().getElementsMaxCount(),
+                    other.getLastAnalysisStats().getElementsMaxCount());
+            assertEquals(keptByteSize, context.getReservedByteSize());
+
+            // the memory kept by the context is reused by its next analysis
+            budget.release(budget.acquire(0, context));
+            assertEquals(0, budget.getKeptByteSize(context));
+            assertTrue(budget.keep(context, keptByteSize));
+
+            // the other analyses get the memory not kept only
+            budget.setGlobalLimit(keptByteSize + keptByteSize / 2);
+            final long grantedByteSize = budget.acquire(keptByteSize);
+            budget.release(grantedByteSize);
+            assertTrue(grantedByteSize <= keptByteSize / 2);
+
+            // the kept memory shrinks with the budget
+            budget.setGlobalLimit(keptByteSize / 2);
+            engine.analyse();
+            assertNotNull(engine.getBestPath());
+            assertTrue(context.getReservedByteSize() <= keptByteSize / 2);
+            assertEquals(context.getReservedByteSize(), budget.getKeptByteSize(context));
+        }
+        finally
+        {
+            budget.setGlobalLimit(globalLimit);
+        }
+    }
+
+    @Test
+    public void testAnalysisThreadReused() throws InterruptedException
+    {
+        final Field field = RandomPositions.create(15, 21, 7, 0);
+        final int playerId = RandomPositions.playOpening(field, new Random(7), 20);
+        final SoccerEngine engine = new SoccerEngine(field, 0, playerId);
+
+        // the analyses started by startAnalysis() run on one thread, so its search context is reused
+        final List<Thread> threads = new ArrayList<Thread>();
+        final List<SearchContext> contexts = new ArrayList<SearchContext>();
+        final Semaphore complete = new Semaphore(0);
+        engine.setAnalysisObserver(new IAnalysisObserver() {
+            @Override
+            public void onAnalysisProgress(AnalysisProgress progress)
+            {
+            }
+
+            @Override
+            public void onAnalysisComplete()
+            {
+                threads.add(Thread.currentThread());
+                contexts.add(SearchContext.forCurrentThread());
+                complete.release();
+            }
+        }, new Executor() {
+            @Override
+            public void execute(Runnable notification)
+            {
+                notification.run();
+            }
+        });
+
+        for (int i = 0; i < 2; ++i)
+        {
+            engine.startAnalysis();
+            assertTrue(complete.tryAcquire(60, TimeUnit.SECONDS));
+        }
+        assertSame(threads.get(0), threads.get(1));
+        assertNotSame(Thread.currentThread(), threads.get(0));
+        assertTrue(threads.get(0).isDaemon());
+        assertTrue(contexts.get(1).getReservedByteSize() > 0);
+    }
+
+    @Test
+    public void testFailedAnalysisComplete() throws InterruptedException
+    {
+        final Field field = RandomPositions.create(15, 21, 7, 0);
+        final int playerId = RandomPositions.playOpening(field, new Random(7), 20);
+        final SoccerEngine engine = new SoccerEngine(field, 0, playerId);
+
+        // the analysis fails on the first progress notification, but the observer is notified of its end
+        final Semaphore complete = new Semaphore(0);
+        engine.setProgressInterval(0);
+        engine.setAnalysisObserver(new IAnalysisObserver() {
+            @Override
+            public void onAnalysisProgress(AnalysisProgress progress)
+            {
+            }
+
+            @Override
+            public void onAnalysisComplete()
+            {
+                complete.release();
+            }
+        }, new Executor() {
+            private boolean failed;
+
+            @Override
+            public void execute(Runnable notification)
+            {
+                if (!failed)
+                {
+                    failed = true;
+                    throw new IllegalStateException("Notification failed.");
+                }
+                notification.run();
+            }
+        });
+
+        engine.startAnalysis();
+        assertTrue(complete.tryAcquire(60, TimeUnit.SECONDS));
+        assertNull(engine.getBestPath());
+    }
+}
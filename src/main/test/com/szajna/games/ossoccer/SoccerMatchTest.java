@@ -0,0 +1,117 @@
+package com.szajna.games.ossoccer;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.szajna.games.ossoccer.field.Field;
+import com.szajna.games.ossoccer.field.PlayerId;
+
+public class SoccerMatchTest
+{
+    @Test
+    public void testTurnFormat()
+    {
+        assertEquals("107", SoccerMatch.toString(SoccerMatch.parseTurn("107")));
+        assertEquals(3, SoccerMatch.parseTurn("107").size());
+
+        try
+        {
+            SoccerMatch.parseTurn("18");
+            fail("Invalid direction parsed.");
+        }
+        catch (IllegalArgumentException e)
+        {
+        }
+    }
+
+    @Test
+    public void testPlayTurn()
+    {
+        final SoccerMatch match = new SoccerMatch(9, 13);
+        final Field field = match.getField();
+        assertEquals(PlayerId.Player1, match.getPlayerToMove());
+
+        match.playTurn("0");
+        match.playTurn("2");
+        assertEquals(PlayerId.Player1, match.getPlayerToMove());
+        assertEquals(2, field.getJournalSize());
+
+        // the ball stops at the not marked node, it has to re-bounce at the center
+        assertInvalidTurn(match, "00");
+        assertInvalidTurn(match, "5");
+        assertInvalidTurn(match, "6");
+        assertEquals(2, field.getJournalSize());
+        assertEquals(PlayerId.Player1, match.getPlayerToMove());
+
+        match.playTurn("56");
+        assertEquals(3, field.getCurrent().getX());
+        assertEquals(6, field.getCurrent().getY());
+        assertEquals(PlayerId.Player2, match.getPlayerToMove());
+        assertEquals(3, match.getTurnsCount());
+        assertFalse(match.isGameOver());
+
+        match.reset();
+        assertEquals(0, field.getJournalSize());
+        assertEquals(PlayerId.Player1, match.getPlayerToMove());
+    }
+
+    @Test
+    public void testOwnGoal()
+    {
+        final SoccerMatch match = new SoccerMatch(9, 13);
+
+        for (int i = 0; i < 6; ++i)
+        {
+            match.playTurn("0");
+        }
+        // own goal of Player2 - the top goal is scored for Player1
+        assertTrue(match.isGameOver());
+        assertEquals(PlayerId.Player1, match.getWinner());
+
+        try
+        {
+            match.playTurn("4");
+            fail("Turn played after the game is over.");
+        }
+        catch (IllegalStateException e)
+        {
+        }
+    }
+
+    @Test
+    public void testInvalidSize()
+    {
+        assertInvalidSize(SoccerMatch.MIN_SIZE - 2, 13);
+        assertInvalidSize(9, SoccerMatch.MIN_SIZE - 2);
+        assertInvalidSize(10, 13);
+        assertInvalidSize(9, 14);
+
+        final SoccerMatch match = new SoccerMatch(SoccerMatch.MIN_SIZE, SoccerMatch.MIN_SIZE);
+        assertFalse(match.isGameOver());
+    }
+
+    private static void assertInvalidSize(final int width, final int height)
+    {
+        try
+        {
+            new SoccerMatch(width, height);
+            fail("Invalid size accepted: " + width + "x" + height);
+        }
+        catch (IllegalArgumentException e)
+        {
+        }
+    }
+
+    private static void assertInvalidTurn(final SoccerMatch match, final String turn)
+    {
+        try
+        {
+            match.playTurn(turn);
+            fail("Invalid turn played: " + turn);
+        }
+        catch (IllegalArgumentException e)
+        {
+        }
+    }
+}
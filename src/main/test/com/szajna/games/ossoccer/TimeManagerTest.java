@@ -0,0 +1,64 @@
+package com.szajna.games.ossoccer;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.szajna.games.ossoccer.field.Field;
+import com.szajna.games.ossoccer.field.FieldFactory;
+import com.szajna.games.ossoccer.field.PlayerId;
+
+public class TimeManagerTest
+{
+    @Test
+    public void testAllocation()
+    {
+        final Field field = FieldFactory.createStandard();
+        final TimeManager timeManager = new TimeManager();
+
+        timeManager.startTurn(field, 60000, 1000);
+        final long optimum = timeManager.getOptimumMillis();
+        assertTrue(optimum > 1000);
+        assertTrue(timeManager.getMaximumMillis() > optimum);
+        assertTrue(timeManager.getMaximumMillis() < 60000 / 3);
+
+        // the stable best move stops the search earlier
+        assertTrue(timeManager.isNextSearchAllowed(optimum / 2, optimum / 8, true));
+        assertFalse(timeManager.isNextSearchAllowed(optimum / 2, optimum / 2, true));
+        assertTrue(timeManager.isNextSearchAllowed(optimum / 2, optimum / 2, false));
+
+        // little time left - the engine still thinks, but within the remaining time
+        timeManager.startTurn(field, 100, 0);
+        assertTrue(timeManager.getMaximumMillis() <= 100);
+        timeManager.startTurn(field, -500, 0);
+        assertEquals(TimeManager.MIN_TIME_MILLIS, timeManager.getMaximumMillis());
+    }
+
+    @Test
+    public void testComplexity()
+    {
+        final Field field = FieldFactory.createStandard();
+        final int start = TimeManager.getComplexityPercent(field);
+        assertTrue(start > 100);
+
+        // the corner node - a single move allowed
+        field.setCurrent(0, 1);
+        assertTrue(TimeManager.getComplexityPercent(field) < start);
+    }
+
+    @Test
+    public void testTimedAnalysis()
+    {
+        final SoccerMatch match = new SoccerMatch(9, 13);
+        final SoccerEngine engine = new SoccerEngine(match.getField(), 2, PlayerId.Player1);
+
+        engine.setClock(2000, 0);
+        final long start = System.currentTimeMillis();
+        assertNotNull(engine.analyse());
+        final long timeMillis = System.currentTimeMillis() - start;
+        match.playTurn(engine.getBestPath());
+
+        // the optimum time at the start is about 120 ms, the maximum time 4 times more
+        assertTrue("time: " + timeMillis, timeMillis < 2000 / 3);
+    }
+}
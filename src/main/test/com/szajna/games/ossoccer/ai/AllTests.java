@@ -28,8 +28,27 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
+import com.szajna.games.ossoccer.BatchAnalyzerTest;
+import com.szajna.games.ossoccer.GameClockTest;
+import com.szajna.games.ossoccer.HeadlessEngineTest;
+import com.szajna.games.ossoccer.SoccerEngineTest;
+import com.szajna.games.ossoccer.SoccerMatchTest;
+import com.szajna.games.ossoccer.TimeManagerTest;
+import com.szajna.games.ossoccer.field.FieldGraphTest;
+import com.szajna.games.ossoccer.field.FieldSnapshotTest;
+import com.szajna.games.ossoccer.field.FieldTest;
+import com.szajna.games.ossoccer.field.PathTest;
+import com.szajna.games.ossoccer.server.SoccerServerTest;
+import com.szajna.games.ossoccer.tools.PerftTest;
+import com.szajna.games.ossoccer.tools.TournamentTest;
+
 @RunWith(Suite.class)
-@SuiteClasses({ PoolArrayLongTest.class, TreeElementHelperTest.class })
+@SuiteClasses({ PoolArrayLongTest.class, TreeElementHelperTest.class, BinaryHeapLongTest.class,
+        EstimationTreeFileTest.class, FieldGraphTest.class, FieldSnapshotTest.class,
+        FieldTest.class, PathTest.class, PerftTest.class, SoccerMatchTest.class,
+        SoccerServerTest.class, BatchAnalyzerTest.class, SearchContextTest.class,
+        TournamentTest.class, GameClockTest.class, TimeManagerTest.class,
+        SoccerEngineTest.class, HeadlessEngineTest.class, SimpleAIPlayerTest.class })
 public class AllTests
 {
 }
@@ -0,0 +1,97 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2019 Marek Szajna
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.szajna.games.ossoccer.ai;
+
+import static org.junit.Assert.*;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BinaryHeapLongTest
+{
+    @Before
+    public void setUp() throws Exception
+    {
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+    }
+
+    @Test
+    public void testCreate()
+    {
+        BinaryHeapLong heap = new BinaryHeapLong();
+        assertEquals(0, heap.size());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testPollEmpty()
+    {
+        BinaryHeapLong heap = new BinaryHeapLong();
+        heap.poll();
+    }
+
+    @Test
+    public void testAddPollOrder()
+    {
+        BinaryHeapLong heap = new BinaryHeapLong();
+        Random random = new Random(0);
+
+        int testValuesCount = 100000;
+        for (int i = 0; i < testValuesCount; ++i)
+        {
+            heap.add(random.nextLong());
+        }
+        assertEquals(testValuesCount, heap.size());
+
+        long previous = heap.peek();
+        while (!heap.isEmpty())
+        {
+            long value = heap.poll();
+            assertTrue(value <= previous);
+            previous = value;
+        }
+    }
+
+    @Test
+    public void testClear()
+    {
+        BinaryHeapLong heap = new BinaryHeapLong();
+        heap.add(1);
+        heap.add(-1);
+        heap.clear();
+        assertEquals(0, heap.size());
+
+        heap.add(7);
+        assertEquals(7, heap.peek());
+    }
+}
@@ -0,0 +1,124 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2019 Marek Szajna
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.szajna.games.ossoccer.ai;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.szajna.games.ossoccer.ai.EstimationTree.TreeElementHelper;
+import com.szajna.games.ossoccer.field.PlayerId;
+
+public class EstimationTreeFileTest
+{
+    private static final int ELEMENTS_COUNT = 20000;
+    private static final long POSITION_KEY = 0x123456789abcdefL;
+
+    private File file;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        file = File.createTempFile("tree", ".bin");
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        file.delete();
+    }
+
+    private static long element(int i)
+    {
+        return TreeElementHelper.valueOf(i - 1, (short) (i % 100), (byte) (i % 50), (byte) (i % 8), i % 2 == 0,
+                i % 3 == 0);
+    }
+
+    private static EstimationTree createTree()
+    {
+        EstimationTree tree = new EstimationTree(PlayerId.Player2);
+        for (int i = 0; i < ELEMENTS_COUNT; ++i)
+        {
+            tree.addElement(element(i));
+        }
+        return tree;
+    }
+
+    @Test
+    public void testSaveLoad() throws IOException
+    {
+        EstimationTreeFile.save(file, createTree(), POSITION_KEY, 123);
+
+        EstimationTreeFile treeFile = EstimationTreeFile.load(file, false);
+        EstimationTree tree = treeFile.getTree();
+
+        assertEquals(POSITION_KEY, treeFile.getPositionKey());
+        assertEquals(123, treeFile.getOpponentMoveStartIndex());
+        assertEquals(PlayerId.Player2, tree.getPlayerId());
+        assertEquals(ELEMENTS_COUNT, tree.getElementsCount());
+        assertTrue(tree.isAtLeastOnePathEndInTree());
+        for (int i = 0; i < ELEMENTS_COUNT; ++i)
+        {
+            assertEquals(element(i), tree.getElement(i));
+        }
+    }
+
+    @Test
+    public void testResume() throws IOException
+    {
+        EstimationTreeFile.save(file, createTree(), POSITION_KEY, -1);
+
+        EstimationTree tree = EstimationTreeFile.load(file, true).getTree();
+        tree.setElement(element(1), 0);
+        tree.addElement(element(ELEMENTS_COUNT));
+        assertEquals(element(1), tree.getElement(0));
+        assertEquals(element(ELEMENTS_COUNT), tree.getElement(ELEMENTS_COUNT));
+
+        // the file is not modified by the resumed tree
+        EstimationTreeFile treeFile = EstimationTreeFile.load(file, false);
+        assertEquals(-1, treeFile.getOpponentMoveStartIndex());
+        assertEquals(ELEMENTS_COUNT, treeFile.getTree().getElementsCount());
+        assertEquals(element(0), treeFile.getTree().getElement(0));
+
+        // save over the file mapped by the resumed tree
+        EstimationTreeFile.save(file, tree, POSITION_KEY, ELEMENTS_COUNT);
+        tree = EstimationTreeFile.load(file, false).getTree();
+        assertEquals(ELEMENTS_COUNT + 1, tree.getElementsCount());
+        assertEquals(element(1), tree.getElement(0));
+        assertEquals(element(ELEMENTS_COUNT - 1), tree.getElement(ELEMENTS_COUNT - 1));
+        assertEquals(element(ELEMENTS_COUNT), tree.getElement(ELEMENTS_COUNT));
+    }
+
+    @Test(expected = IOException.class)
+    public void testLoadInvalid() throws IOException
+    {
+        EstimationTreeFile.load(file, false);
+    }
+}
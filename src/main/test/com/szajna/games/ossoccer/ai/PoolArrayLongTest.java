@@ -82,4 +82,37 @@ public class PoolArrayLongTest
             assertEquals(array.get(i), i);
         }
     }
+
+    @Test
+    public void testReset()
+    {
+        PoolArrayLong array = new PoolArrayLong();
+
+        for (int i = 0; i < 100000; ++i)
+        {
+            array.add(i);
+        }
+        final long reservedByteSize = array.getReservedByteSize();
+
+        // the pools are reused
+        array.reset(100000);
+        assertEquals(0, array.size());
+        for (int i = 0; i < 50000; ++i)
+        {
+            array.add(-i);
+        }
+        assertEquals(50000, array.size());
+        assertEquals(reservedByteSize, array.getReservedByteSize());
+        for (int i = 0; i < 50000; ++i)
+        {
+            assertEquals(-i, array.get(i));
+        }
+
+        // the pools over the limit are released
+        array.reset(10000);
+        assertTrue(array.getReservedByteSize() < reservedByteSize);
+        assertTrue(array.getReservedByteSize() < 3 * PoolArrayLong.getPoolByteSize());
+        array.add(7);
+        assertEquals(7, array.get(0));
+    }
 }
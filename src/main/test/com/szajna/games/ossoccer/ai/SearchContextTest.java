@@ -0,0 +1,71 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2019 Marek Szajna
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.szajna.games.ossoccer.ai;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.szajna.games.ossoccer.SoccerMatch;
+import com.szajna.games.ossoccer.field.Path;
+import com.szajna.games.ossoccer.field.PlayerId;
+
+public class SearchContextTest
+{
+    @Test
+    public void testSharedContext()
+    {
+        final SearchContext context = new SearchContext();
+        final SoccerMatch match1 = new SoccerMatch(9, 13);
+        final SoccerMatch match2 = new SoccerMatch(7, 9);
+        match1.playTurn("0");
+
+        final AIPlayer player1 = AIFactory.createPlayer("simple", 1, PlayerId.Player2, match1.getField());
+        final AIPlayer player2 = AIFactory.createPlayer("simple", 1, PlayerId.Player1, match2.getField());
+        player1.setSearchContext(context);
+        player2.setSearchContext(context);
+        player1.setSearchLimits(5000, Long.MAX_VALUE);
+        player2.setSearchLimits(5000, Long.MAX_VALUE);
+
+        // the context is bound to the position of each analysis
+        final Path path1 = player1.makeMove();
+        final Path path2 = player2.makeMove();
+        final long reservedByteSize = context.getReservedByteSize();
+        assertTrue(reservedByteSize > 0);
+
+        match1.playTurn(path1);
+        match2.playTurn(path2);
+        assertTrue(match1.getField().getJournalSize() > 1);
+        assertTrue(match2.getField().getJournalSize() > 0);
+
+        // the memory is reused
+        player2.makeMove();
+        assertEquals(reservedByteSize, context.getReservedByteSize());
+
+        context.release();
+        assertEquals(0, context.getReservedByteSize());
+    }
+}
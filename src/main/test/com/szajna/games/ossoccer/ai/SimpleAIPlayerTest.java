@@ -0,0 +1,79 @@
+/**
+ * MIT License
+ * 
+ * Copyright (c) 2019 Marek Szajna
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.szajna.games.ossoccer.ai;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.szajna.games.ossoccer.SoccerMatch;
+import com.szajna.games.ossoccer.field.Field;
+import com.szajna.games.ossoccer.field.FieldFactory;
+import com.szajna.games.ossoccer.field.PlayerId;
+
+public class SimpleAIPlayerTest
+{
+    @Test
+    public void testLevelTreeSizes()
+    {
+        // the memory budgets of the levels keep the tree sizes on the standard field
+        final int[] treeElementMaxCounts = { 50000, 500000, 5000000 };
+        for (int level = 0; level < treeElementMaxCounts.length; ++level)
+        {
+            final Field field = FieldFactory.createStandard();
+            final AIPlayer player = AIFactory.createPlayer("simple", level, PlayerId.Player1, field);
+            player.setSearchLimits(1000, Long.MAX_VALUE);
+            assertNotNull(player.makeMove());
+            assertEquals(treeElementMaxCounts[level], player.getLastAnalysisStats().getElementsMaxCount());
+        }
+    }
+
+    @Test
+    public void testBestFirst()
+    {
+        // the ball is in front of the top goal after the opening: Player1 scores, Player2 avoids the own goal
+        for (int openingTurnsCount = 4; openingTurnsCount <= 5; ++openingTurnsCount)
+        {
+            final SoccerMatch match = new SoccerMatch(9, 13);
+            for (int i = 0; i < openingTurnsCount; ++i)
+            {
+                match.playTurn("0");
+            }
+
+            final int playerId = match.getPlayerToMove();
+            final AIPlayer player = AIFactory.createPlayer("simple", 0, playerId, match.getField());
+            player.setExpansionPolicy(ExpansionPolicy.BEST_FIRST);
+            match.playTurn(player.makeMove());
+
+            // the expansion queue takes a part of the memory of the level
+            assertTrue(player.getLastAnalysisStats().getElementsMaxCount() < 50000);
+            if (PlayerId.Player1 == playerId)
+                assertEquals(PlayerId.Player1, match.getWinner());
+            else
+                assertFalse(match.isGameOver());
+        }
+    }
+}
@@ -90,13 +90,13 @@ public class TreeElementHelperTest
     @Test
     public void testGetMoveDepth()
     {
-        for (int testValue = Byte.MIN_VALUE; testValue <= Byte.MAX_VALUE; ++testValue)
+        for (int testValue = 0; testValue <= TreeElementHelper.MAX_MOVE_DEPTH; ++testValue)
         {
-            long treeElement = TreeElementHelper.valueOf(0, (short) 0, (byte) testValue, (byte) 0, false, false);
+            long treeElement = TreeElementHelper.valueOf(0, (short) 0, testValue, (byte) 7, false, false);
             assertEquals(0, TreeElementHelper.getParentIndex(treeElement));
             assertEquals(0, TreeElementHelper.getEstimation(treeElement));
             assertEquals(testValue, TreeElementHelper.getMoveDepth(treeElement));
-            assertEquals(0, TreeElementHelper.getMoveDirection(treeElement));
+            assertEquals(7, TreeElementHelper.getMoveDirection(treeElement));
             assertEquals(false, TreeElementHelper.isAnalysisComplete(treeElement));
             assertEquals(false, TreeElementHelper.isPathEnd(treeElement));
         }
@@ -176,4 +176,24 @@ public class TreeElementHelperTest
         assertEquals(false, TreeElementHelper.isAnalysisComplete(treeElement));
         assertEquals(true, TreeElementHelper.isPathEnd(treeElement));
     }
+
+    @Test
+    public void testSetRefuted()
+    {
+        long treeElement = TreeElementHelper.valueOf(7, (short) -3, (byte) 5, (byte) 2, true, true);
+        assertEquals(false, TreeElementHelper.isRefuted(treeElement));
+
+        treeElement = TreeElementHelper.setRefuted(treeElement, true);
+        assertEquals(7, TreeElementHelper.getParentIndex(treeElement));
+        assertEquals(-3, TreeElementHelper.getEstimation(treeElement));
+        assertEquals(5, TreeElementHelper.getMoveDepth(treeElement));
+        assertEquals(2, TreeElementHelper.getMoveDirection(treeElement));
+        assertEquals(true, TreeElementHelper.isAnalysisComplete(treeElement));
+        assertEquals(true, TreeElementHelper.isPathEnd(treeElement));
+        assertEquals(true, TreeElementHelper.isRefuted(treeElement));
+
+        treeElement = TreeElementHelper.setRefuted(treeElement, false);
+        assertEquals(true, TreeElementHelper.isPathEnd(treeElement));
+        assertEquals(false, TreeElementHelper.isRefuted(treeElement));
+    }
 }
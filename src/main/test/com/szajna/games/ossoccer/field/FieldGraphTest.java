@@ -0,0 +1,66 @@
+package com.szajna.games.ossoccer.field;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class FieldGraphTest
+{
+    @Test
+    public void testLayoutMatchesNodes()
+    {
+        final Field field = FieldFactory.create(11, 15);
+        final FieldGraph graph = field.getGraph();
+
+        assertEquals(field.getEdgesCount(), graph.getEdgesCount());
+        assertEquals(field.getCurrentIndex(), graph.getStart());
+
+        for (int y = 0; y < field.getHeight(); ++y)
+        {
+            for (int x = 0; x < field.getWidth(); ++x)
+            {
+                final Node node = field.getNode(x, y);
+                final int index = graph.getNodeIndex(x, y);
+                assertEquals(x, graph.getX(index));
+                assertEquals(y, graph.getY(index));
+
+                if (null == node)
+                {
+                    assertEquals(0, graph.getNodeFlags(index));
+                    continue;
+                }
+                assertEquals(node.isBorder(), graph.isBorder(index));
+                assertEquals(node.isGoal(), graph.isGoal(index));
+                assertEquals(node.getAllowedDirections(), graph.getOpenDirections(index));
+
+                for (int dir = Move.DIRECTION_0; dir <= Move.DIRECTION_7; ++dir)
+                {
+                    final Edge edge = node.getEdge(dir);
+                    if (null == edge)
+                    {
+                        assertEquals(FieldGraph.NO_NODE, graph.getNeighbour(index, dir));
+                        assertEquals(FieldGraph.NO_EDGE, graph.getEdgeId(index, dir));
+                        continue;
+                    }
+                    final Node other = edge.getOpposite(node);
+                    assertEquals(graph.getNodeIndex(other.getX(), other.getY()), graph.getNeighbour(index, dir));
+                    assertEquals(edge.getId(), graph.getEdgeId(index, dir));
+                    assertEquals(edge.isBorder(), graph.isBlocked(edge.getId()));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testEdgeState()
+    {
+        final Field field = FieldFactory.createStandard();
+        final FieldGraph graph = field.getGraph();
+        final int edgeId = graph.getEdgeId(field.getCurrentIndex(), Move.DIRECTION_3);
+
+        assertFalse(field.isEdgeVisited(edgeId));
+        field.makeMove(Move.DIRECTION_3, PlayerId.Player1);
+        assertTrue(field.isEdgeVisited(edgeId));
+        assertEquals(graph.getNeighbour(graph.getStart(), Move.DIRECTION_3), field.getCurrentIndex());
+    }
+}
@@ -0,0 +1,171 @@
+package com.szajna.games.ossoccer.field;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class FieldSnapshotTest
+{
+    private Field field;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        field = FieldFactory.createStandard();
+        field.reset();
+    }
+
+    private void move(int direction, int playerId)
+    {
+        Path path = new Path();
+        path.addMove(Path.PathElement.valueOf((byte) direction, (byte) playerId));
+        field.applyPath(path);
+    }
+
+    @Test
+    public void testSnapshotIsImmutable()
+    {
+        final Node start = field.getCurrent();
+        final Edge edge = start.getEdge(Move.DIRECTION_0);
+
+        FieldSnapshot initial = field.snapshot();
+        move(Move.DIRECTION_0, PlayerId.Player2);
+        FieldSnapshot moved = field.snapshot();
+        move(Move.DIRECTION_2, PlayerId.Player1);
+
+        assertSame(start, initial.getCurrent());
+        assertFalse(initial.isEdgeVisited(edge));
+        assertFalse(initial.isNodeVisited(start.getNode(Move.DIRECTION_0)));
+        assertTrue(initial.isNodeVisited(start));
+
+        assertSame(start.getNode(Move.DIRECTION_0), moved.getCurrent());
+        assertEquals(PlayerId.Player2, moved.getEdgeVisitedBy(edge));
+        assertTrue(moved.isNodeVisited(moved.getCurrent()));
+        assertFalse(moved.isEdgeVisited(moved.getCurrent().getEdge(Move.DIRECTION_2)));
+
+        assertEquals(PlayerId.Player2, edge.getVisitedBy());
+        assertEquals(PlayerId.Player1, field.getCurrent().getEdge(Move.DIRECTION_6).getVisitedBy());
+    }
+
+    @Test
+    public void testReset()
+    {
+        move(Move.DIRECTION_0, PlayerId.Player1);
+        FieldSnapshot moved = field.snapshot();
+        field.reset();
+
+        assertTrue(moved.isEdgeVisited(moved.getCurrent().getEdge(Move.DIRECTION_4)));
+        assertFalse(field.getCurrent().getEdge(Move.DIRECTION_0).isVisited());
+    }
+
+    @Test
+    public void testPositionKey()
+    {
+        long initialKey = field.getPositionKey();
+        assertEquals(initialKey, field.snapshot().getPositionKey());
+
+        move(Move.DIRECTION_0, PlayerId.Player1);
+        FieldSnapshot moved = field.snapshot();
+        assertEquals(field.getPositionKey(), moved.getPositionKey());
+        assertTrue(initialKey != moved.getPositionKey());
+
+        field.reset();
+        assertEquals(initialKey, field.getPositionKey());
+    }
+
+    @Test
+    public void testCopy()
+    {
+        move(Move.DIRECTION_0, PlayerId.Player1);
+        move(Move.DIRECTION_1, PlayerId.Player2);
+
+        Field copy = field.copy();
+        assertEquals(field.getPositionKey(), copy.getPositionKey());
+        assertEquals(field.getCurrent().getX(), copy.getCurrent().getX());
+        assertEquals(field.getCurrent().getY(), copy.getCurrent().getY());
+        assertTrue(copy.getCurrent().isVisited());
+        assertEquals(PlayerId.Player2, copy.getCurrent().getEdge(Move.DIRECTION_5).getVisitedBy());
+
+        // the copy is independent of the field
+        Node current = copy.getCurrent();
+        current.getEdge(Move.DIRECTION_0).setVisitedBy(PlayerId.Player1);
+        assertFalse(field.getCurrent().getEdge(Move.DIRECTION_0).isVisited());
+    }
+
+    @Test
+    public void testRestore()
+    {
+        FieldSnapshot initial = field.snapshot();
+        Field copy = field.copy();
+
+        move(Move.DIRECTION_0, PlayerId.Player1);
+        copy.restore(field.snapshot());
+        assertEquals(field.getPositionKey(), copy.getPositionKey());
+        assertTrue(copy.getCurrent().isVisited());
+
+        copy.restore(initial);
+        assertEquals(initial.getPositionKey(), copy.getPositionKey());
+        assertFalse(copy.getCurrent().getNode(Move.DIRECTION_0).isVisited());
+        assertTrue(field.getCurrent().isVisited());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRestoreOtherSize()
+    {
+        FieldFactory.create(7, 9).restore(field.snapshot());
+    }
+
+    @Test
+    public void testBorderEdges()
+    {
+        final Node corner = field.getNode(0, 1);
+        final Edge border = corner.getEdge(Move.DIRECTION_2);
+        assertTrue(border.isBorder());
+        assertTrue(border.isBlocked());
+        assertFalse(border.isVisited());
+
+        // the border edges are not changed
+        border.setVisitedBy(PlayerId.Player1);
+        assertEquals(PlayerId.None, border.getVisitedBy());
+        border.reset();
+        assertTrue(border.isBlocked());
+        assertTrue(field.snapshot().isEdgeBlocked(border));
+    }
+
+    @Test
+    public void testWriteRead() throws IOException
+    {
+        move(Move.DIRECTION_0, PlayerId.Player1);
+        move(Move.DIRECTION_1, PlayerId.Player2);
+        FieldSnapshot snapshot = field.snapshot();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        snapshot.writeTo(new DataOutputStream(bytes));
+        assertTrue(bytes.size() < 200);
+
+        Field other = FieldFactory.createStandard();
+        FieldSnapshot read = FieldSnapshot.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())),
+                other);
+        assertEquals(snapshot.getPositionKey(), read.getPositionKey());
+
+        other.restore(read);
+        assertEquals(field.getPositionKey(), other.getPositionKey());
+        assertEquals(PlayerId.Player2, other.getCurrent().getEdge(Move.DIRECTION_5).getVisitedBy());
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadOtherSize() throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        field.snapshot().writeTo(new DataOutputStream(bytes));
+        FieldSnapshot.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())),
+                FieldFactory.create(7, 9));
+    }
+}
@@ -0,0 +1,178 @@
+package com.szajna.games.ossoccer.field;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.szajna.games.ossoccer.SoccerRules;
+import com.szajna.games.ossoccer.field.Path.PathElement;
+
+public class FieldTest
+{
+    private Field field;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        field = FieldFactory.createStandard();
+        field.reset();
+    }
+
+    @Test
+    public void testNodeVisited()
+    {
+        final Node start = field.getCurrent();
+        final Node north = start.getNode(Move.DIRECTION_0);
+        final Node east = north.getNode(Move.DIRECTION_2);
+        final Edge startNorth = start.getEdge(Move.DIRECTION_0);
+        final Edge northEast = north.getEdge(Move.DIRECTION_2);
+
+        assertTrue(start.isVisited());
+        assertFalse(north.isVisited());
+
+        startNorth.setVisitedBy(PlayerId.Player1);
+        northEast.setVisitedBy(PlayerId.Player2);
+        assertTrue(north.isVisited());
+        assertTrue(north.isMarked());
+        assertTrue(east.isVisited());
+
+        // setting the owner of a visited edge does not change the count
+        northEast.setVisitedBy(PlayerId.Player1);
+        northEast.setVisitedBy(PlayerId.None);
+        assertFalse(east.isVisited());
+        assertTrue(north.isVisited());
+
+        startNorth.setVisitedBy(PlayerId.None);
+        assertFalse(north.isVisited());
+        assertFalse(north.isMarked());
+
+        // the start node is pinned
+        assertTrue(start.isVisited());
+    }
+
+    @Test
+    public void testReset()
+    {
+        final Node start = field.getCurrent();
+        final Node north = start.getNode(Move.DIRECTION_0);
+        start.getEdge(Move.DIRECTION_0).setVisitedBy(PlayerId.Player1);
+
+        final long startKey = field.getPositionKey();
+        final FieldSnapshot snapshot = field.snapshot();
+
+        field.reset();
+        assertFalse(north.isVisited());
+        assertTrue(start.isVisited());
+        assertEquals(0xff, start.getAllowedDirections());
+        assertFalse(start.getEdge(Move.DIRECTION_0).isVisited());
+        assertEquals(PlayerId.None, start.getEdge(Move.DIRECTION_0).getVisitedBy());
+        assertNotEquals(startKey, field.getPositionKey());
+
+        // the snapshot taken before the reset is not affected
+        assertEquals(PlayerId.Player1, snapshot.getEdgeVisitedBy(start.getEdge(Move.DIRECTION_0)));
+
+        // the field is usable after the reset and after the restore
+        start.getEdge(Move.DIRECTION_1).setVisitedBy(PlayerId.Player2);
+        assertEquals(0xfd, start.getAllowedDirections());
+        field.restore(snapshot);
+        assertEquals(0xfe, start.getAllowedDirections());
+        assertTrue(north.isVisited());
+        assertEquals(startKey, field.getPositionKey());
+    }
+
+    @Test
+    public void testAllowedDirections()
+    {
+        final Node start = field.getCurrent();
+        final Node north = start.getNode(Move.DIRECTION_0);
+        assertEquals(0xff, start.getAllowedDirections());
+
+        start.getEdge(Move.DIRECTION_0).setVisitedBy(PlayerId.Player1);
+        assertEquals(0xfe, start.getAllowedDirections());
+        assertEquals(0xef, north.getAllowedDirections());
+        assertFalse(SoccerRules.isMoveAllowed(north, Move.DIRECTION_4));
+        assertArrayEquals(new byte[] { 1, 2, 3, 4, 5, 6, 7 },
+                SoccerRules.getDirections(SoccerRules.getAllowedDirections(start)));
+
+        start.getEdge(Move.DIRECTION_0).setVisitedBy(PlayerId.None);
+        assertEquals(0xff, north.getAllowedDirections());
+
+        // corner node - a single move allowed
+        final Node corner = field.getNode(0, 1);
+        assertEquals(1 << Move.DIRECTION_1, corner.getAllowedDirections());
+        assertTrue(SoccerRules.isAnyMoveAllowed(corner));
+        assertFalse(SoccerRules.isAnyMoveAllowed(corner, Move.DIRECTION_1));
+    }
+
+    @Test
+    public void testMoveJournal()
+    {
+        final Node start = field.getCurrent();
+        final long startKey = field.getPositionKey();
+
+        field.makeMove(Move.DIRECTION_0, PlayerId.Player1);
+        field.makeMove(Move.DIRECTION_2, PlayerId.Player1);
+        assertEquals(2, field.getJournalSize());
+        assertEquals(PlayerId.Player1, start.getEdge(Move.DIRECTION_0).getVisitedBy());
+        assertNotSame(start, field.getCurrent());
+        assertEquals(0, field.getPath().size());
+
+        field.undoMoves(2);
+        assertEquals(0, field.getJournalSize());
+        assertSame(start, field.getCurrent());
+        assertEquals(0xff, start.getAllowedDirections());
+        assertEquals(startKey, field.getPositionKey());
+
+        // the ball set back to the center after a goal
+        field.makeMove(Move.DIRECTION_0, PlayerId.Player2);
+        field.setCurrent(field.getWidth() / 2, 1);
+        field.undoMove();
+        assertSame(start, field.getCurrent());
+
+        try
+        {
+            field.undoMove();
+            fail("Undo of an empty journal.");
+        }
+        catch (IllegalStateException e)
+        {
+        }
+    }
+
+    @Test
+    public void testApplyPathUndo()
+    {
+        final Node start = field.getCurrent();
+        final Path path = new Path();
+        path.addMove(PathElement.valueOf(Move.DIRECTION_0, (byte) PlayerId.Player1));
+        path.addMove(PathElement.PATH_SEPARATOR);
+        path.addMove(PathElement.valueOf(Move.DIRECTION_2, (byte) PlayerId.Player2));
+
+        field.applyPath(path);
+        assertEquals(2, field.getJournalSize());
+        assertEquals(3, field.getPath().size());
+
+        // the path is restored to its size before the move
+        field.undoMove();
+        assertEquals(2, field.getPath().size());
+        field.undoMove();
+        assertEquals(0, field.getPath().size());
+        assertSame(start, field.getCurrent());
+
+        // invalid path - the field is not changed
+        path.addMove(PathElement.valueOf(Move.DIRECTION_6, (byte) PlayerId.Player2));
+        try
+        {
+            field.applyPath(path);
+            fail("Invalid path applied.");
+        }
+        catch (IllegalArgumentException e)
+        {
+        }
+        assertEquals(0, field.getJournalSize());
+        assertEquals(0, field.getPath().size());
+        assertSame(start, field.getCurrent());
+        assertFalse(start.getEdge(Move.DIRECTION_0).isVisited());
+    }
+}
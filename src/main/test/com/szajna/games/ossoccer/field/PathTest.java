@@ -0,0 +1,105 @@
+package com.szajna.games.ossoccer.field;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.szajna.games.ossoccer.field.Path.PathElement;
+
+public class PathTest
+{
+    private static PathElement move(int direction, int playerId)
+    {
+        return PathElement.valueOf((byte) direction, (byte) playerId);
+    }
+
+    private static Path createPath(int movesCount)
+    {
+        Path path = new Path();
+        for (int i = 0; i < movesCount; ++i)
+        {
+            path.addMove(move(i % 8, 1 + i % 2));
+        }
+        return path;
+    }
+
+    @Test
+    public void testAddGet()
+    {
+        Path path = createPath(100);
+        path.addMove(PathElement.PATH_SEPARATOR);
+
+        assertEquals(101, path.size());
+        for (int i = 0; i < 100; ++i)
+        {
+            assertSame(move(i % 8, 1 + i % 2), path.get(i));
+        }
+        assertTrue(path.get(100).isSeparator());
+
+        path.clear();
+        assertEquals(0, path.size());
+        assertEquals(0, path.getMoves().size());
+    }
+
+    @Test
+    public void testCopyAndAddPath()
+    {
+        Path path = createPath(20);
+        Path copy = new Path(path);
+        path.addPath(copy);
+
+        assertEquals(20, copy.size());
+        assertEquals(40, path.size());
+        for (int i = 0; i < 20; ++i)
+        {
+            assertSame(copy.get(i), path.get(20 + i));
+        }
+    }
+
+    @Test
+    public void testReverse()
+    {
+        Path path = createPath(5);
+        Path reversed = new Path(path);
+        reversed.reverse();
+
+        for (int i = 0; i < 5; ++i)
+        {
+            assertSame(path.get(i), reversed.get(4 - i));
+        }
+    }
+
+    @Test
+    public void testGetDiff()
+    {
+        Path path = createPath(10);
+        Path longer = createPath(13);
+
+        Path diff = Path.getDiff(path, longer);
+        assertEquals(3, diff.size());
+        assertSame(longer.get(10), diff.get(0));
+        assertSame(longer.get(12), diff.get(2));
+        assertEquals(0, Path.getDiff(path, path).size());
+    }
+
+    @Test
+    public void testMovesView()
+    {
+        Path path = createPath(3);
+        List<PathElement> moves = path.getMoves();
+
+        moves.add(PathElement.PATH_SEPARATOR);
+        assertEquals(4, path.size());
+
+        Collections.reverse(moves);
+        assertTrue(path.get(0).isSeparator());
+        assertSame(move(0, 1), path.get(3));
+
+        moves.remove(0);
+        assertEquals(3, path.size());
+        assertEquals("3 move(s): [d2,p1][d1,p2][d0,p1]", path.toString());
+    }
+}
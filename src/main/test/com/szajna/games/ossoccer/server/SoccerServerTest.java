@@ -0,0 +1,94 @@
+package com.szajna.games.ossoccer.server;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.szajna.games.ossoccer.SoccerMatch;
+import com.szajna.games.ossoccer.tools.RandomPositions;
+
+public class SoccerServerTest
+{
+    private SoccerServer server;
+    private Socket socket;
+    private BufferedReader in;
+    private PrintWriter out;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        server = new SoccerServer(0, null, 2, 16);
+        server.start();
+        socket = new Socket("localhost", server.getPort());
+        in = new BufferedReader(new InputStreamReader(socket.getInputStream(), "US-ASCII"));
+        out = new PrintWriter(socket.getOutputStream(), true);
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        socket.close();
+        server.close();
+    }
+
+    @Test
+    public void testGame() throws IOException
+    {
+        final Random random = new Random(1);
+        final SoccerMatch match = new SoccerMatch(9, 13);
+
+        assertEquals("game 1", request("new level 0 nodes 500"));
+        while (!match.isGameOver())
+        {
+            final String turn = RandomPositions.getRandomTurn(match.getField(), random);
+            match.playTurn(turn);
+
+            String[] reply = request("play 1 " + turn).split(" ");
+            if (!match.isGameOver())
+            {
+                assertEquals("move", reply[0]);
+                assertEquals("1", reply[1]);
+                match.playTurn(reply[2]);
+                if (match.isGameOver())
+                    reply = in.readLine().split(" ");
+            }
+            if (match.isGameOver())
+            {
+                assertEquals("over", reply[0]);
+                assertEquals(String.valueOf(match.getWinner()), reply[2]);
+            }
+        }
+        assertTrue(request("stats").startsWith("stats connections 1 games 1 "));
+        out.println("end 1");
+        assertTrue(request("stats").startsWith("stats connections 1 games 0 "));
+    }
+
+    @Test
+    public void testErrors() throws IOException
+    {
+        assertTrue(request("new size 4 13").startsWith("error "));
+        assertTrue(request("play 1 0").startsWith("error "));
+        assertEquals("game 1", request("new"));
+        assertTrue(request("play 1 8").startsWith("error "));
+        assertTrue(request("play 1 00").startsWith("error "));
+        assertTrue(request("dance").startsWith("error "));
+
+        // the game is not changed by the invalid turns
+        assertTrue(request("play 1 0").startsWith("move 1 "));
+    }
+
+    private String request(final String line) throws IOException
+    {
+        out.println(line);
+        return in.readLine();
+    }
+}
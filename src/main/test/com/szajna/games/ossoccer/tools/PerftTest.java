@@ -0,0 +1,67 @@
+package com.szajna.games.ossoccer.tools;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.szajna.games.ossoccer.field.Field;
+import com.szajna.games.ossoccer.field.FieldFactory;
+import com.szajna.games.ossoccer.field.PlayerId;
+import com.szajna.games.ossoccer.tools.Perft.Generator;
+
+public class PerftTest
+{
+    /** Random opening seed, perft depth - the deeper counts of the other positions take too long */
+    private static final int[][] POSITIONS = { { 0, 2 }, { 1, 1 }, { 2, 2 }, { 3, 2 }, { 4, 2 }, { 5, 1 }, { 6, 1 },
+            { 7, 1 }, { 8, 1 }, { 9, 1 } };
+
+    @Test
+    public void testStartPosition()
+    {
+        Field field = FieldFactory.createStandard();
+        field.reset();
+        Perft perft = new Perft(field, Generator.MASK);
+
+        assertEquals(1, perft.count(0, PlayerId.Player1));
+        assertEquals(8, perft.count(1, PlayerId.Player1));
+        assertEquals(8, perft.getMovesCount());
+        assertEquals(56, perft.count(2, PlayerId.Player1));
+        assertEquals(64, perft.getMovesCount());
+        assertEquals(512, perft.count(3, PlayerId.Player1));
+        assertEquals(600, perft.getMovesCount());
+    }
+
+    @Test
+    public void testGeneratorsEquivalent()
+    {
+        for (int[] position : POSITIONS)
+        {
+            final int seed = position[0];
+            final int depth = position[1];
+            long[] counts = new long[Generator.values().length];
+            long[] moves = new long[Generator.values().length];
+
+            for (Generator generator : Generator.values())
+            {
+                Field field = FieldFactory.createStandard();
+                field.reset();
+                int playerId = RandomPositions.playOpening(field, new Random(seed), 20);
+                long positionKey = field.getPositionKey();
+
+                Perft perft = new Perft(field, generator);
+                counts[generator.ordinal()] = perft.count(depth, playerId);
+                moves[generator.ordinal()] = perft.getMovesCount();
+
+                // the field is left in the initial state
+                assertEquals(positionKey, field.getPositionKey());
+            }
+            for (int i = 1; i < counts.length; ++i)
+            {
+                assertEquals("seed " + seed, counts[0], counts[i]);
+                assertEquals("seed " + seed, moves[0], moves[i]);
+            }
+        }
+    }
+}
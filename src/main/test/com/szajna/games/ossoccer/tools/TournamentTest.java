@@ -0,0 +1,94 @@
+package com.szajna.games.ossoccer.tools;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.szajna.games.ossoccer.field.PlayerId;
+import com.szajna.games.ossoccer.tools.Tournament.Config;
+
+public class TournamentTest
+{
+    @Test
+    public void testElo()
+    {
+        assertEquals(0, Tournament.getElo(0.5), 1e-9);
+        assertEquals(190.85, Tournament.getElo(0.75), 0.01);
+        assertEquals(-190.85, Tournament.getElo(0.25), 0.01);
+        assertEquals(0.75, Tournament.getScore(5, 1, 2), 1e-9);
+
+        final double[] interval = Tournament.getEloInterval(60, 40, 0);
+        assertTrue(interval[0] < Tournament.getElo(0.6));
+        assertTrue(interval[1] > Tournament.getElo(0.6));
+        assertTrue(interval[0] > 0 && interval[0] < 10);
+    }
+
+    @Test
+    public void testSprt()
+    {
+        assertEquals(0, Tournament.getSprtLlr(0, 0, 0, 0, 10), 1e-9);
+
+        // the score between the hypotheses gives no evidence
+        assertEquals(0, Tournament.getSprtLlr(507, 493, 0, 0, 10), 0.05);
+
+        assertTrue(Tournament.getSprtLlr(700, 300, 0, 0, 10) > Tournament.getSprtUpperBound());
+        assertTrue(Tournament.getSprtLlr(300, 700, 0, 0, 10) < Tournament.getSprtLowerBound());
+    }
+
+    @Test
+    public void testGames() throws InterruptedException
+    {
+        final Tournament tournament = new Tournament(Config.parse("0/500"), Config.parse("0/500"), 2, 1);
+
+        assertEquals("level 1, nodes 2000, BEST_FIRST", Config.parse("1/2000/-/best_first").toString());
+
+        final int winner = tournament.playGame(0);
+        assertTrue(PlayerId.Player1 == winner || PlayerId.Player2 == winner || PlayerId.None == winner);
+
+        // the games are played in pairs
+        tournament.run(5, 2);
+        assertEquals(6, tournament.getGamesCount());
+    }
+
+    @Test
+    public void testProgressAndFailure() throws InterruptedException
+    {
+        final List<String> reports = new ArrayList<String>();
+        final Tournament tournament = new Tournament(Config.parse("0/500"), Config.parse("0/500"), 2, 1) {
+            @Override
+            int playGame(int game)
+            {
+                if (game == 250)
+                    throw new IllegalArgumentException("game " + game);
+                return PlayerId.None;
+            }
+        };
+        tournament.setProgressObserver(new Tournament.IProgressObserver() {
+            @Override
+            public void onProgress(String report)
+            {
+                synchronized (reports)
+                {
+                    reports.add(report);
+                }
+            }
+        });
+
+        // the failed game stops the tournament and its exception is propagated
+        try
+        {
+            tournament.run(1000, 1);
+            fail();
+        }
+        catch (IllegalStateException e)
+        {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+        assertEquals(250, tournament.getGamesCount());
+        assertEquals(2, reports.size());
+        assertTrue(reports.get(1).startsWith("games: 200,"));
+    }
+}